@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# Measure time to first successful request: start the given command and poll the
+# health endpoint until it returns 200, then print the elapsed milliseconds and stop the app.
+#
+#   scripts/time-to-first-request.sh java -jar target/practical4-backend-0.0.1-SNAPSHOT.war
+#   cd target/fast-startup && ../../scripts/time-to-first-request.sh \
+#       java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -jar practical4-backend-fast.jar
+#
+# URL defaults to the actuator health endpoint; override with TTFR_URL.
+set -euo pipefail
+
+if [ "$#" -eq 0 ]; then
+    echo "usage: $0 <command...>" >&2
+    exit 2
+fi
+
+url="${TTFR_URL:-http://localhost:8080/practical4-backend/actuator/health}"
+timeout_s="${TTFR_TIMEOUT:-120}"
+
+start=$(date +%s%N)
+"$@" > "${TTFR_LOG:-/dev/null}" 2>&1 &
+pid=$!
+trap 'kill "$pid" 2>/dev/null || true; wait "$pid" 2>/dev/null || true' EXIT
+
+while true; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+        echo "application exited before answering $url" >&2
+        exit 1
+    fi
+    if [ "$(curl -s -o /dev/null -w '%{http_code}' "$url" || true)" = "200" ]; then
+        break
+    fi
+    if [ $(( ($(date +%s%N) - start) / 1000000000 )) -ge "$timeout_s" ]; then
+        echo "no 200 from $url within ${timeout_s}s" >&2
+        exit 1
+    fi
+    sleep 0.05
+done
+
+echo "time to first request: $(( ($(date +%s%N) - start) / 1000000 )) ms"
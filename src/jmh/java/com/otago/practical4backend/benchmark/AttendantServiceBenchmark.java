@@ -0,0 +1,63 @@
+package com.otago.practical4backend.benchmark;
+
+import com.otago.practical4backend.model.Attendant;
+import com.otago.practical4backend.service.AttendantService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Attendant Service Benchmark
+ * AttendantService.createAttendant (validation, duplicate checks and insert) against
+ * an H2 table already holding 1k, 100k and 1M attendants
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class AttendantServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private AttendantService attendantService;
+    private AtomicLong next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(0, rows);
+        attendantService = context.getBean(AttendantService.class);
+        next = new AtomicLong(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Attendant createAttendant() {
+        // Every invocation uses a contact that is not in the table yet
+        long n = next.incrementAndGet();
+        Attendant attendant = new Attendant("Attendant " + n, "Benchmark Road", BenchmarkData.mobile(n),
+                BenchmarkData.email(n), null);
+        return attendantService.createAttendant(attendant);
+    }
+}
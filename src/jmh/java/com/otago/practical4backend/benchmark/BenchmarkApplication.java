@@ -0,0 +1,98 @@
+package com.otago.practical4backend.benchmark;
+
+import com.otago.practical4backend.Practical4BackendApplication;
+import com.otago.practical4backend.config.SchemaUpgradeRunner;
+import com.otago.practical4backend.index.IndexMaintainer;
+import com.otago.practical4backend.model.Attendant;
+import com.otago.practical4backend.model.Product;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark Application
+ * Starts the application against a private in-memory H2 database and fills it with benchmark rows
+ */
+final class BenchmarkApplication {
+
+    private static final int INSERT_CHUNK = 10_000;
+
+    private static final String[] INDEXES = {
+            "category", "product-name", "stock", "attendant-name", "attendant-contact"
+    };
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * Start the application without a web server
+     * Command-line arguments are used so they take precedence over application.properties
+     * @param products Number of products to insert
+     * @param attendants Number of attendants to insert
+     * @return Running context; close it in the benchmark tear-down
+     */
+    static ConfigurableApplicationContext start(int products, int attendants) {
+        String database = "bench" + System.nanoTime();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Practical4BackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;MODE=MySQL",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        // Replace the sample rows from DataLoader with the benchmark data set
+        jdbcTemplate.update("DELETE FROM products");
+        jdbcTemplate.update("DELETE FROM attendants");
+        insertProducts(jdbcTemplate, products);
+        insertAttendants(jdbcTemplate, attendants);
+        jdbcTemplate.update("ALTER TABLE attendants ALTER COLUMN id RESTART WITH " + (attendants + 1));
+        context.getBean(SchemaUpgradeRunner.class).seedIdGenerator("products", "products", Product.ID_ALLOCATION_SIZE);
+
+        // Rows were inserted behind the application's back, so rebuild the in-memory indexes
+        IndexMaintainer indexMaintainer = context.getBean(IndexMaintainer.class);
+        for (String index : INDEXES) {
+            indexMaintainer.verify(index, true);
+        }
+        return context;
+    }
+
+    private static void insertProducts(JdbcTemplate jdbcTemplate, int count) {
+        List<Object[]> rows = new ArrayList<>(INSERT_CHUNK);
+        for (long id = 1; id <= count; id++) {
+            Product product = BenchmarkData.product(id);
+            rows.add(new Object[]{id, product.getName(), product.getPrice(), product.getCategory(),
+                    product.getStock(), product.getDescription()});
+            if (rows.size() == INSERT_CHUNK || id == count) {
+                jdbcTemplate.batchUpdate("INSERT INTO products (id, name, price, category, stock, description, "
+                        + "version) VALUES (?, ?, ?, ?, ?, ?, 0)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    private static void insertAttendants(JdbcTemplate jdbcTemplate, int count) {
+        List<Object[]> rows = new ArrayList<>(INSERT_CHUNK);
+        for (long id = 1; id <= count; id++) {
+            Attendant attendant = BenchmarkData.attendant(id);
+            rows.add(new Object[]{id, attendant.getName(), attendant.getAddress(), attendant.getMobile(),
+                    attendant.getEmail(), attendant.getComments(),
+                    Attendant.normalizeEmail(attendant.getEmail()), Attendant.normalizeMobile(attendant.getMobile())});
+            if (rows.size() == INSERT_CHUNK || id == count) {
+                jdbcTemplate.batchUpdate("INSERT INTO attendants (id, name, address, mobile, email, comments, "
+                        + "email_normalized, mobile_normalized, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)", rows);
+                rows.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.otago.practical4backend.benchmark;
+
+import com.otago.practical4backend.model.Attendant;
+import com.otago.practical4backend.model.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Benchmark Data
+ * Deterministic product and attendant rows, so every run measures the same data
+ */
+final class BenchmarkData {
+
+    static final String[] CATEGORIES = {
+            "Electronics", "Furniture", "Stationery", "Clothing", "Kitchen",
+            "Garden", "Toys", "Sports", "Books", "Health"
+    };
+
+    private static final String[] ADJECTIVES = {
+            "Wireless", "Compact", "Deluxe", "Classic", "Portable",
+            "Smart", "Ergonomic", "Premium", "Basic", "Heavy-duty"
+    };
+
+    private static final String[] NOUNS = {
+            "Mouse", "Keyboard", "Chair", "Desk", "Lamp",
+            "Notebook", "Kettle", "Jacket", "Speaker", "Backpack"
+    };
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Build the product with a given ID
+     * @param id Product ID (1-based)
+     * @return Product with derived name, price, category and stock
+     */
+    static Product product(long id) {
+        SplittableRandom random = new SplittableRandom(id);
+        Product product = new Product(
+                ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + id,
+                BigDecimal.valueOf(random.nextInt(100, 100_000), 2),
+                CATEGORIES[random.nextInt(CATEGORIES.length)],
+                random.nextInt(0, 500),
+                "Benchmark product " + id + " with a description of typical length for the catalogue");
+        product.setId(id);
+        return product;
+    }
+
+    /**
+     * Build the attendant with a given ID
+     * @param id Attendant ID (1-based)
+     * @return Attendant with unique email and mobile
+     */
+    static Attendant attendant(long id) {
+        Attendant attendant = new Attendant(
+                "Attendant " + id,
+                id + " George Street, Dunedin",
+                mobile(id),
+                email(id),
+                "Benchmark attendant");
+        attendant.setId(id);
+        return attendant;
+    }
+
+    static String email(long n) {
+        return "attendant" + n + "@example.com";
+    }
+
+    static String mobile(long n) {
+        return String.format("02%09d", n);
+    }
+
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            products.add(product(id));
+        }
+        return products;
+    }
+
+    static List<Attendant> attendants(int count) {
+        List<Attendant> attendants = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            attendants.add(attendant(id));
+        }
+        return attendants;
+    }
+}
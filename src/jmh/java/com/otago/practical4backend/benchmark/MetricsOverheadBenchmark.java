@@ -0,0 +1,80 @@
+package com.otago.practical4backend.benchmark;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics Overhead Benchmark
+ * Cost of the instrumentation itself: a trivial service call with and without the
+ * @Timed aspect, and one recording into an HTTP-style latency histogram
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    private Target plain;
+    private Target timed;
+    private Timer histogramTimer;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        plain = new Target();
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Target());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new TimedAspect(registry));
+        timed = factory.getProxy();
+
+        // Same distribution settings as http.server.requests in application.properties
+        histogramTimer = Timer.builder("http.server.requests")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+    }
+
+    @Benchmark
+    public long baseline() {
+        return plain.work(counter++);
+    }
+
+    @Benchmark
+    public long timedAspect() {
+        return timed.work(counter++);
+    }
+
+    @Benchmark
+    public void histogramRecord() {
+        histogramTimer.record(counter++ & 0xFFFFF, TimeUnit.MICROSECONDS);
+    }
+
+    @Timed("app.service")
+    public static class Target {
+        public long work(long value) {
+            return value * 31 + 7;
+        }
+    }
+}
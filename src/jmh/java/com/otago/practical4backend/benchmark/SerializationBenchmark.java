@@ -0,0 +1,74 @@
+package com.otago.practical4backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.otago.practical4backend.model.Attendant;
+import com.otago.practical4backend.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization Benchmark
+ * Jackson serialization of Product and Attendant lists as returned by the list endpoints, with the
+ * application's own ObjectMapper so its registered modules and settings are part of the measurement
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SerializationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private List<Product> products;
+    private List<Attendant> attendants;
+    private ObjectWriter productWriter;
+    private ObjectWriter attendantWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = BenchmarkData.products(rows);
+        attendants = BenchmarkData.attendants(rows);
+        // No rows are needed in the database; only the configured ObjectMapper is used
+        context = BenchmarkApplication.start(0, 0);
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        productWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Product.class));
+        attendantWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Attendant.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void serializeProducts() throws IOException {
+        productWriter.writeValue(OutputStream.nullOutputStream(), products);
+    }
+
+    @Benchmark
+    public void serializeAttendants() throws IOException {
+        attendantWriter.writeValue(OutputStream.nullOutputStream(), attendants);
+    }
+}
@@ -0,0 +1,102 @@
+package com.otago.practical4backend.benchmark;
+
+import com.otago.practical4backend.model.Product;
+import com.otago.practical4backend.service.InsufficientStockException;
+import com.otago.practical4backend.service.ProductService;
+import com.otago.practical4backend.service.StockReservationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stock Reservation Benchmark
+ * 16 threads reserving and releasing one unit of the same product, through StockReservationService
+ * (coalesced per product, one transaction per burst) and straight through ProductService (one
+ * transaction per request, queued on the row lock).
+ * Stock is kept low so some reservations are refused; refusals count as operations and their number
+ * is printed. After each trial the stock must be back where it started and never below zero,
+ * otherwise the trial fails
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class StockReservationBenchmark {
+
+    private static final long HOT_PRODUCT = 1;
+
+    @Param({"4", "64"})
+    private int stock;
+
+    private ConfigurableApplicationContext context;
+    private StockReservationService stockReservationService;
+    private ProductService productService;
+    private JdbcTemplate jdbcTemplate;
+    private final LongAdder refused = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(1000, 0);
+        stockReservationService = context.getBean(StockReservationService.class);
+        productService = context.getBean(ProductService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("UPDATE products SET stock = ? WHERE id = ?", stock, HOT_PRODUCT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Integer left = jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, HOT_PRODUCT);
+        context.close();
+        if (left == null || left != stock) {
+            throw new IllegalStateException("Stock of the hot product ended at " + left + " instead of " + stock);
+        }
+        System.out.println("Refused reservations: " + refused.sum());
+    }
+
+    @Benchmark
+    public Product reserveAndReleaseCoalesced() {
+        try {
+            checkNotOversold(stockReservationService.reserve(HOT_PRODUCT, 1));
+        } catch (InsufficientStockException e) {
+            refused.increment();
+            return null;
+        }
+        return stockReservationService.release(HOT_PRODUCT, 1);
+    }
+
+    @Benchmark
+    public Product reserveAndReleaseThroughRowLock() {
+        try {
+            checkNotOversold(productService.reserveStock(HOT_PRODUCT, 1));
+        } catch (InsufficientStockException e) {
+            refused.increment();
+            return null;
+        }
+        return productService.releaseStock(HOT_PRODUCT, 1);
+    }
+
+    private static void checkNotOversold(Product product) {
+        if (product.getStock() < 0) {
+            throw new IllegalStateException("Hot product oversold: stock " + product.getStock());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.otago.practical4backend.benchmark;
+
+import com.otago.practical4backend.model.Attendant;
+import com.otago.practical4backend.model.Product;
+import com.otago.practical4backend.validation.AttendantValidator;
+import com.otago.practical4backend.validation.ProductValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Validation Benchmark
+ * The validators (hand-written scans, stackless shared ValidationException) against the per-call
+ * regex checks and new IllegalArgumentException they replaced, for valid and invalid input.
+ * Run with -prof gc to see the allocation per call as well
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private final AttendantValidator attendantValidator = new AttendantValidator();
+    private final ProductValidator productValidator = new ProductValidator();
+
+    private final Attendant validAttendant = BenchmarkData.attendant(42);
+    private final Attendant invalidAttendant =
+            new Attendant("Attendant 43", "43 George Street, Dunedin", "021-55x-0043", "attendant43@example", null);
+    private final Product validProduct = BenchmarkData.product(42);
+    private final Product invalidProduct = new Product("Lamp", new BigDecimal("-1.00"), " ", 3, null);
+
+    @Benchmark
+    public Object attendantValidBaseline() {
+        return BaselineValidation.validateAttendant(validAttendant);
+    }
+
+    @Benchmark
+    public Object attendantValidValidator() {
+        attendantValidator.validate(validAttendant);
+        return validAttendant;
+    }
+
+    @Benchmark
+    public Object attendantInvalidBaseline() {
+        try {
+            return BaselineValidation.validateAttendant(invalidAttendant);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object attendantInvalidValidator() {
+        try {
+            attendantValidator.validate(invalidAttendant);
+            return invalidAttendant;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object productValidBaseline() {
+        return BaselineValidation.validateProduct(validProduct);
+    }
+
+    @Benchmark
+    public Object productValidValidator() {
+        productValidator.validate(validProduct);
+        return validProduct;
+    }
+
+    @Benchmark
+    public Object productInvalidBaseline() {
+        try {
+            return BaselineValidation.validateProduct(invalidProduct);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object productInvalidValidator() {
+        try {
+            productValidator.validate(invalidProduct);
+            return invalidProduct;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    /**
+     * The checks the services ran before the validators existed, kept here as the baseline:
+     * trim for blanks, a regex per email, replaceAll plus String.matches per mobile, and a new
+     * IllegalArgumentException with a full stack trace for the first failed rule
+     */
+    private static final class BaselineValidation {
+
+        private static final Pattern EMAIL_PATTERN =
+                Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+
+        static Attendant validateAttendant(Attendant attendant) {
+            if (attendant.getName() == null || attendant.getName().trim().isEmpty()) {
+                throw new IllegalArgumentException("Attendant name is required");
+            }
+            String email = attendant.getEmail();
+            if (email != null && !email.isEmpty() && !EMAIL_PATTERN.matcher(email).matches()) {
+                throw new IllegalArgumentException("Invalid email format");
+            }
+            String mobile = attendant.getMobile();
+            if (mobile != null && !mobile.isEmpty()
+                    && !mobile.replaceAll("[\\s-]", "").matches("^[0-9+]{7,15}$")) {
+                throw new IllegalArgumentException("Invalid mobile number format");
+            }
+            return attendant;
+        }
+
+        static Product validateProduct(Product product) {
+            if (product.getName() == null || product.getName().trim().isEmpty()) {
+                throw new IllegalArgumentException("Product name is required");
+            }
+            if (product.getPrice() == null || product.getPrice().doubleValue() < 0) {
+                throw new IllegalArgumentException("Product price must be non-negative");
+            }
+            if (product.getStock() == null || product.getStock() < 0) {
+                throw new IllegalArgumentException("Product stock must be non-negative");
+            }
+            if (product.getCategory() == null || product.getCategory().trim().isEmpty()) {
+                throw new IllegalArgumentException("Product category is required");
+            }
+            return product;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.otago.practical4backend.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission Control Filter
+ * Decides, before any controller or database work, whether an API request may run:
+ * 1. Each client (its X-API-Key header if the key is configured, or else its IP address) has one token bucket for
+ *    cheap requests and a smaller one for expensive requests (see {@link RequestCost}).
+ *    A client that runs its bucket dry gets 429 Too Many Requests with Retry-After set to
+ *    when its next token arrives.
+ * 2. A global cap on requests in flight, with a tighter cap for expensive ones (kept below the
+ *    connection pool size, so full lists and searches cannot take every connection). Unset caps
+ *    are derived from the pool size. When a cap is reached the request gets 503 Service Unavailable
+ *    straight away rather than queueing for a connection.
+ * Decisions are counted in the app.admission.requests metric, tagged by cost and outcome
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10) // After Boot's request metrics filter, so rejections are timed too
+@ConditionalOnProperty(name = "app.admission.enabled", matchIfMissing = true)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    /**
+     * Request header identifying an API client
+     */
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    private static final String API_PREFIX = "/api/";
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<RequestCost, Double> ratePerSecond = new EnumMap<>(RequestCost.class);
+    private final Map<RequestCost, Integer> burst = new EnumMap<>(RequestCost.class);
+    private final Semaphore inFlight;
+    private final Semaphore expensiveInFlight;
+    private final long overloadRetryAfterSeconds;
+    private final Set<String> apiKeys;
+    private final Cache<String, Map<RequestCost, TokenBucket>> clients;
+    private final Map<RequestCost, Map<Outcome, Counter>> decisions = new EnumMap<>(RequestCost.class);
+
+    /**
+     * Constructor with limits from application.properties
+     * @param registry Meter registry receiving the admission metrics
+     * @param cheapRate Cheap requests per second each client may sustain
+     * @param cheapBurst Cheap requests a client may send at once after being idle
+     * @param expensiveRate Expensive requests per second each client may sustain
+     * @param expensiveBurst Expensive requests a client may send at once after being idle
+     * @param maxConcurrent Requests allowed in flight at once across all clients (0 for twice the pool size)
+     * @param maxConcurrentExpensive Expensive requests allowed in flight at once across all clients
+     *                               (0 for three fifths of the pool size); must be below the pool size
+     * @param poolSize Connections in the (primary) connection pool
+     * @param overloadRetryAfter Retry-After sent with 503 responses
+     * @param maxClients Most clients whose buckets are tracked
+     * @param clientIdle How long an idle client's buckets are kept
+     * @param apiKeys API keys that get buckets of their own; requests with any other key count against their IP address
+     */
+    @Autowired
+    public AdmissionControlFilter(MeterRegistry registry,
+                                  @Value("${app.admission.cheap.rate-per-second:50}") double cheapRate,
+                                  @Value("${app.admission.cheap.burst:100}") int cheapBurst,
+                                  @Value("${app.admission.expensive.rate-per-second:1}") double expensiveRate,
+                                  @Value("${app.admission.expensive.burst:5}") int expensiveBurst,
+                                  @Value("${app.admission.max-concurrent:0}") int maxConcurrent,
+                                  @Value("${app.admission.max-concurrent-expensive:0}") int maxConcurrentExpensive,
+                                  @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                  @Value("${app.admission.overload-retry-after:1s}") Duration overloadRetryAfter,
+                                  @Value("${app.admission.max-clients:100000}") long maxClients,
+                                  @Value("${app.admission.client-idle-timeout:10m}") Duration clientIdle,
+                                  @Value("${app.admission.api-keys:}") Set<String> apiKeys) {
+        if (cheapRate <= 0 || expensiveRate <= 0 || cheapBurst < 1 || expensiveBurst < 1) {
+            throw new IllegalStateException("app.admission rates must be positive and bursts at least 1");
+        }
+        int concurrent = maxConcurrent > 0 ? maxConcurrent : concurrencyFor(poolSize);
+        int concurrentExpensive = maxConcurrentExpensive > 0 ? maxConcurrentExpensive : expensiveConcurrencyFor(poolSize);
+        if (concurrentExpensive >= poolSize || concurrentExpensive > concurrent) {
+            throw new IllegalStateException("app.admission.max-concurrent-expensive (" + concurrentExpensive
+                    + ") must be below the connection pool size (" + poolSize
+                    + ") and at most app.admission.max-concurrent (" + concurrent + ")");
+        }
+        ratePerSecond.put(RequestCost.CHEAP, cheapRate);
+        ratePerSecond.put(RequestCost.EXPENSIVE, expensiveRate);
+        burst.put(RequestCost.CHEAP, cheapBurst);
+        burst.put(RequestCost.EXPENSIVE, expensiveBurst);
+        inFlight = new Semaphore(concurrent);
+        expensiveInFlight = new Semaphore(concurrentExpensive);
+        overloadRetryAfterSeconds = Math.max(1, overloadRetryAfter.toSeconds());
+        this.apiKeys = Set.copyOf(apiKeys);
+        clients = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(clientIdle)
+                .build();
+
+        for (RequestCost cost : RequestCost.values()) {
+            Map<Outcome, Counter> counters = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                counters.put(outcome, Counter.builder("app.admission.requests")
+                        .description("API requests by admission decision")
+                        .tag("cost", cost.tag())
+                        .tag("outcome", outcome.tag)
+                        .register(registry));
+            }
+            decisions.put(cost, counters);
+        }
+        Gauge.builder("app.admission.in.flight", inFlight, permits -> concurrent - permits.availablePermits())
+                .description("API requests currently admitted and running")
+                .tag("cost", "all")
+                .register(registry);
+        Gauge.builder("app.admission.in.flight", expensiveInFlight,
+                        permits -> concurrentExpensive - permits.availablePermits())
+                .description("API requests currently admitted and running")
+                .tag("cost", RequestCost.EXPENSIVE.tag())
+                .register(registry);
+        Gauge.builder("app.admission.clients", clients, Cache::estimatedSize)
+                .description("Clients with rate-limit buckets")
+                .register(registry);
+    }
+
+    /**
+     * Default cap on requests in flight
+     * A request holds a connection only while its transactions run, so twice the pool keeps every
+     * connection busy while leaving at most about one request waiting for each
+     * @param poolSize Connections in the pool
+     * @return Requests allowed in flight
+     */
+    static int concurrencyFor(int poolSize) {
+        return Math.max(2, poolSize * 2);
+    }
+
+    /**
+     * Default cap on expensive requests in flight
+     * Leaves two fifths of the connections for single-row and paged requests
+     * @param poolSize Connections in the pool
+     * @return Expensive requests allowed in flight
+     */
+    static int expensiveConcurrencyFor(int poolSize) {
+        return Math.max(1, poolSize * 3 / 5);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // The frontend, actuator and error pages are not admission controlled
+        return !path(request).startsWith(API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = path(request);
+        RequestCost cost = RequestCost.of(request, path);
+
+        long wait = clients.get(clientKey(request), key -> newBuckets()).get(cost).tryTake(System.nanoTime());
+        if (wait > 0) {
+            reject(response, cost, Outcome.RATE_LIMITED, HttpStatus.TOO_MANY_REQUESTS,
+                    (wait + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND,
+                    "Too many requests; retry later");
+            return;
+        }
+
+        if (path.endsWith("/stream")) {
+            // Event streams stay open for as long as the client listens, so they hold no permit
+            decisions.get(cost).get(Outcome.ADMITTED).increment();
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (!acquire(cost)) {
+            reject(response, cost, Outcome.OVERLOADED, HttpStatus.SERVICE_UNAVAILABLE,
+                    overloadRetryAfterSeconds, "Server busy; retry later");
+            return;
+        }
+
+        decisions.get(cost).get(Outcome.ADMITTED).increment();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // Streaming responses finish on another thread; keep the permits until they do
+                request.getAsyncContext().addListener(new ReleaseOnComplete(cost));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                release(cost);
+            }
+        }
+    }
+
+    /**
+     * Take a slot under the global cap, and under the expensive cap if the request is expensive
+     * Never waits: a full cap is answered with 503 at once, before a thread or connection is tied up
+     */
+    private boolean acquire(RequestCost cost) {
+        if (!inFlight.tryAcquire()) {
+            return false;
+        }
+        if (cost == RequestCost.EXPENSIVE && !expensiveInFlight.tryAcquire()) {
+            inFlight.release();
+            return false;
+        }
+        return true;
+    }
+
+    private void release(RequestCost cost) {
+        if (cost == RequestCost.EXPENSIVE) {
+            expensiveInFlight.release();
+        }
+        inFlight.release();
+    }
+
+    private Map<RequestCost, TokenBucket> newBuckets() {
+        long now = System.nanoTime();
+        Map<RequestCost, TokenBucket> buckets = new EnumMap<>(RequestCost.class);
+        for (RequestCost cost : RequestCost.values()) {
+            buckets.put(cost, new TokenBucket(ratePerSecond.get(cost), burst.get(cost), now));
+        }
+        return buckets;
+    }
+
+    private void reject(HttpServletResponse response, RequestCost cost, Outcome outcome, HttpStatus status,
+                        long retryAfterSeconds, String message) throws IOException {
+        decisions.get(cost).get(outcome).increment();
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(message);
+    }
+
+    /**
+     * Identify the client: its API key if it is a configured one, otherwise its address
+     * Unknown keys are ignored, so a client cannot get fresh buckets by inventing keys
+     * @param request Request
+     * @return Bucket key
+     */
+    String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null && apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Admission decision, as tagged in metrics
+     */
+    private enum Outcome {
+
+        ADMITTED("admitted"),
+        RATE_LIMITED("rate_limited"),
+        OVERLOADED("overloaded");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Returns the permits of an asynchronous request once its response is complete
+     */
+    private final class ReleaseOnComplete implements AsyncListener {
+
+        private final RequestCost cost;
+
+        private ReleaseOnComplete(RequestCost cost) {
+            this.cost = cost;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            // Also called after a timeout or error
+            release(cost);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
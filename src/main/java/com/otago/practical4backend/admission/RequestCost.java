@@ -0,0 +1,62 @@
+package com.otago.practical4backend.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.util.Locale;
+
+/**
+ * Request Cost
+ * Rough cost class of an API request, decided from the path and parameters before the
+ * request reaches a controller. Expensive requests read or write many rows (full lists, export,
+ * multi-gets, full delta syncs, bulk writes and deletes) and hold a database connection for long;
+ * everything else touches a bounded page or a single row. Search, category and low-stock listings
+ * are answered from the in-memory indexes, so they count as cheap
+ */
+enum RequestCost {
+
+    CHEAP,
+    EXPENSIVE;
+
+    /**
+     * Classify a request
+     * @param request Request
+     * @param path Request path without the context path, e.g. "/api/products/search"
+     * @return Cost class
+     */
+    static RequestCost of(HttpServletRequest request, String path) {
+        if (path.endsWith("/export")
+                || path.endsWith("/bulk")
+                || "true".equalsIgnoreCase(request.getParameter("unpaged"))
+                // Multi-gets fetch up to the ID limit, each a possible cache miss
+                || request.getParameter("ids") != null
+                || path.endsWith("/changes") && isFullSync(request.getParameter("since"))
+                || HttpMethod.DELETE.matches(request.getMethod()) && hasBody(request)) {
+            return EXPENSIVE;
+        }
+        return CHEAP;
+    }
+
+    /**
+     * A delta sync from the start walks the whole change log, however small each page is
+     */
+    private static boolean isFullSync(String since) {
+        return since == null || since.isBlank() || "0".equals(since.trim());
+    }
+
+    /**
+     * A DELETE only carries a body when it names many rows (e.g. a list of IDs)
+     */
+    private static boolean hasBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+    }
+
+    /**
+     * Get the tag value used in metrics
+     * @return Lower-case name
+     */
+    String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
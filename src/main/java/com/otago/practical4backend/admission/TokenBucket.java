@@ -0,0 +1,52 @@
+package com.otago.practical4backend.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token Bucket
+ * Lock-free token bucket holding up to capacity tokens and refilling at a fixed rate.
+ *
+ * Instead of a token count and a last-refill time, the whole state is one number: the time at
+ * which the bucket will be full again (the generic cell rate algorithm). Taking a token pushes
+ * that time one refill interval further out, and a take is refused while it would end up more
+ * than capacity intervals ahead of now. Each take is a single compare-and-set, so concurrent
+ * requests from the same client never block each other
+ */
+final class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    /**
+     * Create a full bucket
+     * @param tokensPerSecond Refill rate
+     * @param capacity Largest burst the bucket allows
+     * @param now Current System.nanoTime()
+     */
+    TokenBucket(double tokensPerSecond, int capacity, long now) {
+        this.nanosPerToken = Math.max(1, Math.round(1_000_000_000L / tokensPerSecond));
+        this.capacityNanos = nanosPerToken * capacity;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Take one token if there is one
+     * @param now Current System.nanoTime()
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    long tryTake(long now) {
+        while (true) {
+            long current = fullAt.get();
+            // An idle bucket is full; it does not save up more than its capacity
+            long next = (current - now < 0 ? now : current) + nanosPerToken;
+            long wait = next - capacityNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.otago.practical4backend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.otago.practical4backend.routing.PrimaryReads;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Entity Cache
+ * Size-bounded, in-process read-through cache of entities by ID.
+ * Backed by Caffeine, whose W-TinyLFU eviction keeps frequently requested IDs
+ * resident even when a scan touches many cold ones.
+ * Only entities that exist are cached; lookups of missing IDs always reach the database
+ *
+ * @param <T> Entity type
+ */
+public class EntityCache<T> {
+
+    /**
+     * Maximum number of IDs loaded per IN (...) query by {@link #getAll}
+     */
+    public static final int LOAD_CHUNK_SIZE = 1000;
+
+    private final String name;
+    private final Function<T, Long> versionOf;
+    private final Cache<Long, T> cache;
+
+    /**
+     * Create an entity cache
+     * @param name Cache name used in statistics
+     * @param maximumSize Maximum number of cached entities
+     * @param ttl Time after which an entry expires, or zero/null for no expiry
+     * @param versionOf Function extracting an entity's optimistic lock version, used to order puts
+     */
+    public EntityCache(String name, long maximumSize, Duration ttl, Function<T, Long> versionOf) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats();
+        if (ttl != null && !ttl.isZero()) {
+            builder.expireAfterWrite(ttl);
+        }
+        this.name = name;
+        this.versionOf = versionOf;
+        this.cache = builder.build();
+    }
+
+    /**
+     * Get an entity, loading it on a miss
+     * Concurrent misses for the same ID share a single load. The load reads from the primary, so a
+     * lagging replica cannot put back a row that was just invalidated; it should be the first
+     * statement of the caller's transaction, which is when the connection is routed
+     * @param id Entity ID
+     * @param loader Database lookup used on a miss
+     * @return Optional containing the entity if it exists
+     */
+    public Optional<T> get(Long id, Function<Long, Optional<T>> loader) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.get(id, key -> PrimaryReads.call(() -> loader.apply(key).orElse(null))));
+    }
+
+    /**
+     * Get many entities at once: cached ones are served from memory and only the misses
+     * are loaded, in chunks of LOAD_CHUNK_SIZE IDs per query.
+     * Bulk-loaded entities are not added to the cache, so a row invalidated while
+     * the load was in flight can never be cached in its old state
+     * @param ids Entity IDs
+     * @param loader Database lookup for a chunk of IDs (e.g. findAllById)
+     * @param idOf Function extracting the ID of an entity
+     * @return Map of the IDs that exist to their entities
+     */
+    public Map<Long, T> getAll(Collection<Long> ids, Function<List<Long>, List<T>> loader, Function<T, Long> idOf) {
+        Map<Long, T> found = new HashMap<>(cache.getAllPresent(ids));
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            if (!found.containsKey(id)) {
+                misses.add(id);
+            }
+        }
+        for (int from = 0; from < misses.size(); from += LOAD_CHUNK_SIZE) {
+            List<Long> chunk = misses.subList(from, Math.min(from + LOAD_CHUNK_SIZE, misses.size()));
+            for (T entity : loader.apply(chunk)) {
+                found.put(idOf.apply(entity), entity);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Get the cached entities for a set of IDs without loading misses
+     * @param ids Entity IDs
+     * @return Map of the IDs that were cached to their entities
+     */
+    public Map<Long, T> getAllPresent(Iterable<Long> ids) {
+        return cache.getAllPresent(ids);
+    }
+
+    /**
+     * Add an entity that was loaded elsewhere
+     * Kept out if the cache already holds the same or a newer version, so a snapshot that
+     * arrives late cannot replace the current one
+     * @param id Entity ID
+     * @param entity Entity to cache
+     */
+    public void put(Long id, T entity) {
+        Long version = versionOf.apply(entity);
+        cache.asMap().merge(id, entity, (held, incoming) -> {
+            Long heldVersion = versionOf.apply(held);
+            return version == null || heldVersion == null || version > heldVersion ? incoming : held;
+        });
+    }
+
+    /**
+     * Remove a single entity from the cache
+     * @param id Entity ID
+     */
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * Remove every entity from the cache
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Get the cache name
+     * @return Cache name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get hit, miss and eviction counters
+     * @return Snapshot of the cache statistics
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Get the approximate number of cached entities
+     * @return Estimated entry count
+     */
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Get the underlying Caffeine cache, for metrics binding
+     * @return Native cache
+     */
+    public Cache<Long, T> nativeCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,62 @@
+package com.otago.practical4backend.cache;
+
+import com.otago.practical4backend.event.AttendantChangedEvent;
+import com.otago.practical4backend.event.EntityChangedEvent;
+import com.otago.practical4backend.event.ProductChangedEvent;
+import com.otago.practical4backend.model.Attendant;
+import com.otago.practical4backend.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Entity Cache Invalidator
+ * Evicts exactly the entities a committed transaction changed or deleted.
+ * Runs after commit, so a concurrent read-through cannot re-cache the old row afterwards
+ */
+@Component
+public class EntityCacheInvalidator {
+
+    private final EntityCache<Product> productCache;
+    private final EntityCache<Attendant> attendantCache;
+
+    /**
+     * Constructor injection for the entity caches
+     * @param productCache Product cache
+     * @param attendantCache Attendant cache
+     */
+    @Autowired
+    public EntityCacheInvalidator(EntityCache<Product> productCache, EntityCache<Attendant> attendantCache) {
+        this.productCache = productCache;
+        this.attendantCache = attendantCache;
+    }
+
+    /**
+     * Evict changed and deleted products
+     * @param event Committed product changes
+     */
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(productCache, event, Product::getId);
+    }
+
+    /**
+     * Evict changed and deleted attendants
+     * @param event Committed attendant changes
+     */
+    @EventListener
+    public void onAttendantChanged(AttendantChangedEvent event) {
+        invalidate(attendantCache, event, Attendant::getId);
+    }
+
+    private <T> void invalidate(EntityCache<T> cache, EntityChangedEvent<T> event, Function<T, Long> idOf) {
+        for (T entity : event.getChanged()) {
+            cache.invalidate(idOf.apply(entity));
+        }
+        for (Long id : event.getDeletedIds()) {
+            cache.invalidate(id);
+        }
+    }
+}
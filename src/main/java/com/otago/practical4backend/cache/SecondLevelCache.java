@@ -0,0 +1,89 @@
+package com.otago.practical4backend.cache;
+
+import com.otago.practical4backend.model.Attendant;
+import com.otago.practical4backend.model.Product;
+import com.otago.practical4backend.repository.AttendantRepository;
+import com.otago.practical4backend.repository.ProductRepository;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Second-Level Cache
+ * Keeps the Hibernate second-level and query caches correct after writes made with plain JDBC,
+ * which Hibernate does not see. The rows are evicted straight away and again once the
+ * transaction completes, so a concurrent reader cannot leave the old row cached
+ */
+@Component
+public class SecondLevelCache {
+
+    /** Query result regions holding each entity's rows; other entities clear every query region */
+    private static final Map<Class<?>, List<String>> QUERY_REGIONS = Map.of(
+            Product.class, List.of(ProductRepository.CATEGORY_QUERY_REGION, ProductRepository.LOW_STOCK_QUERY_REGION),
+            Attendant.class, List.of(AttendantRepository.EMAIL_QUERY_REGION));
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Constructor injection for EntityManagerFactory
+     * @param entityManagerFactory Factory owning the second-level cache
+     */
+    @Autowired
+    public SecondLevelCache(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Evict rows written outside Hibernate, and the cached query results that may hold them
+     * Rows of other entities, and queries over other tables, stay cached
+     * @param entityType Entity class of the table that was written
+     * @param ids IDs of the updated or deleted rows
+     */
+    public void evictAfterWrite(Class<?> entityType, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> written = List.copyOf(ids);
+        evict(entityType, written);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public int getOrder() {
+                    // Before ChangePublisher reloads the rows after commit
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    evict(entityType, written);
+                }
+            });
+        }
+    }
+
+    private void evict(Class<?> entityType, List<Long> ids) {
+        Cache cache = entityManagerFactory.getCache();
+        for (Long id : ids) {
+            cache.evict(entityType, id);
+        }
+        // JDBC writes do not touch Hibernate's table timestamps, so cached query results over the table must go too
+        org.hibernate.Cache hibernateCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        List<String> regions = QUERY_REGIONS.get(entityType);
+        if (regions == null) {
+            hibernateCache.evictQueryRegions();
+            return;
+        }
+        for (String region : regions) {
+            hibernateCache.evictQueryRegion(region);
+        }
+    }
+}
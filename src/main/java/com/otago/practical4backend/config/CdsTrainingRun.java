@@ -0,0 +1,76 @@
+package com.otago.practical4backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * CDS Training Run
+ * When started with app.startup.training-run=true (by the fast-startup Maven profile), sends one
+ * request through the API once the application is ready and then exits. The JVM writes its
+ * class-data-sharing archive on exit, so the archive covers startup and the first request.
+ * The property is checked at runtime because AOT processing fixes bean conditions at build time
+ */
+@Component
+public class CdsTrainingRun {
+
+    private static final Logger log = LoggerFactory.getLogger(CdsTrainingRun.class);
+
+    private final ApplicationContext context;
+    private final boolean trainingRun;
+    private final String contextPath;
+
+    /**
+     * Constructor with the training switch from the command line
+     * @param context Application context, closed before exiting
+     * @param trainingRun Whether this is a training run
+     * @param contextPath Servlet context path the API is served under
+     */
+    public CdsTrainingRun(ApplicationContext context,
+                          @Value("${app.startup.training-run:false}") boolean trainingRun,
+                          @Value("${server.servlet.context-path:}") String contextPath) {
+        this.context = context;
+        this.trainingRun = trainingRun;
+        this.contextPath = contextPath;
+    }
+
+    /**
+     * Exercise the request path and exit, after every other ready listener (index builds included)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void exitAfterTraining() {
+        if (!trainingRun) {
+            return;
+        }
+        if (context instanceof WebServerApplicationContext webContext) {
+            URI uri = URI.create("http://localhost:" + webContext.getWebServer().getPort()
+                    + contextPath + "/api/products?limit=1");
+            try {
+                HttpResponse<Void> response = HttpClient.newHttpClient().send(
+                        HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                log.info("Training request {} returned {}", uri, response.statusCode());
+            } catch (Exception e) {
+                // The archive is still useful without the request path
+                log.warn("Training request {} failed: {}", uri, e.toString());
+            }
+        }
+        log.info("CDS training run complete, exiting");
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -6,6 +6,8 @@ import com.otago.practical4backend.repository.ProductRepository;
 import com.otago.practical4backend.repository.AttendantRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -14,22 +16,30 @@ import java.math.BigDecimal;
  * DataLoader Component
  * Initializes the database with sample data on application startup
  * Implements CommandLineRunner to execute after Spring Boot starts
+ * Disabled under the "seed" profile, where SyntheticDataGenerator fills the database instead,
+ * and when app.sample-data.enabled=false (the fast-startup profile), so deployments skip it entirely
  */
 @Component
+@Profile("!seed")
+@ConditionalOnProperty(name = "app.sample-data.enabled", matchIfMissing = true)
 public class DataLoader implements CommandLineRunner {
 
     private final ProductRepository productRepository;
     private final AttendantRepository attendantRepository;
+    private final SchemaUpgradeRunner schemaUpgradeRunner;
 
     /**
      * Constructor injection for repositories
      * @param productRepository Product repository
      * @param attendantRepository Attendant repository
+     * @param schemaUpgradeRunner Used to add the sample rows to the change log
      */
     @Autowired
-    public DataLoader(ProductRepository productRepository, AttendantRepository attendantRepository) {
+    public DataLoader(ProductRepository productRepository, AttendantRepository attendantRepository,
+                      SchemaUpgradeRunner schemaUpgradeRunner) {
         this.productRepository = productRepository;
         this.attendantRepository = attendantRepository;
+        this.schemaUpgradeRunner = schemaUpgradeRunner;
     }
 
     /**
@@ -39,8 +49,12 @@ public class DataLoader implements CommandLineRunner {
      */
     @Override
     public void run(String... args) throws Exception {
-        loadSampleProducts();
-        loadSampleAttendants();
+        boolean loadedProducts = loadSampleProducts();
+        boolean loadedAttendants = loadSampleAttendants();
+        if (loadedProducts || loadedAttendants) {
+            // Saved through the repositories, which leave change logging to the services
+            schemaUpgradeRunner.backfillChangeLog();
+        }
 
         System.out.println("==========================================");
         System.out.println("Sample data loaded successfully!");
@@ -52,8 +66,9 @@ public class DataLoader implements CommandLineRunner {
     /**
      * Load sample products into the database
      * Creates at least 3 sample product records as required
+     * @return true if products were loaded
      */
-    private void loadSampleProducts() {
+    private boolean loadSampleProducts() {
         // Check if products already exist to avoid duplicates
         if (productRepository.count() == 0) {
             // Product 1: Electronics
@@ -107,14 +122,17 @@ public class DataLoader implements CommandLineRunner {
             productRepository.save(product5);
 
             System.out.println("Sample products loaded successfully!");
+            return true;
         }
+        return false;
     }
 
     /**
      * Load sample attendants into the database
      * Creates at least 3 sample attendant records as required
+     * @return true if attendants were loaded
      */
-    private void loadSampleAttendants() {
+    private boolean loadSampleAttendants() {
         // Check if attendants already exist to avoid duplicates
         if (attendantRepository.count() == 0) {
             // Attendant 1
@@ -158,6 +176,8 @@ public class DataLoader implements CommandLineRunner {
             attendantRepository.save(attendant4);
 
             System.out.println("Sample attendants loaded successfully!");
+            return true;
         }
+        return false;
     }
 }
\ No newline at end of file
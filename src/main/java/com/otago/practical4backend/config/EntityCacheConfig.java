@@ -0,0 +1,42 @@
+package com.otago.practical4backend.config;
+
+import com.otago.practical4backend.cache.EntityCache;
+import com.otago.practical4backend.model.Attendant;
+import com.otago.practical4backend.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Entity Cache Configuration
+ * Creates the per-entity read-through caches; sizes and TTLs come from application.properties
+ */
+@Configuration
+public class EntityCacheConfig {
+
+    /**
+     * Cache for product lookups by ID
+     * @param maximumSize Maximum number of cached products
+     * @param ttl Time-to-live of a cached product (0 for none)
+     * @return Product cache
+     */
+    @Bean
+    public EntityCache<Product> productCache(@Value("${app.cache.products.max-entries:10000}") long maximumSize,
+                                             @Value("${app.cache.products.ttl:10m}") Duration ttl) {
+        return new EntityCache<>("products", maximumSize, ttl, Product::getVersion);
+    }
+
+    /**
+     * Cache for attendant lookups by ID
+     * @param maximumSize Maximum number of cached attendants
+     * @param ttl Time-to-live of a cached attendant (0 for none)
+     * @return Attendant cache
+     */
+    @Bean
+    public EntityCache<Attendant> attendantCache(@Value("${app.cache.attendants.max-entries:2000}") long maximumSize,
+                                                 @Value("${app.cache.attendants.ttl:10m}") Duration ttl) {
+        return new EntityCache<>("attendants", maximumSize, ttl, Attendant::getVersion);
+    }
+}
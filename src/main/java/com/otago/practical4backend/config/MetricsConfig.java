@@ -0,0 +1,44 @@
+package com.otago.practical4backend.config;
+
+import com.otago.practical4backend.cache.EntityCache;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Metrics Configuration
+ * HTTP latency, Hikari pool and Hibernate statistics metrics are registered by Spring Boot;
+ * this adds the @Timed service timers and the entity cache statistics
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Aspect recording a timer for every method of classes annotated with @Timed
+     * @param registry Meter registry
+     * @return Timed aspect
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    /**
+     * Export hit/miss/eviction counts of the entity caches as cache.* metrics
+     * @param caches All entity caches
+     * @return Binder registering one set of meters per cache
+     */
+    @Bean
+    public MeterBinder entityCacheMetrics(List<EntityCache<?>> caches) {
+        return registry -> {
+            for (EntityCache<?> cache : caches) {
+                CaffeineCacheMetrics.monitor(registry, cache.nativeCache(), cache.getName());
+            }
+        };
+    }
+}
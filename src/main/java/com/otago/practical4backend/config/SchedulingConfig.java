@@ -0,0 +1,13 @@
+package com.otago.practical4backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduling Configuration
+ * Enables @Scheduled background jobs, such as the category stats reconciliation in IndexMaintainer
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,249 @@
+package com.otago.practical4backend.config;
+
+import com.otago.practical4backend.event.ChangeLog;
+import com.otago.practical4backend.model.Attendant;
+import com.otago.practical4backend.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schema Upgrade Runner
+ * Brings data in an existing database in line with the current entity mappings
+ * Runs once every singleton exists, before the web server starts and before any runner (including
+ * DataLoader), so no request can allocate an ID from an id_generator row that has not been seeded yet
+ */
+@Component
+public class SchemaUpgradeRunner implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaUpgradeRunner.class);
+
+    /** Marker for the one-off backfill of the normalized attendant contact columns */
+    private static final String ATTENDANT_CONTACTS_UPGRADE = "attendant-contacts";
+
+    // SQL forms of Attendant.normalizeEmail and normalizeMobile, so duplicates can be grouped in the database
+    // (TRIM strips spaces only, unlike String.trim, which is all stored addresses carry)
+    private static final String NORMALIZED_EMAIL_SQL = "NULLIF(LOWER(TRIM(email)), '')";
+    private static final String NORMALIZED_MOBILE_SQL = "NULLIF(" + stripChars("mobile", "' '", "'-'",
+            "CHAR(9)", "CHAR(10)", "CHAR(11)", "CHAR(12)", "CHAR(13)") + ", '')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor injection for JdbcTemplate
+     * @param jdbcTemplate JDBC access to the application database
+     */
+    @Autowired
+    public SchemaUpgradeRunner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Run all upgrade steps
+     * Called through the transactional proxy, so the steps commit together
+     */
+    @Override
+    @Transactional
+    public void afterSingletonsInstantiated() {
+        seedIdGenerator("products", "products", Product.ID_ALLOCATION_SIZE);
+        backfillAttendantContacts();
+        backfillVersions("products");
+        backfillVersions("attendants");
+        initChangeLog();
+    }
+
+    /**
+     * Make sure the id_generator row for a table starts above every existing ID
+     * Needed when a table that used AUTO_INCREMENT switches to table-based allocation,
+     * otherwise the first allocated IDs would collide with existing rows
+     * @param generatorName Value of the sequence_name column for the generator
+     * @param tableName Table whose IDs the generator allocates
+     * @param allocationSize Allocation size configured on the generator
+     */
+    public void seedIdGenerator(String generatorName, String tableName, int allocationSize) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + tableName, Long.class);
+        if (maxId == null) {
+            // Empty table: Hibernate initialises the generator itself
+            return;
+        }
+
+        // The pooled optimizer hands out (next_val - allocationSize, next_val], so stay a full step above
+        long required = maxId + allocationSize + 1;
+        Long current = jdbcTemplate.query(
+                "SELECT next_val FROM id_generator WHERE sequence_name = ?",
+                rs -> rs.next() ? rs.getLong(1) : null,
+                generatorName);
+
+        if (current == null) {
+            jdbcTemplate.update("INSERT INTO id_generator (sequence_name, next_val) VALUES (?, ?)",
+                    generatorName, required);
+            log.info("Seeded id_generator '{}' at {}", generatorName, required);
+        } else if (current < required) {
+            jdbcTemplate.update("UPDATE id_generator SET next_val = ? WHERE sequence_name = ?",
+                    required, generatorName);
+            log.info("Advanced id_generator '{}' from {} to {}", generatorName, current, required);
+        }
+    }
+
+    /**
+     * Fill the normalized email and mobile columns for attendants saved before they existed
+     * Runs once: later starts find its marker in schema_upgrades and skip the table scans.
+     * Duplicates are found with GROUP BY in the database; of the rows sharing a value, the one already
+     * holding it (or else the lowest ID) gets it, and the rest are left empty and logged, since the
+     * unique constraints would reject them
+     */
+    public void backfillAttendantContacts() {
+        if (isApplied(ATTENDANT_CONTACTS_UPGRADE)) {
+            return;
+        }
+        int backfilled = backfillContact("email_normalized", NORMALIZED_EMAIL_SQL)
+                + backfillContact("mobile_normalized", NORMALIZED_MOBILE_SQL);
+        if (backfilled > 0) {
+            log.info("Backfilled {} normalized attendant contacts", backfilled);
+        }
+        markApplied(ATTENDANT_CONTACTS_UPGRADE);
+    }
+
+    /**
+     * Fill one normalized contact column from its SQL normalization
+     * @param column Normalized column, e.g. "email_normalized"
+     * @param normalizedSql SQL expression computing the normalized value from the raw column
+     * @return Rows filled
+     */
+    private int backfillContact(String column, String normalizedSql) {
+        String value = "COALESCE(" + column + ", " + normalizedSql + ")";
+        List<String> duplicates = jdbcTemplate.queryForList("SELECT " + value + " FROM attendants WHERE "
+                + value + " IS NOT NULL GROUP BY " + value + " HAVING COUNT(*) > 1", String.class);
+
+        // Unique values in one statement; the few duplicated ones row by row below
+        StringBuilder unique = new StringBuilder("UPDATE attendants SET " + column + " = " + normalizedSql
+                + " WHERE " + column + " IS NULL AND " + normalizedSql + " IS NOT NULL");
+        if (!duplicates.isEmpty()) {
+            unique.append(" AND ").append(normalizedSql).append(" NOT IN (")
+                    .append(String.join(", ", Collections.nCopies(duplicates.size(), "?"))).append(')');
+        }
+        int filled = jdbcTemplate.update(unique.toString(), duplicates.toArray());
+
+        for (String duplicate : duplicates) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT id, " + column + " AS held FROM attendants "
+                    + "WHERE " + value + " = ? ORDER BY id", duplicate);
+            boolean taken = rows.stream().anyMatch(row -> row.get("held") != null);
+            for (Map<String, Object> row : rows) {
+                if (row.get("held") != null) {
+                    continue;
+                }
+                if (!taken) {
+                    jdbcTemplate.update("UPDATE attendants SET " + column + " = ? WHERE id = ?", duplicate, row.get("id"));
+                    taken = true;
+                    filled++;
+                } else {
+                    log.warn("Attendant {} shares {} '{}' with another attendant; not indexed",
+                            row.get("id"), column, duplicate);
+                }
+            }
+        }
+        return filled;
+    }
+
+    /**
+     * Start rows saved before the version column existed at version 0
+     * Hibernate treats a null version as a transient entity, so these rows could not be updated otherwise
+     * @param tableName Table with a version column
+     */
+    public void backfillVersions(String tableName) {
+        int updated = jdbcTemplate.update("UPDATE " + tableName + " SET version = 0 WHERE version IS NULL");
+        if (updated > 0) {
+            log.info("Initialised version for {} rows in {}", updated, tableName);
+        }
+    }
+
+    /**
+     * Set up the change log: create its watermarks if missing, and backfill it when it is empty
+     * Skips the backfill on every later start, so its table scans run only once
+     */
+    public void initChangeLog() {
+        initWatermark(ChangeLog.COMPACTED);
+        initWatermark(ChangeLog.DELETIONS_PURGED);
+        if (initWatermark(ChangeLog.NUMBERED)) {
+            numberExistingEntries();
+        }
+        List<Long> anyEntry = jdbcTemplate.queryForList("SELECT id FROM change_log LIMIT 1", Long.class);
+        if (anyEntry.isEmpty()) {
+            backfillChangeLog();
+        }
+    }
+
+    /**
+     * Log every row that has no change log entry yet (saved before delta sync existed, or inserted
+     * with JDBC), and give rows saved without a change time the current time
+     * Clients that already synced therefore see these rows as new changes rather than missing them
+     */
+    public void backfillChangeLog() {
+        initWatermark(ChangeLog.COMPACTED);
+        initWatermark(ChangeLog.DELETIONS_PURGED);
+        initWatermark(ChangeLog.NUMBERED);
+        Timestamp now = Timestamp.from(Instant.now());
+        for (String tableName : List.of("products", "attendants")) {
+            jdbcTemplate.update("UPDATE " + tableName + " SET updated_at = ? WHERE updated_at IS NULL", now);
+            int logged = jdbcTemplate.update("INSERT INTO change_log (table_name, entity_id, deleted, changed_at) "
+                    + "SELECT ?, t.id, FALSE, CURRENT_TIMESTAMP FROM " + tableName + " t WHERE NOT EXISTS "
+                    + "(SELECT 1 FROM change_log c WHERE c.table_name = ? AND c.entity_id = t.id) ORDER BY t.id",
+                    tableName, tableName);
+            if (logged > 0) {
+                log.info("Added {} rows from {} to the change log", logged, tableName);
+            }
+        }
+    }
+
+    /**
+     * Keep the change numbers clients already hold: entries logged before numbering moved to commit
+     * time used their ID as the change number
+     */
+    private void numberExistingEntries() {
+        int numbered = jdbcTemplate.update("UPDATE change_log SET change_number = id WHERE change_number IS NULL");
+        Long last = jdbcTemplate.queryForObject("SELECT MAX(change_number) FROM change_log", Long.class);
+        if (last != null) {
+            jdbcTemplate.update("UPDATE sync_watermarks SET change_id = ? WHERE name = ?", last, ChangeLog.NUMBERED);
+            log.info("Numbered {} existing change log entries through {}", numbered, last);
+        }
+    }
+
+    private boolean isApplied(String upgrade) {
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM schema_upgrades WHERE name = ?", Integer.class, upgrade);
+        return rows != null && rows > 0;
+    }
+
+    private void markApplied(String upgrade) {
+        jdbcTemplate.update("INSERT INTO schema_upgrades (name, applied_at) VALUES (?, ?)",
+                upgrade, Timestamp.from(Instant.now()));
+    }
+
+    private static String stripChars(String column, String... chars) {
+        String expression = column;
+        for (String c : chars) {
+            expression = "REPLACE(" + expression + ", " + c + ", '')";
+        }
+        return expression;
+    }
+
+    private boolean initWatermark(String name) {
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sync_watermarks WHERE name = ?", Integer.class, name);
+        if (rows == null || rows == 0) {
+            jdbcTemplate.update("INSERT INTO sync_watermarks (name, change_id) VALUES (?, 0)", name);
+            return true;
+        }
+        return false;
+    }
+}
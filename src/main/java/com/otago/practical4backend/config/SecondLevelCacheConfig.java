@@ -0,0 +1,98 @@
+package com.otago.practical4backend.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.otago.practical4backend.model.Attendant;
+import com.otago.practical4backend.model.Product;
+import com.otago.practical4backend.repository.AttendantRepository;
+import com.otago.practical4backend.repository.ProductRepository;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Second-Level Cache Configuration
+ * Creates the Hibernate cache regions in Caffeine (through JCache), each with its own size limit
+ * and TTL from app.l2-cache.{region}.max-entries and app.l2-cache.{region}.ttl, and hands the
+ * cache manager to Hibernate. Per-region hit and miss counts come from Hibernate statistics
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    /** Entity and query result regions with configurable limits */
+    public static final List<String> REGIONS = List.of(
+            Product.CACHE_REGION,
+            Attendant.CACHE_REGION,
+            ProductRepository.CATEGORY_QUERY_REGION,
+            ProductRepository.LOW_STOCK_QUERY_REGION,
+            AttendantRepository.EMAIL_QUERY_REGION);
+
+    /** Hibernate's region for queries without a region of their own */
+    private static final String DEFAULT_QUERY_REGION = "default-query-results-region";
+
+    /** Hibernate's table modification times; must never lose entries, or stale query results are served */
+    private static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    private static final long DEFAULT_MAX_ENTRIES = 10_000;
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+
+    /**
+     * Cache manager holding the Hibernate regions
+     * @param environment Source of the per-region settings
+     * @return JCache manager backed by Caffeine
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        for (String region : REGIONS) {
+            createRegion(cacheManager, region,
+                    environment.getProperty("app.l2-cache." + region + ".max-entries", Long.class, DEFAULT_MAX_ENTRIES),
+                    environment.getProperty("app.l2-cache." + region + ".ttl", Duration.class, DEFAULT_TTL));
+        }
+        createRegion(cacheManager, DEFAULT_QUERY_REGION, DEFAULT_MAX_ENTRIES, DEFAULT_TTL);
+        createRegion(cacheManager, TIMESTAMPS_REGION, 0, Duration.ZERO);
+        return cacheManager;
+    }
+
+    /**
+     * Point Hibernate's JCache region factory at the regions created above
+     * @param hibernateCacheManager Cache manager holding the regions
+     * @return Customizer adding the cache manager to the Hibernate properties
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    /**
+     * Create one region
+     * @param maxEntries Largest number of entries, or 0 for no limit
+     * @param ttl Time after writing that an entry expires, or 0 for never
+     */
+    private static void createRegion(CacheManager cacheManager, String region, long maxEntries, Duration ttl) {
+        if (cacheManager.getCache(region) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate stores immutable cache entries, so copying them on every read and write is wasted work
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        if (maxEntries > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        }
+        if (!ttl.isZero()) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        cacheManager.createCache(region, configuration);
+    }
+}
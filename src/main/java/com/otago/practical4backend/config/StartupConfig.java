@@ -0,0 +1,30 @@
+package com.otago.practical4backend.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+
+/**
+ * Startup Configuration
+ * With spring.main.lazy-initialization=true (the fast-startup profile) beans are created on first use.
+ * Controllers and controller advice, and through them the services they call, are still created at
+ * startup, so the first request does not pay for building the request path
+ */
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Keep the web layer eager when lazy initialization is on
+     * Static, because lazy initialization is applied by a bean factory post-processor
+     * @return Filter excluding controllers and controller advice from lazy initialization
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerWebLayer() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && (AnnotatedElementUtils.hasAnnotation(beanType, Controller.class)
+                || AnnotatedElementUtils.hasAnnotation(beanType, ControllerAdvice.class));
+    }
+}
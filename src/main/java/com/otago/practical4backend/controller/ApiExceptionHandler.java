@@ -0,0 +1,64 @@
+package com.otago.practical4backend.controller;
+
+import com.otago.practical4backend.service.InsufficientStockException;
+import com.otago.practical4backend.service.PreconditionFailedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+/**
+ * API Exception Handler
+ * Maps exceptions thrown by the services to HTTP responses for every controller,
+ * keeping the plain-text error bodies the frontend already displays
+ */
+@ControllerAdvice
+public class ApiExceptionHandler {
+
+    /**
+     * Validation failures and invalid request parameters (cursor, limit, quantity, patch fields)
+     * ValidationException lists every failed rule, separated by "; "
+     * @param e Exception describing the problem
+     * @return 400 Bad Request with the error message
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    /**
+     * Stock reservations that ask for more than is left
+     * @param e Exception describing the shortfall
+     * @return 409 Conflict with the error message
+     */
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<String> handleInsufficientStock(InsufficientStockException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    /**
+     * Conditional updates and deletes whose If-Match ETag no longer matches the stored version
+     * The current ETag is returned so the client can re-read and retry
+     * @param e Exception carrying the current version
+     * @return 412 Precondition Failed with the error message
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<String> handlePreconditionFailed(PreconditionFailedException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .header(HttpHeaders.ETAG, ETags.of(e.getId(), e.getCurrentVersion()))
+                .body(e.getMessage());
+    }
+
+    /**
+     * Concurrent writes to the same row that Hibernate's version check caught at flush time
+     * @param e Exception describing the conflicting row
+     * @return 409 Conflict
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLock(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("The record was changed by another request; reload it and try again");
+    }
+}
@@ -1,14 +1,33 @@
 package com.otago.practical4backend.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.otago.practical4backend.dto.BulkWriteResult;
+import com.otago.practical4backend.dto.ChangeFeed;
+import com.otago.practical4backend.dto.CursorPage;
+import com.otago.practical4backend.dto.FieldPatch;
+import com.otago.practical4backend.dto.MultiGetResult;
 import com.otago.practical4backend.model.Attendant;
+import com.otago.practical4backend.profiling.QueryBudget;
 import com.otago.practical4backend.service.AttendantService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Attendant REST Controller
@@ -21,37 +40,132 @@ import java.util.Optional;
 public class AttendantController {
 
     private final AttendantService attendantService;
+    private final NdjsonStreamer ndjsonStreamer;
+    private final ObjectReader attendantReader;
 
     /**
      * Constructor injection for AttendantService
      * @param attendantService Service layer for attendant operations
+     * @param ndjsonStreamer Writer for streaming NDJSON exports
+     * @param objectMapper Jackson mapper used to bind partial updates
      */
     @Autowired
-    public AttendantController(AttendantService attendantService) {
+    public AttendantController(AttendantService attendantService, NdjsonStreamer ndjsonStreamer,
+                               ObjectMapper objectMapper) {
         this.attendantService = attendantService;
+        this.ndjsonStreamer = ndjsonStreamer;
+        this.attendantReader = objectMapper.readerFor(Attendant.class);
     }
 
     /**
-     * GET endpoint to retrieve all attendants
-     * @return List of all attendants with HTTP 200 OK
+     * GET endpoint to retrieve attendants one page at a time using keyset pagination
+     * Pass the returned "next" cursor back to fetch the following page
+     * @param cursor Opaque cursor from the previous page (omit for the first page)
+     * @param limit Page size (defaults to app.pagination.default-limit)
+     * @param includeTotal Whether to include an approximate total row count
+     * @param unpaged Set to true to get every attendant as a single array (legacy behaviour)
+     * @param fields Comma-separated fields to return, e.g. "id,name"; omit for full attendants
+     * @param request Current request, used to answer If-None-Match with 304 Not Modified;
+     *                pages are tagged from their rows, the unpaged list from a probe of the table
+     * @return Page of attendants (200 OK), full list if unpaged, 304 Not Modified if unchanged,
+     *         or 400 Bad Request for an invalid cursor/limit
      */
     @GetMapping
-    public ResponseEntity<List<Attendant>> getAllAttendants() {
-        List<Attendant> attendants = attendantService.getAllAttendants();
-        return ResponseEntity.ok(attendants);
+    @QueryBudget(3)
+    public ResponseEntity<?> getAllAttendants(@RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer limit,
+                                              @RequestParam(defaultValue = "false") boolean includeTotal,
+                                              @RequestParam(defaultValue = "false") boolean unpaged,
+                                              @RequestParam(required = false) String fields,
+                                              WebRequest request) {
+        String variant = cursor + "|" + limit + "|" + includeTotal + "|" + unpaged + "|" + fields;
+        if (unpaged) {
+            // Probe the table first; if the client's copy is current, no rows are loaded or serialized
+            String etag = attendantService.getAttendantsVersion().toETag(variant);
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            Object body = fields != null
+                    ? attendantService.getAllAttendants(fields)
+                    : attendantService.getAllAttendants();
+            return ResponseEntity.ok().eTag(etag).body(body);
+        }
+
+        // A page is tagged from its own rows, so paging never runs a table-wide probe
+        CursorPage<?> page;
+        String etag;
+        if (fields != null) {
+            // Sparse fieldset: only the requested columns are read, so the whole row is the fingerprint
+            CursorPage<Map<String, Object>> sparse = attendantService.getAttendantsPage(cursor, limit, includeTotal, fields);
+            etag = ETags.ofPage(sparse, row -> row, variant);
+            page = sparse;
+        } else {
+            CursorPage<Attendant> full = attendantService.getAttendantsPage(cursor, limit, includeTotal);
+            etag = ETags.ofPage(full, attendant -> attendant.getId() + "-" + attendant.getVersion(), variant);
+            page = full;
+        }
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(page);
+    }
+
+    /**
+     * GET endpoint to fetch many attendants by ID in one request, e.g. ?ids=3,17,42
+     * Replaces one GET /{id} round trip per item; cached attendants are served without a query
+     * @param ids Comma-separated attendant IDs
+     * @return Attendants in request order and the IDs that were not found (200 OK),
+     *         or 400 Bad Request for an empty or too long ID list
+     */
+    @GetMapping(params = "ids")
+    @QueryBudget(10)
+    public ResponseEntity<MultiGetResult<Attendant>> getAttendantsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(attendantService.getAttendantsByIds(ids));
+    }
+
+    /**
+     * GET endpoint for delta sync: the attendants created, updated or deleted after a change number
+     * Clients keep the returned nextSince and send it back; the cost follows the number of changes
+     * @param since Last change number the client has seen, or 0 for a full sync
+     * @param limit Requested page size, or null for the default
+     * @return Changed attendants and deletions in change order (200 OK),
+     *         or 400 Bad Request for a negative since or an invalid limit
+     */
+    @GetMapping("/changes")
+    @QueryBudget(2)
+    public ResponseEntity<ChangeFeed<Attendant>> getAttendantChanges(@RequestParam(defaultValue = "0") long since,
+                                                                     @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(attendantService.getAttendantChanges(since, limit));
+    }
+
+    /**
+     * GET endpoint to export every attendant as newline-delimited JSON
+     * Rows are written as they are read from the database, so memory use stays flat whatever the table size
+     * @return Streaming NDJSON body with HTTP 200 OK
+     */
+    @GetMapping(value = "/export", produces = NdjsonStreamer.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAttendants() {
+        StreamingResponseBody body = ndjsonStreamer.stream(attendantService::exportAttendants);
+        return ResponseEntity.ok()
+                .contentType(NdjsonStreamer.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
      * GET endpoint to retrieve a specific attendant by ID
      * @param id Attendant ID to retrieve
-     * @return Attendant if found (200 OK) or 404 Not Found
+     * @return Attendant if found (200 OK), 304 Not Modified if the If-None-Match ETag still matches, or 404 Not Found
      */
     @GetMapping("/{id}")
+    @QueryBudget(1)
     public ResponseEntity<Attendant> getAttendantById(@PathVariable Long id) {
         Optional<Attendant> attendant = attendantService.getAttendantById(id);
 
         if (attendant.isPresent()) {
-            return ResponseEntity.ok(attendant.get());
+            // Spring answers a matching If-None-Match with 304 before writing the body
+            return ResponseEntity.ok()
+                    .eTag(ETags.of(id, attendant.get().getVersion()))
+                    .body(attendant.get());
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -60,49 +174,106 @@ public class AttendantController {
     /**
      * POST endpoint to create a new attendant
      * @param attendant Attendant object from request body
-     * @return Created attendant with HTTP 201 Created
+     * @return Created attendant with HTTP 201 Created, or 400 Bad Request if the email or mobile is taken
      */
     @PostMapping
     public ResponseEntity<?> createAttendant(@RequestBody Attendant attendant) {
-        try {
-            Attendant createdAttendant = attendantService.createAttendant(attendant);
-            return ResponseEntity.status(HttpStatus.CREATED).body(createdAttendant);
-        } catch (IllegalArgumentException e) {
-            // Return validation errors with 400 Bad Request
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+        Attendant createdAttendant = attendantService.createAttendant(attendant);
+        return ResponseEntity.status(HttpStatus.CREATED).body(createdAttendant);
     }
 
     /**
      * PUT endpoint to update an existing attendant
      * @param id Attendant ID to update
      * @param attendantDetails Updated attendant details from request body
-     * @return Updated attendant (200 OK) or 404 Not Found
+     * @param ifMatch Optional ETag from a previous read; the update is refused if the attendant changed since
+     * @return Updated attendant (200 OK), 404 Not Found, or 412 Precondition Failed if the ETag is stale
      */
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateAttendant(@PathVariable Long id, @RequestBody Attendant attendantDetails) {
+    public ResponseEntity<?> updateAttendant(@PathVariable Long id, @RequestBody Attendant attendantDetails,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ETags.expectedVersion(id, ifMatch);
+        Attendant updatedAttendant = attendantService.updateAttendant(id, attendantDetails, expectedVersion);
+
+        if (updatedAttendant != null) {
+            return ResponseEntity.ok()
+                    .eTag(ETags.of(id, updatedAttendant.getVersion()))
+                    .body(updatedAttendant);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * PATCH endpoint to update only some fields of a attendant
+     * Issues one UPDATE for just the fields present in the body; omitted fields keep their values
+     * @param id Attendant ID to update
+     * @param body Partial attendant JSON, e.g. {"mobile": "021 555 0199"}
+     * @param ifMatch Optional ETag from a previous read; the update is refused if the attendant changed since
+     * @return Updated attendant (200 OK), 404 Not Found, 400 Bad Request for invalid fields,
+     *         or 412 Precondition Failed if the ETag is stale
+     */
+    @PatchMapping("/{id}")
+    @QueryBudget(5)
+    public ResponseEntity<?> patchAttendant(@PathVariable Long id, @RequestBody ObjectNode body,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            Attendant updatedAttendant = attendantService.updateAttendant(id, attendantDetails);
+            Attendant changes = attendantReader.readValue(body);
+            Set<String> fields = new LinkedHashSet<>();
+            body.fieldNames().forEachRemaining(fields::add);
 
+            Long expectedVersion = ETags.expectedVersion(id, ifMatch);
+            Attendant updatedAttendant = attendantService.patchAttendant(id, changes, fields, expectedVersion);
             if (updatedAttendant != null) {
-                return ResponseEntity.ok(updatedAttendant);
+                return ResponseEntity.ok()
+                        .eTag(ETags.of(id, updatedAttendant.getVersion()))
+                        .body(updatedAttendant);
             } else {
                 return ResponseEntity.notFound().build();
             }
-        } catch (IllegalArgumentException e) {
-            // Return validation errors with 400 Bad Request
-            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Malformed patch body: " + e.getMessage());
+        }
+    }
+
+    /**
+     * PATCH endpoint to update many attendants at once
+     * The body is a JSON array of partial attendants with their IDs, e.g. [{"id": 3, "comments": "Moved to night shift"}];
+     * everything runs in one transaction, and items changing the same fields share one batched UPDATE
+     * @param body JSON array of partial attendants
+     * @return Outcome of every item (200 OK), or 400 Bad Request for a malformed body or too many items
+     */
+    @PatchMapping("/bulk")
+    public ResponseEntity<?> patchAttendants(@RequestBody ArrayNode body) {
+        try {
+            List<FieldPatch<Attendant>> patches = new ArrayList<>(body.size());
+            for (JsonNode item : body) {
+                if (!item.isObject()) {
+                    return ResponseEntity.badRequest().body("Malformed bulk patch body: every item must be an object");
+                }
+                Attendant changes = attendantReader.readValue(item);
+                Set<String> fields = new LinkedHashSet<>();
+                item.fieldNames().forEachRemaining(fields::add);
+                fields.remove("id");
+                patches.add(new FieldPatch<>(changes, fields));
+            }
+            return ResponseEntity.ok(attendantService.patchAttendants(patches));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Malformed bulk patch body: " + e.getMessage());
         }
     }
 
     /**
      * DELETE endpoint to remove an attendant
      * @param id Attendant ID to delete
-     * @return 204 No Content if deleted, 404 Not Found if not exists
+     * @param ifMatch Optional ETag from a previous read; the delete is refused if the attendant changed since
+     * @return 204 No Content if deleted, 404 Not Found if not exists, or 412 Precondition Failed if the ETag is stale
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteAttendant(@PathVariable Long id) {
-        boolean deleted = attendantService.deleteAttendant(id);
+    public ResponseEntity<Void> deleteAttendant(@PathVariable Long id,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ETags.expectedVersion(id, ifMatch);
+        boolean deleted = attendantService.deleteAttendant(id, expectedVersion);
 
         if (deleted) {
             return ResponseEntity.noContent().build();
@@ -111,6 +282,16 @@ public class AttendantController {
         }
     }
 
+    /**
+     * DELETE endpoint to remove many attendants at once with a batched DELETE in one transaction
+     * @param ids JSON array of attendant IDs, e.g. [3, 4, 17]
+     * @return Outcome of every ID (200 OK), or 400 Bad Request for an empty list or too many IDs
+     */
+    @DeleteMapping("/bulk")
+    public ResponseEntity<BulkWriteResult> deleteAttendants(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(attendantService.deleteAttendants(ids));
+    }
+
     /**
      * GET endpoint to find attendant by email
      * @param email Email address to search
@@ -130,10 +311,15 @@ public class AttendantController {
     /**
      * GET endpoint to search attendants by name
      * @param keyword Search keyword
+     * @param fields Comma-separated fields to return, e.g. "id,name"; omit for full attendants
      * @return List of matching attendants
      */
     @GetMapping("/search")
-    public ResponseEntity<List<Attendant>> searchAttendants(@RequestParam String keyword) {
+    public ResponseEntity<List<?>> searchAttendants(@RequestParam String keyword,
+                                                    @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(attendantService.searchAttendantsByName(keyword, fields));
+        }
         List<Attendant> attendants = attendantService.searchAttendantsByName(keyword);
         return ResponseEntity.ok(attendants);
     }
@@ -0,0 +1,80 @@
+package com.otago.practical4backend.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.otago.practical4backend.cache.EntityCache;
+import com.otago.practical4backend.config.SecondLevelCacheConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache REST Controller
+ * Exposes hit, miss and eviction counters of the in-process entity caches
+ * and of the Hibernate second-level cache regions
+ */
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = "*") // Allow cross-origin requests from React frontend
+public class CacheController {
+
+    private final List<EntityCache<?>> caches;
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Constructor injection for every entity cache
+     * @param caches All entity caches in the application context
+     * @param entityManagerFactory Factory whose statistics cover the second-level cache regions
+     */
+    @Autowired
+    public CacheController(List<EntityCache<?>> caches, EntityManagerFactory entityManagerFactory) {
+        this.caches = caches;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * GET endpoint to retrieve cache statistics
+     * Second-level cache regions are listed as "l2.{region}"
+     * @return Statistics per cache name with HTTP 200 OK
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> getCacheStats() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (EntityCache<?> cache : caches) {
+            CacheStats stats = cache.stats();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("size", cache.estimatedSize());
+            values.put("hits", stats.hitCount());
+            values.put("misses", stats.missCount());
+            values.put("hitRate", stats.hitRate());
+            values.put("evictions", stats.evictionCount());
+            // Includes lookups of IDs that do not exist, which are never cached
+            values.put("loadFailures", stats.loadFailureCount());
+            result.put(cache.getName(), values);
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (String region : SecondLevelCacheConfig.REGIONS) {
+            CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+            if (stats == null) {
+                continue;
+            }
+            long lookups = stats.getHitCount() + stats.getMissCount();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("size", stats.getElementCountInMemory());
+            values.put("hits", stats.getHitCount());
+            values.put("misses", stats.getMissCount());
+            values.put("hitRate", lookups == 0 ? 0.0 : (double) stats.getHitCount() / lookups);
+            values.put("puts", stats.getPutCount());
+            result.put("l2." + region, values);
+        }
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,90 @@
+package com.otago.practical4backend.controller;
+
+import com.otago.practical4backend.dto.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Function;
+
+/**
+ * ETag helpers for single-entity and page responses
+ * An entity's ETag is built from its ID and version column, so it changes on every update
+ * without hashing the response body
+ */
+final class ETags {
+
+    /** Returned by {@link #expectedVersion} when the If-Match header cannot match any version */
+    static final long NO_MATCH = -1L;
+
+    private ETags() {
+    }
+
+    /**
+     * Build the strong ETag for an entity
+     * @param id Entity ID
+     * @param version Entity version
+     * @return Quoted ETag value
+     */
+    static String of(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * Build a strong ETag for one page of a listing from the rows it returns
+     * The tag changes whenever a row on the page, the set of rows, or the paging state changes,
+     * so a conditional GET of a page needs only the page query, not a probe of the whole table
+     * @param page Page to tag
+     * @param fingerprint Value per row that changes whenever the row does, e.g. its ID and version
+     * @param variant Anything else the representation depends on (e.g. query parameters)
+     * @param <T> Row type
+     * @return Quoted ETag value
+     */
+    static <T> String ofPage(CursorPage<T> page, Function<T, ?> fingerprint, String variant) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        for (T item : page.getItems()) {
+            digest.update(String.valueOf(fingerprint.apply(item)).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        String state = page.getNext() + "|" + page.getLimit() + "|" + page.getApproximateTotal() + "|" + variant;
+        digest.update(state.getBytes(StandardCharsets.UTF_8));
+        return "\"p-" + HexFormat.of().formatHex(digest.digest(), 0, 12) + "\"";
+    }
+
+    /**
+     * Read the version a client expects from its If-Match header
+     * @param id Entity ID the request targets
+     * @param ifMatch Raw If-Match header value
+     * @return Expected version, null if the header is absent or "*", or NO_MATCH if no listed tag belongs to this entity
+     */
+    static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = id + "-";
+        for (String tag : ifMatch.split(",")) {
+            String value = tag.trim();
+            if (value.startsWith("W/")) {
+                // If-Match uses strong comparison, so weak tags never match
+                continue;
+            }
+            if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            if (value.startsWith(prefix)) {
+                try {
+                    return Long.parseLong(value.substring(prefix.length()));
+                } catch (NumberFormatException ignored) {
+                    // Not one of ours; keep looking
+                }
+            }
+        }
+        return NO_MATCH;
+    }
+}
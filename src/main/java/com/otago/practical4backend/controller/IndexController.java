@@ -0,0 +1,47 @@
+package com.otago.practical4backend.controller;
+
+import com.otago.practical4backend.dto.IndexConsistencyReport;
+import com.otago.practical4backend.index.IndexMaintainer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Index REST Controller
+ * Handles on-demand consistency checks of the in-memory indexes
+ */
+@RestController
+@RequestMapping("/api/indexes")
+@CrossOrigin(origins = "*") // Allow cross-origin requests from React frontend
+public class IndexController {
+
+    private final IndexMaintainer indexMaintainer;
+
+    /**
+     * Constructor injection for IndexMaintainer
+     * @param indexMaintainer Builds, checks and repairs in-memory indexes
+     */
+    @Autowired
+    public IndexController(IndexMaintainer indexMaintainer) {
+        this.indexMaintainer = indexMaintainer;
+    }
+
+    /**
+     * POST endpoint to compare an in-memory index with the database
+     * Changes committed while the check runs are taken into account
+     * @param name Index name (e.g. "category")
+     * @param repair Rebuild the index after checking it
+     * @return Consistency report (200 OK) or 404 Not Found for an unknown index
+     */
+    @PostMapping("/{name}/verify")
+    public ResponseEntity<IndexConsistencyReport> verifyIndex(@PathVariable String name,
+                                                              @RequestParam(defaultValue = "false") boolean repair) {
+        IndexConsistencyReport report = indexMaintainer.verify(name, repair);
+
+        if (report != null) {
+            return ResponseEntity.ok(report);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
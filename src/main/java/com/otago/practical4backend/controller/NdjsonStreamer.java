@@ -0,0 +1,75 @@
+package com.otago.practical4backend.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * NDJSON Streamer
+ * Writes rows to the response as newline-delimited JSON while they are being read,
+ * so export endpoints never hold more than one row in memory
+ */
+@Component
+public class NdjsonStreamer {
+
+    /**
+     * Media type for newline-delimited JSON
+     */
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectWriter writer;
+
+    /**
+     * Constructor injection for the application ObjectMapper
+     * Indentation is switched off and the writer leaves the response stream open between rows
+     * @param objectMapper Spring-configured Jackson mapper
+     */
+    public NdjsonStreamer(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writer()
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+    }
+
+    /**
+     * Build a response body that streams rows produced by an export
+     * @param export Export that pushes each row into the given sink
+     * @param <T> Row type
+     * @return Streaming body writing one JSON document per line
+     */
+    public <T> StreamingResponseBody stream(Consumer<Consumer<T>> export) {
+        return outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream, BUFFER_SIZE);
+            export.accept(row -> writeLine(out, row));
+            out.flush();
+        };
+    }
+
+    /**
+     * Write a single row followed by a newline
+     * @param out Buffered response stream
+     * @param row Row to serialize
+     */
+    private void writeLine(OutputStream out, Object row) {
+        try {
+            writer.writeValue(out, row);
+            out.write('\n');
+        } catch (IOException e) {
+            // Client went away or the row could not be serialized; abort the export
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,14 +1,42 @@
 package com.otago.practical4backend.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.otago.practical4backend.dto.BulkImportResult;
+import com.otago.practical4backend.dto.BulkWriteResult;
+import com.otago.practical4backend.dto.CategoryStats;
+import com.otago.practical4backend.dto.ChangeFeed;
+import com.otago.practical4backend.dto.CursorPage;
+import com.otago.practical4backend.dto.FieldPatch;
+import com.otago.practical4backend.dto.MultiGetResult;
 import com.otago.practical4backend.model.Product;
+import com.otago.practical4backend.profiling.QueryBudget;
+import com.otago.practical4backend.service.LowStockAlertService;
 import com.otago.practical4backend.service.ProductService;
+import com.otago.practical4backend.service.StockReservationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Product REST Controller
@@ -21,37 +49,139 @@ import java.util.Optional;
 public class ProductController {
 
     private final ProductService productService;
+    private final StockReservationService stockReservationService;
+    private final LowStockAlertService lowStockAlertService;
+    private final NdjsonStreamer ndjsonStreamer;
+    private final ObjectReader productReader;
 
     /**
      * Constructor injection for ProductService
      * @param productService Service layer for product operations
+     * @param stockReservationService Atomic stock reservation for checkouts
+     * @param lowStockAlertService Pushes low-stock alerts to SSE subscribers
+     * @param ndjsonStreamer Writer for streaming NDJSON exports
+     * @param objectMapper Jackson mapper used to parse bulk imports incrementally
      */
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, StockReservationService stockReservationService,
+                             LowStockAlertService lowStockAlertService, NdjsonStreamer ndjsonStreamer,
+                             ObjectMapper objectMapper) {
         this.productService = productService;
+        this.stockReservationService = stockReservationService;
+        this.lowStockAlertService = lowStockAlertService;
+        this.ndjsonStreamer = ndjsonStreamer;
+        this.productReader = objectMapper.readerFor(Product.class);
     }
 
     /**
-     * GET endpoint to retrieve all products
-     * @return List of all products with HTTP 200 OK
+     * GET endpoint to retrieve products one page at a time using keyset pagination
+     * Pass the returned "next" cursor back to fetch the following page
+     * @param cursor Opaque cursor from the previous page (omit for the first page)
+     * @param limit Page size (defaults to app.pagination.default-limit)
+     * @param includeTotal Whether to include an approximate total row count
+     * @param unpaged Set to true to get every product as a single array (legacy behaviour)
+     * @param fields Comma-separated fields to return, e.g. "id,name"; omit for full products
+     * @param request Current request, used to answer If-None-Match with 304 Not Modified;
+     *                pages are tagged from their rows, the unpaged list from a probe of the table
+     * @return Page of products (200 OK), full list if unpaged, 304 Not Modified if unchanged,
+     *         or 400 Bad Request for an invalid cursor/limit
      */
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    @QueryBudget(3)
+    public ResponseEntity<?> getAllProducts(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam(defaultValue = "false") boolean includeTotal,
+                                            @RequestParam(defaultValue = "false") boolean unpaged,
+                                            @RequestParam(required = false) String fields,
+                                            WebRequest request) {
+        String variant = cursor + "|" + limit + "|" + includeTotal + "|" + unpaged + "|" + fields;
+        if (unpaged) {
+            // Probe the table first; if the client's copy is current, no rows are loaded or serialized
+            String etag = productService.getProductsVersion().toETag(variant);
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            Object body = fields != null
+                    ? productService.getAllProducts(fields)
+                    : productService.getAllProducts();
+            return ResponseEntity.ok().eTag(etag).body(body);
+        }
+
+        // A page is tagged from its own rows, so paging never runs a table-wide probe
+        CursorPage<?> page;
+        String etag;
+        if (fields != null) {
+            // Sparse fieldset: only the requested columns are read, so the whole row is the fingerprint
+            CursorPage<Map<String, Object>> sparse = productService.getProductsPage(cursor, limit, includeTotal, fields);
+            etag = ETags.ofPage(sparse, row -> row, variant);
+            page = sparse;
+        } else {
+            CursorPage<Product> full = productService.getProductsPage(cursor, limit, includeTotal);
+            etag = ETags.ofPage(full, product -> product.getId() + "-" + product.getVersion(), variant);
+            page = full;
+        }
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(page);
+    }
+
+    /**
+     * GET endpoint to fetch many products by ID in one request, e.g. ?ids=3,17,42
+     * Replaces one GET /{id} round trip per item; cached products are served without a query
+     * @param ids Comma-separated product IDs
+     * @return Products in request order and the IDs that were not found (200 OK),
+     *         or 400 Bad Request for an empty or too long ID list
+     */
+    @GetMapping(params = "ids")
+    @QueryBudget(10)
+    public ResponseEntity<MultiGetResult<Product>> getProductsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
+    /**
+     * GET endpoint for delta sync: the products created, updated or deleted after a change number
+     * Clients keep the returned nextSince and send it back; the cost follows the number of changes
+     * @param since Last change number the client has seen, or 0 for a full sync
+     * @param limit Requested page size, or null for the default
+     * @return Changed products and deletions in change order (200 OK),
+     *         or 400 Bad Request for a negative since or an invalid limit
+     */
+    @GetMapping("/changes")
+    @QueryBudget(2)
+    public ResponseEntity<ChangeFeed<Product>> getProductChanges(@RequestParam(defaultValue = "0") long since,
+                                                                 @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.getProductChanges(since, limit));
+    }
+
+    /**
+     * GET endpoint to export every product as newline-delimited JSON
+     * Rows are written as they are read from the database, so memory use stays flat whatever the table size
+     * @return Streaming NDJSON body with HTTP 200 OK
+     */
+    @GetMapping(value = "/export", produces = NdjsonStreamer.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = ndjsonStreamer.stream(productService::exportProducts);
+        return ResponseEntity.ok()
+                .contentType(NdjsonStreamer.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
      * GET endpoint to retrieve a specific product by ID
      * @param id Product ID to retrieve
-     * @return Product if found (200 OK) or 404 Not Found
+     * @return Product if found (200 OK), 304 Not Modified if the If-None-Match ETag still matches, or 404 Not Found
      */
     @GetMapping("/{id}")
+    @QueryBudget(1)
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
         Optional<Product> product = productService.getProductById(id);
 
         if (product.isPresent()) {
-            return ResponseEntity.ok(product.get());
+            // Spring answers a matching If-None-Match with 304 before writing the body
+            return ResponseEntity.ok()
+                    .eTag(ETags.of(id, product.get().getVersion()))
+                    .body(product.get());
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -64,12 +194,25 @@ public class ProductController {
      */
     @PostMapping
     public ResponseEntity<?> createProduct(@RequestBody Product product) {
-        try {
-            Product createdProduct = productService.createProduct(product);
-            return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
-        } catch (IllegalArgumentException e) {
-            // Return validation errors with 400 Bad Request
-            return ResponseEntity.badRequest().body(e.getMessage());
+        Product createdProduct = productService.createProduct(product);
+        return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
+    }
+
+    /**
+     * POST endpoint to import many products at once
+     * The body is a JSON array of products; it is parsed one element at a time rather than
+     * bound to a list, and valid rows are inserted in JDBC batches
+     * @param body Raw request body
+     * @return Import summary with per-row errors (200 OK) or 400 Bad Request for malformed JSON
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importProducts(InputStream body) {
+        try (MappingIterator<Product> rows = productReader.readValues(body)) {
+            BulkImportResult result = productService.importProducts(rows);
+            return ResponseEntity.ok(result);
+        } catch (IOException | RuntimeJsonMappingException e) {
+            // Malformed JSON aborts the whole import (the transaction is rolled back)
+            return ResponseEntity.badRequest().body("Malformed bulk import body: " + e.getMessage());
         }
     }
 
@@ -77,32 +220,119 @@ public class ProductController {
      * PUT endpoint to update an existing product
      * @param id Product ID to update
      * @param productDetails Updated product details from request body
-     * @return Updated product (200 OK) or 404 Not Found
+     * @param ifMatch Optional ETag from a previous read; the update is refused if the product changed since
+     * @return Updated product (200 OK), 404 Not Found, or 412 Precondition Failed if the ETag is stale
      */
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateProduct(@PathVariable Long id, @RequestBody Product productDetails) {
+    public ResponseEntity<?> updateProduct(@PathVariable Long id, @RequestBody Product productDetails,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ETags.expectedVersion(id, ifMatch);
+        Product updatedProduct = productService.updateProduct(id, productDetails, expectedVersion);
+
+        if (updatedProduct != null) {
+            return ResponseEntity.ok()
+                    .eTag(ETags.of(id, updatedProduct.getVersion()))
+                    .body(updatedProduct);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * PATCH endpoint to update only some fields of a product
+     * Issues one UPDATE for just the fields present in the body; omitted fields keep their values
+     * @param id Product ID to update
+     * @param body Partial product JSON, e.g. {"stock": 12}
+     * @param ifMatch Optional ETag from a previous read; the update is refused if the product changed since
+     * @return Updated product (200 OK), 404 Not Found, 400 Bad Request for invalid fields,
+     *         or 412 Precondition Failed if the ETag is stale
+     */
+    @PatchMapping("/{id}")
+    @QueryBudget(3)
+    public ResponseEntity<?> patchProduct(@PathVariable Long id, @RequestBody ObjectNode body,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            Product updatedProduct = productService.updateProduct(id, productDetails);
+            Product changes = productReader.readValue(body);
+            Set<String> fields = new LinkedHashSet<>();
+            body.fieldNames().forEachRemaining(fields::add);
 
+            Long expectedVersion = ETags.expectedVersion(id, ifMatch);
+            Product updatedProduct = productService.patchProduct(id, changes, fields, expectedVersion);
             if (updatedProduct != null) {
-                return ResponseEntity.ok(updatedProduct);
+                return ResponseEntity.ok()
+                        .eTag(ETags.of(id, updatedProduct.getVersion()))
+                        .body(updatedProduct);
             } else {
                 return ResponseEntity.notFound().build();
             }
-        } catch (IllegalArgumentException e) {
-            // Return validation errors with 400 Bad Request
-            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Malformed patch body: " + e.getMessage());
+        }
+    }
+
+    /**
+     * PATCH endpoint to update many products at once
+     * The body is a JSON array of partial products with their IDs, e.g. [{"id": 3, "price": 9.99}, {"id": 4, "stock": 0}];
+     * everything runs in one transaction, and items changing the same fields share one batched UPDATE
+     * @param body JSON array of partial products
+     * @return Outcome of every item (200 OK), or 400 Bad Request for a malformed body or too many items
+     */
+    @PatchMapping("/bulk")
+    public ResponseEntity<?> patchProducts(@RequestBody ArrayNode body) {
+        try {
+            List<FieldPatch<Product>> patches = new ArrayList<>(body.size());
+            for (JsonNode item : body) {
+                if (!item.isObject()) {
+                    return ResponseEntity.badRequest().body("Malformed bulk patch body: every item must be an object");
+                }
+                Product changes = productReader.readValue(item);
+                Set<String> fields = new LinkedHashSet<>();
+                item.fieldNames().forEachRemaining(fields::add);
+                fields.remove("id");
+                patches.add(new FieldPatch<>(changes, fields));
+            }
+            return ResponseEntity.ok(productService.patchProducts(patches));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Malformed bulk patch body: " + e.getMessage());
         }
     }
 
+    /**
+     * POST endpoint to reserve stock atomically
+     * Only the stock column is touched, and never below zero, so concurrent checkouts cannot oversell
+     * @param id Product ID
+     * @param quantity Units to reserve (default 1)
+     * @return Updated product (200 OK), 404 Not Found, or 409 Conflict if not enough stock is left
+     */
+    @PostMapping("/{id}/stock/reserve")
+    public ResponseEntity<?> reserveStock(@PathVariable Long id, @RequestParam(defaultValue = "1") Integer quantity) {
+        Product product = stockReservationService.reserve(id, quantity);
+        return product != null ? ResponseEntity.ok(product) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * POST endpoint to return previously reserved stock
+     * @param id Product ID
+     * @param quantity Units to release (default 1)
+     * @return Updated product (200 OK) or 404 Not Found
+     */
+    @PostMapping("/{id}/stock/release")
+    public ResponseEntity<?> releaseStock(@PathVariable Long id, @RequestParam(defaultValue = "1") Integer quantity) {
+        Product product = stockReservationService.release(id, quantity);
+        return product != null ? ResponseEntity.ok(product) : ResponseEntity.notFound().build();
+    }
+
     /**
      * DELETE endpoint to remove a product
      * @param id Product ID to delete
-     * @return 204 No Content if deleted, 404 Not Found if not exists
+     * @param ifMatch Optional ETag from a previous read; the delete is refused if the product changed since
+     * @return 204 No Content if deleted, 404 Not Found if not exists, or 412 Precondition Failed if the ETag is stale
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
-        boolean deleted = productService.deleteProduct(id);
+    public ResponseEntity<Void> deleteProduct(@PathVariable Long id,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ETags.expectedVersion(id, ifMatch);
+        boolean deleted = productService.deleteProduct(id, expectedVersion);
 
         if (deleted) {
             return ResponseEntity.noContent().build();
@@ -111,24 +341,54 @@ public class ProductController {
         }
     }
 
+    /**
+     * DELETE endpoint to remove many products at once with a batched DELETE in one transaction
+     * @param ids JSON array of product IDs, e.g. [3, 4, 17]
+     * @return Outcome of every ID (200 OK), or 400 Bad Request for an empty list or too many IDs
+     */
+    @DeleteMapping("/bulk")
+    public ResponseEntity<BulkWriteResult> deleteProducts(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(productService.deleteProducts(ids));
+    }
+
     /**
      * GET endpoint to search products by category
      * @param category Category name to search
+     * @param fields Comma-separated fields to return, e.g. "id,name,price"; omit for full products
      * @return List of products in the category
      */
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
+    public ResponseEntity<List<?>> getProductsByCategory(@PathVariable String category,
+                                                         @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(productService.getProductsByCategory(category, fields));
+        }
         List<Product> products = productService.getProductsByCategory(category);
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * GET endpoint to retrieve inventory aggregates per category
+     * @return Product count, units, stock value, price range and low-stock count per category
+     */
+    @GetMapping("/stats")
+    @QueryBudget(1)
+    public ResponseEntity<List<CategoryStats>> getCategoryStats() {
+        return ResponseEntity.ok(productService.getCategoryStats());
+    }
+
     /**
      * GET endpoint to search products by name
      * @param keyword Search keyword
+     * @param fields Comma-separated fields to return, e.g. "id,name"; omit for full products
      * @return List of matching products
      */
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String keyword) {
+    public ResponseEntity<List<?>> searchProducts(@RequestParam String keyword,
+                                                  @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(productService.searchProductsByName(keyword, fields));
+        }
         List<Product> products = productService.searchProductsByName(keyword);
         return ResponseEntity.ok(products);
     }
@@ -144,4 +404,15 @@ public class ProductController {
         List<Product> products = productService.getLowStockProducts(threshold);
         return ResponseEntity.ok(products);
     }
-}
\ No newline at end of file
+
+    /**
+     * GET endpoint to subscribe to low-stock alerts as Server-Sent Events
+     * A "low-stock" event carrying the product is sent whenever its stock drops below the threshold
+     * @param threshold Stock threshold (default 10)
+     * @return Open event stream
+     */
+    @GetMapping(value = "/low-stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLowStockAlerts(@RequestParam(defaultValue = "10") Integer threshold) {
+        return lowStockAlertService.subscribe(threshold);
+    }
+}
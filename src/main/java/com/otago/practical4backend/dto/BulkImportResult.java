@@ -0,0 +1,89 @@
+package com.otago.practical4backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk Import Result DTO
+ * Summary of a bulk import with one entry for every row that was rejected
+ */
+public class BulkImportResult {
+
+    private long imported;
+    private final List<RowError> errors = new ArrayList<>();
+
+    /**
+     * Record a row that was inserted
+     */
+    public void recordImported() {
+        imported++;
+    }
+
+    /**
+     * Record a row that was rejected
+     * @param index Zero-based position of the row in the request body
+     * @param message Reason the row was rejected
+     */
+    public void recordError(long index, String message) {
+        errors.add(new RowError(index, message));
+    }
+
+    /**
+     * Get the number of rows inserted
+     * @return Imported row count
+     */
+    public long getImported() {
+        return imported;
+    }
+
+    /**
+     * Get the number of rows rejected
+     * @return Failed row count
+     */
+    public long getFailed() {
+        return errors.size();
+    }
+
+    /**
+     * Get the per-row errors
+     * @return Rejected rows with their reasons
+     */
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * A single rejected row
+     */
+    public static class RowError {
+
+        private final long index;
+        private final String message;
+
+        /**
+         * Create a row error
+         * @param index Zero-based position of the row in the request body
+         * @param message Reason the row was rejected
+         */
+        public RowError(long index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+        /**
+         * Get the position of the row in the request body
+         * @return Zero-based row index
+         */
+        public long getIndex() {
+            return index;
+        }
+
+        /**
+         * Get the reason the row was rejected
+         * @return Error message
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+}
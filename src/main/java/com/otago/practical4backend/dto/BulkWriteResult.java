@@ -0,0 +1,134 @@
+package com.otago.practical4backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Bulk Write Result DTO
+ * Outcome of a bulk update or delete, with one entry per item in the request body
+ */
+public class BulkWriteResult {
+
+    /**
+     * What happened to a single item
+     */
+    public enum Status {
+        UPDATED,
+        DELETED,
+        NOT_FOUND,
+        INVALID
+    }
+
+    private long succeeded;
+    private long failed;
+    private final List<ItemResult> items = new ArrayList<>();
+
+    /**
+     * Record the outcome of an item
+     * @param index Zero-based position of the item in the request body
+     * @param id ID the item refers to (null if it had none)
+     * @param status Outcome
+     * @param message Reason the item was not applied, or null on success
+     */
+    public void record(int index, Long id, Status status, String message) {
+        if (status == Status.UPDATED || status == Status.DELETED) {
+            succeeded++;
+        } else {
+            failed++;
+        }
+        items.add(new ItemResult(index, id, status, message));
+    }
+
+    /**
+     * Put the item results back in request order
+     * Items are recorded as their statements run, which groups them by the columns they change
+     */
+    public void sortByIndex() {
+        items.sort(Comparator.comparingInt(ItemResult::getIndex));
+    }
+
+    /**
+     * Get the number of items applied
+     * @return Updated or deleted item count
+     */
+    public long getSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * Get the number of items not applied
+     * @return Missing or invalid item count
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Get the per-item outcomes
+     * @return Item results in request order
+     */
+    public List<ItemResult> getItems() {
+        return items;
+    }
+
+    /**
+     * Outcome of a single item
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ItemResult {
+
+        private final int index;
+        private final Long id;
+        private final Status status;
+        private final String message;
+
+        /**
+         * Create an item result
+         * @param index Zero-based position of the item in the request body
+         * @param id ID the item refers to
+         * @param status Outcome
+         * @param message Reason the item was not applied, or null on success
+         */
+        public ItemResult(int index, Long id, Status status, String message) {
+            this.index = index;
+            this.id = id;
+            this.status = status;
+            this.message = message;
+        }
+
+        /**
+         * Get the position of the item in the request body
+         * @return Zero-based item index
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Get the ID the item refers to
+         * @return Entity ID, or null if the item had none
+         */
+        public Long getId() {
+            return id;
+        }
+
+        /**
+         * Get the outcome
+         * @return Item status
+         */
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * Get the reason the item was not applied
+         * @return Error message, or null on success
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+}
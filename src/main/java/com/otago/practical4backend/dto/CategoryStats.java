@@ -0,0 +1,95 @@
+package com.otago.practical4backend.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Category Stats DTO
+ * Inventory aggregates of one product category
+ */
+public class CategoryStats {
+
+    private final String category;
+    private final long productCount;
+    private final long totalUnits;
+    private final BigDecimal totalValue;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final long lowStockCount;
+
+    /**
+     * Constructor, also used by the JPQL GROUP BY fallback query
+     * @param category Category name
+     * @param productCount Number of products in the category
+     * @param totalUnits Sum of stock
+     * @param totalValue Sum of price * stock
+     * @param minPrice Lowest price
+     * @param maxPrice Highest price
+     * @param lowStockCount Number of products below the low-stock threshold
+     */
+    public CategoryStats(String category, Long productCount, Long totalUnits, BigDecimal totalValue,
+                         BigDecimal minPrice, BigDecimal maxPrice, Long lowStockCount) {
+        this.category = category;
+        this.productCount = productCount == null ? 0 : productCount;
+        this.totalUnits = totalUnits == null ? 0 : totalUnits;
+        this.totalValue = totalValue == null ? BigDecimal.ZERO.setScale(2) : totalValue.setScale(2);
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.lowStockCount = lowStockCount == null ? 0 : lowStockCount;
+    }
+
+    /**
+     * Get the category name
+     * @return Category
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * Get the number of products
+     * @return Product count
+     */
+    public long getProductCount() {
+        return productCount;
+    }
+
+    /**
+     * Get the number of units in stock
+     * @return Sum of stock
+     */
+    public long getTotalUnits() {
+        return totalUnits;
+    }
+
+    /**
+     * Get the value of the stock held
+     * @return Sum of price * stock
+     */
+    public BigDecimal getTotalValue() {
+        return totalValue;
+    }
+
+    /**
+     * Get the lowest price
+     * @return Minimum price
+     */
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    /**
+     * Get the highest price
+     * @return Maximum price
+     */
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    /**
+     * Get the number of products below the low-stock threshold
+     * @return Low-stock product count
+     */
+    public long getLowStockCount() {
+        return lowStockCount;
+    }
+}
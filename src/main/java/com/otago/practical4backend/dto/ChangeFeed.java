@@ -0,0 +1,99 @@
+package com.otago.practical4backend.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Change Feed DTO
+ * One page of a delta sync: the rows created or updated and the rows deleted after the client's
+ * last seen change number, in change log order.
+ * Clients apply the page, remember nextSince, and ask again while hasMore is true.
+ * When resyncRequired is true the deletions the client needs have been purged, so it must
+ * drop its copy and start again from since=0
+ *
+ * @param <T> Type of the changed rows
+ */
+public class ChangeFeed<T> {
+
+    private final List<T> changed;
+    private final List<Deletion> deleted;
+    private final long nextSince;
+    private final boolean hasMore;
+    private final boolean resyncRequired;
+
+    /**
+     * Create a change feed page
+     * @param changed Created or updated rows, in change log order
+     * @param deleted Deleted rows, in change log order
+     * @param nextSince Change number to send as "since" on the next request
+     * @param hasMore Whether more changes follow this page
+     * @param resyncRequired Whether the client must discard its copy and sync from the start
+     */
+    public ChangeFeed(List<T> changed, List<Deletion> deleted, long nextSince, boolean hasMore,
+                      boolean resyncRequired) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.nextSince = nextSince;
+        this.hasMore = hasMore;
+        this.resyncRequired = resyncRequired;
+    }
+
+    /**
+     * Create the answer for a client whose deletions have been purged
+     * @param since Change number the client sent
+     * @param <T> Type of the changed rows
+     * @return Empty page asking for a full resync
+     */
+    public static <T> ChangeFeed<T> resync(long since) {
+        return new ChangeFeed<>(List.of(), List.of(), since, false, true);
+    }
+
+    /**
+     * Get the created or updated rows
+     * @return Changed rows, each in its latest state
+     */
+    public List<T> getChanged() {
+        return changed;
+    }
+
+    /**
+     * Get the deleted rows
+     * @return Deletions
+     */
+    public List<Deletion> getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * Get the change number to continue from
+     * @return Highest change number in this page, or the requested one if the page is empty
+     */
+    public long getNextSince() {
+        return nextSince;
+    }
+
+    /**
+     * Check whether more changes follow
+     * @return true if another request is needed to catch up
+     */
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    /**
+     * Check whether the client must sync from the start
+     * @return true if deletions after the requested change number are no longer kept
+     */
+    public boolean isResyncRequired() {
+        return resyncRequired;
+    }
+
+    /**
+     * A deleted row
+     * @param id ID of the deleted row
+     * @param changeSeq Change number of the deletion
+     * @param deletedAt Time of the deletion
+     */
+    public record Deletion(Long id, Long changeSeq, Instant deletedAt) {
+    }
+}
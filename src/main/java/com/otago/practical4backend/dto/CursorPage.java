@@ -0,0 +1,102 @@
+package com.otago.practical4backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Cursor Page DTO
+ * One page of a keyset-paginated listing
+ * The next cursor is opaque to clients and must be passed back unchanged to fetch the following page
+ *
+ * @param <T> Type of the items in the page
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+
+    private final List<T> items;
+    private final String next;
+    private final int limit;
+    private final Long approximateTotal;
+
+    /**
+     * Create a page
+     * @param items Items in this page, in ID order
+     * @param next Cursor for the following page, or null if this is the last page
+     * @param limit Page size that was applied
+     * @param approximateTotal Approximate total row count, or null if it was not requested
+     */
+    public CursorPage(List<T> items, String next, int limit, Long approximateTotal) {
+        this.items = items;
+        this.next = next;
+        this.limit = limit;
+        this.approximateTotal = approximateTotal;
+    }
+
+    /**
+     * Encode the last ID of a page as an opaque cursor
+     * @param lastId Last ID returned in the page
+     * @return URL-safe cursor string
+     */
+    public static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decode a cursor produced by {@link #encodeCursor(Long)}
+     * @param cursor Cursor string, or null/empty for the first page
+     * @return ID to seek after (0 for the first page)
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            long lastId = Long.parseLong(decoded);
+            if (lastId < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return lastId;
+        } catch (IllegalArgumentException e) {
+            // Covers both bad Base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Get the items in this page
+     * @return Page items
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Get the cursor for the following page
+     * @return Next cursor, or null if there are no more items
+     */
+    public String getNext() {
+        return next;
+    }
+
+    /**
+     * Get the page size that was applied
+     * @return Page size
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Get the approximate total number of rows
+     * @return Approximate total, or null if not requested
+     */
+    public Long getApproximateTotal() {
+        return approximateTotal;
+    }
+}
@@ -0,0 +1,15 @@
+package com.otago.practical4backend.dto;
+
+import java.util.Set;
+
+/**
+ * Field Patch DTO
+ * One item of a bulk PATCH: an entity carrying the new values and its ID,
+ * plus the names of the fields that were present in the request
+ *
+ * @param changes Entity carrying the ID and the new values
+ * @param fields Names of the fields to change; all other fields are left unchanged
+ * @param <T> Entity type
+ */
+public record FieldPatch<T>(T changes, Set<String> fields) {
+}
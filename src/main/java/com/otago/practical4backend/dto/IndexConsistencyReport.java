@@ -0,0 +1,75 @@
+package com.otago.practical4backend.dto;
+
+import java.util.List;
+
+/**
+ * Index Consistency Report DTO
+ * Result of comparing an in-memory index with the database
+ */
+public class IndexConsistencyReport {
+
+    /**
+     * Maximum number of differences listed in a report
+     */
+    public static final int MAX_LISTED_DIFFERENCES = 100;
+
+    private final String index;
+    private final int differenceCount;
+    private final List<String> differences;
+    private final boolean repaired;
+
+    /**
+     * Create a report
+     * @param index Index name
+     * @param differences Every difference found
+     * @param repaired Whether the index was rebuilt afterwards
+     */
+    public IndexConsistencyReport(String index, List<String> differences, boolean repaired) {
+        this.index = index;
+        this.differenceCount = differences.size();
+        this.differences = differences.size() > MAX_LISTED_DIFFERENCES
+                ? List.copyOf(differences.subList(0, MAX_LISTED_DIFFERENCES))
+                : List.copyOf(differences);
+        this.repaired = repaired;
+    }
+
+    /**
+     * Get the index name
+     * @return Index name
+     */
+    public String getIndex() {
+        return index;
+    }
+
+    /**
+     * Check whether the index matched the database
+     * @return true if no differences were found
+     */
+    public boolean isConsistent() {
+        return differenceCount == 0;
+    }
+
+    /**
+     * Get the total number of differences found
+     * @return Difference count
+     */
+    public int getDifferenceCount() {
+        return differenceCount;
+    }
+
+    /**
+     * Get the differences found (at most MAX_LISTED_DIFFERENCES)
+     * @return Difference descriptions
+     */
+    public List<String> getDifferences() {
+        return differences;
+    }
+
+    /**
+     * Check whether the index was rebuilt after the check
+     * @return true if repaired
+     */
+    public boolean isRepaired() {
+        return repaired;
+    }
+}
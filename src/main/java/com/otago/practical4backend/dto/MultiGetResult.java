@@ -0,0 +1,42 @@
+package com.otago.practical4backend.dto;
+
+import java.util.List;
+
+/**
+ * Multi-Get Result DTO
+ * Entities fetched by a list of IDs, in the order the IDs were requested,
+ * plus the requested IDs that do not exist
+ *
+ * @param <T> Type of the items
+ */
+public class MultiGetResult<T> {
+
+    private final List<T> items;
+    private final List<Long> missing;
+
+    /**
+     * Create a result
+     * @param items Entities found, in request order
+     * @param missing Requested IDs with no entity, in request order
+     */
+    public MultiGetResult(List<T> items, List<Long> missing) {
+        this.items = items;
+        this.missing = missing;
+    }
+
+    /**
+     * Get the entities that were found
+     * @return Entities in request order
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Get the requested IDs that do not exist
+     * @return Missing IDs in request order (empty if every ID was found)
+     */
+    public List<Long> getMissing() {
+        return missing;
+    }
+}
@@ -0,0 +1,36 @@
+package com.otago.practical4backend.dto;
+
+/**
+ * Table Version
+ * Cheap fingerprint of a table: row count, highest ID and sum of row versions.
+ * Every insert raises the count and highest ID, every delete lowers the count, and every
+ * update bumps a row version, so the fingerprint changes whenever the table content does.
+ * Used to answer conditional GETs on collections without loading any rows
+ */
+public class TableVersion {
+
+    private final long count;
+    private final long maxId;
+    private final long versionSum;
+
+    /**
+     * Constructor used by the JPQL probe queries
+     * @param count Number of rows
+     * @param maxId Highest ID (null for an empty table)
+     * @param versionSum Sum of row versions (null for an empty table)
+     */
+    public TableVersion(Long count, Long maxId, Long versionSum) {
+        this.count = count == null ? 0 : count;
+        this.maxId = maxId == null ? 0 : maxId;
+        this.versionSum = versionSum == null ? 0 : versionSum;
+    }
+
+    /**
+     * Build a strong ETag for a representation of the table
+     * @param variant Anything else the representation depends on (e.g. query parameters)
+     * @return Quoted ETag value
+     */
+    public String toETag(String variant) {
+        return "\"" + count + "-" + maxId + "-" + versionSum + "-" + Integer.toHexString(variant.hashCode()) + "\"";
+    }
+}
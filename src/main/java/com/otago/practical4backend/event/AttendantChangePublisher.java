@@ -0,0 +1,56 @@
+package com.otago.practical4backend.event;
+
+import com.otago.practical4backend.model.Attendant;
+import com.otago.practical4backend.repository.AttendantRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+/**
+ * Attendant Change Publisher
+ * Publishes a {@link AttendantChangedEvent} after each transaction that writes attendants commits
+ */
+@Component
+public class AttendantChangePublisher extends ChangePublisher<Attendant> {
+
+    private final AttendantRepository attendantRepository;
+
+    /**
+     * Constructor injection
+     * @param eventPublisher Spring event publisher
+     * @param transactionManager Transaction manager used to reload ID-only changes
+     * @param attendantRepository Repository used to reload ID-only changes
+     * @param changeLog Records attendant changes for delta sync
+     */
+    @Autowired
+    public AttendantChangePublisher(ApplicationEventPublisher eventPublisher,
+                                    PlatformTransactionManager transactionManager,
+                                    AttendantRepository attendantRepository,
+                                    ChangeLog changeLog) {
+        super(eventPublisher, transactionManager, changeLog, "attendants");
+        this.attendantRepository = attendantRepository;
+    }
+
+    @Override
+    protected Attendant snapshot(Attendant attendant) {
+        return new Attendant(attendant);
+    }
+
+    @Override
+    protected Long idOf(Attendant attendant) {
+        return attendant.getId();
+    }
+
+    @Override
+    protected List<Attendant> load(List<Long> ids) {
+        return attendantRepository.findAllById(ids);
+    }
+
+    @Override
+    protected EntityChangedEvent<Attendant> createEvent(List<Attendant> changed, List<Long> deletedIds) {
+        return new AttendantChangedEvent(changed, deletedIds);
+    }
+}
@@ -0,0 +1,21 @@
+package com.otago.practical4backend.event;
+
+import com.otago.practical4backend.model.Attendant;
+
+import java.util.List;
+
+/**
+ * Attendant Changed Event
+ * Published after attendants have been created, updated or deleted and the transaction has committed
+ */
+public class AttendantChangedEvent extends EntityChangedEvent<Attendant> {
+
+    /**
+     * Create a attendant change event
+     * @param changed Snapshots of created or updated attendants
+     * @param deletedIds IDs of deleted attendants
+     */
+    public AttendantChangedEvent(List<Attendant> changed, List<Long> deletedIds) {
+        super(changed, deletedIds);
+    }
+}
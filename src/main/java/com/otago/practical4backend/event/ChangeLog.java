@@ -0,0 +1,259 @@
+package com.otago.practical4backend.event;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Change Log
+ * Appends one entry per committed write to products and attendants to the change_log table, so
+ * clients can fetch just the rows changed since the last change number they saw.
+ *
+ * Writers append entries without a change number, so they never wait for each other. Numbers are
+ * given out after commit, by one numbering transaction at a time (serialized on a watermark row lock,
+ * across instances too), to entries that have already committed. Each numbering transaction's numbers
+ * therefore become visible together and after every lower number, so a reader that sees change n has
+ * already been able to see every change before it, however long the writing transaction took to commit.
+ *
+ * A scheduled job keeps the log about the size of the tables it covers: entries superseded by a later
+ * write to the same row are removed, and deletions are purged once older than the retention period
+ */
+@Component
+public class ChangeLog {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeLog.class);
+
+    /** Watermark holding the last change number given out */
+    public static final String NUMBERED = "numbered";
+
+    /** Watermark below which superseded entries have been removed */
+    public static final String COMPACTED = "compacted";
+
+    /** Watermark holding the newest change number whose deletions may have been purged */
+    public static final String DELETIONS_PURGED = "deletions-purged";
+
+    private static final int BATCH_SIZE = 1000;
+
+    /** Change numbers examined per compaction query */
+    private static final int COMPACTION_WINDOW = 10_000;
+
+    // The database clock, so entries from instances with skewed clocks still age together
+    private static final String INSERT =
+            "INSERT INTO change_log (table_name, entity_id, deleted, changed_at) VALUES (?, ?, ?, CURRENT_TIMESTAMP)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate numberingTransaction;
+    private final Duration deletionRetention;
+
+    // Numbering runs off the committing thread; requests made while it waits share one run
+    private final AtomicBoolean numberingRequested = new AtomicBoolean();
+    private final ExecutorService numberer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "change-log-numbering");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor injection
+     * @param jdbcTemplate JDBC access sharing the JPA transaction's connection
+     * @param transactionManager Transaction manager for the numbering transactions
+     * @param deletionRetention How long deletions are kept for clients that sync rarely
+     */
+    @Autowired
+    public ChangeLog(JdbcTemplate jdbcTemplate,
+                     PlatformTransactionManager transactionManager,
+                     @Value("${app.sync.tombstone-retention:30d}") Duration deletionRetention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.deletionRetention = deletionRetention;
+        this.numberingTransaction = new TransactionTemplate(transactionManager);
+        this.numberingTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Each statement sees the entries committed by then, without locking the gaps writers insert into
+        this.numberingTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * Log one transaction's changes, with one batched INSERT
+     * The entries get their change numbers once the transaction has committed (see {@link #requestNumbering()})
+     * @param table Table the rows belong to
+     * @param changedIds Created or updated rows
+     * @param deletedIds Deleted rows
+     */
+    public void record(String table, Collection<Long> changedIds, Collection<Long> deletedIds) {
+        if (changedIds.isEmpty() && deletedIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> entries = new ArrayList<>(changedIds.size() + deletedIds.size());
+        for (Long id : changedIds) {
+            entries.add(new Object[]{table, id, false});
+        }
+        for (Long id : deletedIds) {
+            entries.add(new Object[]{table, id, true});
+        }
+        for (int from = 0; from < entries.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(INSERT, entries.subList(from, Math.min(from + BATCH_SIZE, entries.size())));
+        }
+    }
+
+    /**
+     * Number newly committed entries in the background
+     * Called after a transaction that logged changes has committed
+     */
+    public void requestNumbering() {
+        if (numberingRequested.compareAndSet(false, true)) {
+            numberer.execute(() -> {
+                // Cleared first, so a commit that lands during this run queues another one
+                numberingRequested.set(false);
+                try {
+                    assignNumbers();
+                } catch (RuntimeException e) {
+                    log.warn("Could not number change log entries; retrying on the next scheduled run", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Give change numbers to every committed entry that has none yet, in batches
+     * Also runs on a schedule, for entries whose instance stopped before numbering them
+     * @return Number of entries numbered
+     */
+    @Scheduled(fixedDelayString = "${app.sync.numbering-interval-ms:1000}")
+    public int assignNumbers() {
+        int total = 0;
+        int numbered;
+        do {
+            Integer batch = numberingTransaction.execute(status -> numberBatch());
+            numbered = batch == null ? 0 : batch;
+            total += numbered;
+        } while (numbered == BATCH_SIZE);
+        return total;
+    }
+
+    /**
+     * Get the last change number given out
+     * @return Numbering watermark, or 0 if nothing has been numbered
+     */
+    public long lastNumber() {
+        return watermark(NUMBERED);
+    }
+
+    /**
+     * Get the newest change number whose deletions may have been purged
+     * A client that last synced before this number may have missed deletions and must resync fully
+     * @return Purge watermark, or 0 if nothing has been purged
+     */
+    public long purgedThrough() {
+        return watermark(DELETIONS_PURGED);
+    }
+
+    /**
+     * Remove superseded entries, then purge deletions older than the retention period
+     * Only numbered entries are touched; the rest are not yet visible to readers
+     */
+    @Scheduled(fixedDelayString = "${app.sync.tombstone-purge-interval-ms:3600000}",
+            initialDelayString = "${app.sync.tombstone-purge-interval-ms:3600000}")
+    public void compact() {
+        long from = watermark(COMPACTED);
+        long through = lastNumber();
+        if (through > from) {
+            int removed = 0;
+            for (long start = from; start < through; start += COMPACTION_WINDOW) {
+                // Selected first: MySQL cannot delete from a table the same statement reads
+                List<Long> superseded = jdbcTemplate.queryForList(
+                        "SELECT DISTINCT o.id FROM change_log n JOIN change_log o "
+                                + "ON o.table_name = n.table_name AND o.entity_id = n.entity_id "
+                                + "AND o.change_number < n.change_number "
+                                + "WHERE n.change_number > ? AND n.change_number <= ?",
+                        Long.class, start, Math.min(start + COMPACTION_WINDOW, through));
+                removed += delete(superseded);
+            }
+            jdbcTemplate.update("UPDATE sync_watermarks SET change_id = ? WHERE name = ?", through, COMPACTED);
+            log.info("Compacted change log through {}, removing {} superseded entries", through, removed);
+        }
+
+        Long newest = jdbcTemplate.queryForObject(
+                "SELECT MAX(change_number) FROM change_log WHERE deleted = TRUE "
+                        + "AND changed_at < TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP)",
+                Long.class, -deletionRetention.toSeconds());
+        if (newest != null) {
+            raisePurgedThrough(newest);
+            int purged = jdbcTemplate.update(
+                    "DELETE FROM change_log WHERE deleted = TRUE AND change_number <= ?", newest);
+            log.info("Purged {} deletions up to change {}", purged, newest);
+        }
+    }
+
+    /**
+     * Raise the deletion purge watermark, so every client that synced before it resyncs fully
+     * @param changeId Newest change number whose deletions are no longer kept
+     */
+    public void raisePurgedThrough(long changeId) {
+        jdbcTemplate.update("UPDATE sync_watermarks SET change_id = ? WHERE name = ? AND change_id < ?",
+                changeId, DELETIONS_PURGED, changeId);
+    }
+
+    /**
+     * Stop the numbering thread on shutdown; the scheduled run on the next start numbers what is left
+     */
+    @PreDestroy
+    public void shutdown() {
+        numberer.shutdownNow();
+    }
+
+    private int numberBatch() {
+        // Held until commit, so numbering transactions commit one after another in number order
+        Long last = jdbcTemplate.query("SELECT change_id FROM sync_watermarks WHERE name = ? FOR UPDATE",
+                rs -> rs.next() ? rs.getLong(1) : null, NUMBERED);
+        if (last == null) {
+            // Created by SchemaUpgradeRunner; nothing is numbered until it has run
+            return 0;
+        }
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM change_log WHERE change_number IS NULL ORDER BY id LIMIT " + BATCH_SIZE, Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        long next = last;
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            args.add(new Object[]{++next, id});
+        }
+        jdbcTemplate.batchUpdate("UPDATE change_log SET change_number = ? WHERE id = ?", args);
+        jdbcTemplate.update("UPDATE sync_watermarks SET change_id = ? WHERE name = ?", next, NUMBERED);
+        return ids.size();
+    }
+
+    private int delete(List<Long> ids) {
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            args.add(new Object[]{id});
+        }
+        for (int from = 0; from < args.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate("DELETE FROM change_log WHERE id = ?",
+                    args.subList(from, Math.min(from + BATCH_SIZE, args.size())));
+        }
+        return ids.size();
+    }
+
+    private long watermark(String name) {
+        Long value = jdbcTemplate.query("SELECT change_id FROM sync_watermarks WHERE name = ?",
+                rs -> rs.next() ? rs.getLong(1) : null, name);
+        return value == null ? 0 : value;
+    }
+}
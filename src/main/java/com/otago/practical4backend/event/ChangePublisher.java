@@ -0,0 +1,229 @@
+package com.otago.practical4backend.event;
+
+import com.otago.practical4backend.routing.PrimaryReads;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Change Publisher
+ * Collects the entities a transaction writes and publishes one change event once it has committed.
+ * In-memory caches and indexes listen for these events, so they only ever see committed data
+ * and are left untouched when a transaction rolls back.
+ *
+ * Bulk operations can record bare IDs instead of entities; those rows are reloaded after
+ * commit in chunks, so a large import never keeps every entity in memory until it commits.
+ *
+ * Just before commit every recorded row and deletion is appended to the {@link ChangeLog},
+ * which is what the delta-sync endpoints read.
+ *
+ * @param <T> Entity type
+ */
+public abstract class ChangePublisher<T> {
+
+    /**
+     * Number of rows reloaded (and published) per event for ID-only changes
+     */
+    protected static final int RELOAD_CHUNK_SIZE = 1000;
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate reloadTransaction;
+    private final ChangeLog changeLog;
+    private final String table;
+
+    /**
+     * Create a change publisher
+     * @param eventPublisher Spring event publisher
+     * @param transactionManager Transaction manager used to reload ID-only changes
+     * @param changeLog Records the changes for delta sync
+     * @param table Table the entities are stored in
+     */
+    protected ChangePublisher(ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager,
+                              ChangeLog changeLog,
+                              String table) {
+        this.eventPublisher = eventPublisher;
+        this.changeLog = changeLog;
+        this.table = table;
+        this.reloadTransaction = new TransactionTemplate(transactionManager);
+        // The original transaction's resources are still bound after commit, so force a fresh one
+        this.reloadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reloadTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Record a created or updated entity
+     * @param entity Entity in its final state for this transaction
+     */
+    public void changed(T entity) {
+        record(pending -> pending.changed.add(entity));
+    }
+
+    /**
+     * Record a deleted entity
+     * @param id ID of the deleted entity
+     */
+    public void deleted(Long id) {
+        record(pending -> pending.deletedIds.add(id));
+    }
+
+    /**
+     * Record entities by ID only; they are reloaded from the database after commit
+     * @param ids IDs of created or updated entities
+     */
+    public void changedIds(Collection<Long> ids) {
+        record(pending -> pending.reloadIds.addAll(ids));
+    }
+
+    /**
+     * Take a detached snapshot of an entity
+     * @param entity Entity to copy
+     * @return Copy that is safe to hand to other threads
+     */
+    protected abstract T snapshot(T entity);
+
+    /**
+     * Get the ID of an entity
+     * @param entity Entity
+     * @return Entity ID
+     */
+    protected abstract Long idOf(T entity);
+
+    /**
+     * Load entities by ID
+     * @param ids IDs to load
+     * @return Entities that still exist
+     */
+    protected abstract List<T> load(List<Long> ids);
+
+    /**
+     * Build the event for a set of committed changes
+     * @param changed Snapshots of created or updated entities
+     * @param deletedIds IDs of deleted entities
+     * @return Event to publish
+     */
+    protected abstract EntityChangedEvent<T> createEvent(List<T> changed, List<Long> deletedIds);
+
+    /**
+     * Append a change to the current transaction's pending changes
+     * The first change in a transaction registers a synchronization that publishes after commit.
+     * Outside a transaction the change is published straight away
+     * @param change Change to apply to the pending set
+     */
+    private void record(Consumer<Pending> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Pending immediate = new Pending();
+            change.accept(immediate);
+            immediate.log();
+            changeLog.requestNumbering();
+            immediate.publish();
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Pending created = new Pending();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    created.log();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ChangePublisher.this);
+                    if (status == STATUS_COMMITTED) {
+                        changeLog.requestNumbering();
+                        created.publish();
+                    }
+                }
+            });
+            pending = created;
+        }
+        change.accept(pending);
+    }
+
+    /**
+     * Changes recorded by one transaction
+     */
+    private class Pending {
+
+        private final List<T> changed = new ArrayList<>();
+        private final List<Long> deletedIds = new ArrayList<>();
+        private final Set<Long> reloadIds = new HashSet<>();
+
+        /**
+         * Append every recorded row and deletion to the change log
+         */
+        private void log() {
+            // The same entity may have been recorded more than once; log it once
+            Set<Long> changedIds = new LinkedHashSet<>();
+            for (T entity : changed) {
+                changedIds.add(idOf(entity));
+            }
+            changedIds.addAll(reloadIds);
+            changeLog.record(table, changedIds, new LinkedHashSet<>(deletedIds));
+        }
+
+        /**
+         * Publish everything recorded, reloading ID-only changes in chunks
+         */
+        private void publish() {
+            if (!changed.isEmpty() || !deletedIds.isEmpty()) {
+                // The same entity may have been recorded more than once; keep its final state
+                Set<Long> seen = new HashSet<>();
+                List<T> snapshots = new ArrayList<>(changed.size());
+                for (int i = changed.size() - 1; i >= 0; i--) {
+                    T entity = changed.get(i);
+                    if (seen.add(idOf(entity))) {
+                        snapshots.add(snapshot(entity));
+                    }
+                }
+                eventPublisher.publishEvent(createEvent(snapshots, new ArrayList<>(deletedIds)));
+            }
+
+            if (!reloadIds.isEmpty()) {
+                List<Long> ids = new ArrayList<>(reloadIds);
+                for (int from = 0; from < ids.size(); from += RELOAD_CHUNK_SIZE) {
+                    List<Long> chunk = ids.subList(from, Math.min(from + RELOAD_CHUNK_SIZE, ids.size()));
+                    publishReloaded(chunk);
+                }
+            }
+        }
+
+        /**
+         * Reload one chunk of IDs and publish it; IDs that no longer exist are published as deleted
+         * The rows are read from the primary: the replica may not have applied the commit yet
+         * @param chunk IDs to reload
+         */
+        private void publishReloaded(List<Long> chunk) {
+            List<T> loaded = PrimaryReads.call(() -> reloadTransaction.execute(status -> load(chunk)));
+            List<T> snapshots = new ArrayList<>(loaded.size());
+            Set<Long> found = new HashSet<>();
+            for (T entity : loaded) {
+                snapshots.add(snapshot(entity));
+                found.add(idOf(entity));
+            }
+            List<Long> missing = new ArrayList<>();
+            for (Long id : chunk) {
+                if (!found.contains(id)) {
+                    missing.add(id);
+                }
+            }
+            eventPublisher.publishEvent(createEvent(snapshots, missing));
+        }
+    }
+}
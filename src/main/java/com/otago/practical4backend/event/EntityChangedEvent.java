@@ -0,0 +1,42 @@
+package com.otago.practical4backend.event;
+
+import java.util.List;
+
+/**
+ * Entity Changed Event
+ * Published after a transaction that created, updated or deleted entities has committed.
+ * Changed entities are detached snapshots of their committed state
+ *
+ * @param <T> Entity type
+ */
+public abstract class EntityChangedEvent<T> {
+
+    private final List<T> changed;
+    private final List<Long> deletedIds;
+
+    /**
+     * Create a change event
+     * @param changed Snapshots of created or updated entities
+     * @param deletedIds IDs of deleted entities
+     */
+    protected EntityChangedEvent(List<T> changed, List<Long> deletedIds) {
+        this.changed = changed;
+        this.deletedIds = deletedIds;
+    }
+
+    /**
+     * Get the created or updated entities
+     * @return Committed snapshots, never null
+     */
+    public List<T> getChanged() {
+        return changed;
+    }
+
+    /**
+     * Get the IDs of deleted entities
+     * @return Deleted IDs, never null
+     */
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+}
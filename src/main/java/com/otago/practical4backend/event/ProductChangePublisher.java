@@ -0,0 +1,56 @@
+package com.otago.practical4backend.event;
+
+import com.otago.practical4backend.model.Product;
+import com.otago.practical4backend.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+/**
+ * Product Change Publisher
+ * Publishes a {@link ProductChangedEvent} after each transaction that writes products commits
+ */
+@Component
+public class ProductChangePublisher extends ChangePublisher<Product> {
+
+    private final ProductRepository productRepository;
+
+    /**
+     * Constructor injection
+     * @param eventPublisher Spring event publisher
+     * @param transactionManager Transaction manager used to reload ID-only changes
+     * @param productRepository Repository used to reload ID-only changes
+     * @param changeLog Records product changes for delta sync
+     */
+    @Autowired
+    public ProductChangePublisher(ApplicationEventPublisher eventPublisher,
+                                  PlatformTransactionManager transactionManager,
+                                  ProductRepository productRepository,
+                                  ChangeLog changeLog) {
+        super(eventPublisher, transactionManager, changeLog, "products");
+        this.productRepository = productRepository;
+    }
+
+    @Override
+    protected Product snapshot(Product product) {
+        return new Product(product);
+    }
+
+    @Override
+    protected Long idOf(Product product) {
+        return product.getId();
+    }
+
+    @Override
+    protected List<Product> load(List<Long> ids) {
+        return productRepository.findAllById(ids);
+    }
+
+    @Override
+    protected EntityChangedEvent<Product> createEvent(List<Product> changed, List<Long> deletedIds) {
+        return new ProductChangedEvent(changed, deletedIds);
+    }
+}
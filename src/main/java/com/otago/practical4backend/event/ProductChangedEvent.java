@@ -0,0 +1,21 @@
+package com.otago.practical4backend.event;
+
+import com.otago.practical4backend.model.Product;
+
+import java.util.List;
+
+/**
+ * Product Changed Event
+ * Published after products have been created, updated or deleted and the transaction has committed
+ */
+public class ProductChangedEvent extends EntityChangedEvent<Product> {
+
+    /**
+     * Create a product change event
+     * @param changed Snapshots of created or updated products
+     * @param deletedIds IDs of deleted products
+     */
+    public ProductChangedEvent(List<Product> changed, List<Long> deletedIds) {
+        super(changed, deletedIds);
+    }
+}
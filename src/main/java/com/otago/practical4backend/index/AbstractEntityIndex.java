@@ -0,0 +1,260 @@
+package com.otago.practical4backend.index;
+
+import com.otago.practical4backend.event.EntityChangedEvent;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Abstract Entity Index
+ * Base class for in-memory secondary indexes that are built from a full table scan
+ * and then kept up to date from committed change events.
+ *
+ * Reads run under a shared lock and writes under an exclusive one. While a rebuild is
+ * scanning the table, incoming changes are applied to the live structure and also buffered;
+ * they are replayed onto the new structure before it is swapped in, so nothing committed
+ * during the scan is lost. Upserts and removals must therefore be idempotent.
+ *
+ * Events for the same row can arrive out of commit order, since each is published from its own
+ * committing thread. A snapshot is therefore only applied if its version is newer than the one
+ * the structure holds, and deleted IDs are remembered until the next rebuild so a late snapshot
+ * cannot bring a deleted row back (IDs are never reused).
+ *
+ * @param <T> Entity type
+ * @param <S> Mutable index structure
+ */
+public abstract class AbstractEntityIndex<T, S> {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Function<T, Long> idOf;
+    private final Function<T, Long> versionOf;
+
+    // Guarded by lock
+    private S state;
+    private Set<Long> deleted;
+    private List<EntityChangedEvent<T>> replay;
+
+    private volatile boolean ready;
+
+    /**
+     * Constructor
+     * @param idOf Function extracting an entity's ID
+     * @param versionOf Function extracting an entity's optimistic lock version
+     */
+    protected AbstractEntityIndex(Function<T, Long> idOf, Function<T, Long> versionOf) {
+        this.idOf = idOf;
+        this.versionOf = versionOf;
+    }
+
+    /**
+     * Get the index name, used in logs and consistency reports
+     * @return Index name
+     */
+    public abstract String getName();
+
+    /**
+     * Create an empty index structure
+     * @return New structure
+     */
+    protected abstract S createState();
+
+    /**
+     * Add or replace an entity in a structure
+     * @param state Structure to modify
+     * @param entity Committed entity snapshot (may be kept by the structure)
+     */
+    protected abstract void upsert(S state, T entity);
+
+    /**
+     * Get the version of the snapshot a structure holds for an entity
+     * @param state Structure to look in
+     * @param id Entity ID
+     * @return Held version, or null if the entity is absent or the structure keeps no versions
+     */
+    protected abstract Long heldVersion(S state, Long id);
+
+    /**
+     * Remove an entity from a structure; must be a no-op if it is not present
+     * @param state Structure to modify
+     * @param id ID of the removed entity
+     */
+    protected abstract void remove(S state, Long id);
+
+    /**
+     * Describe how a structure differs from the expected one
+     * @param expected Structure freshly built from the database
+     * @param actual Live structure
+     * @return One line per difference; empty if they are consistent
+     */
+    protected abstract List<String> compare(S expected, S actual);
+
+    /**
+     * Check whether the index has been built and can answer queries
+     * @return true once the first build has completed
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Check whether a snapshot is newer than what the index holds for its entity
+     * Lets listeners that run before the index is updated ignore the same stale events it will
+     * @param entity Committed entity snapshot
+     * @return true if the index would apply it, or if the index is not ready yet
+     */
+    public boolean isNewer(T entity) {
+        if (!ready) {
+            return true;
+        }
+        lock.readLock().lock();
+        try {
+            return isNewer(state, deleted, entity);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Apply a committed change event
+     * @param event Changed and deleted entities
+     */
+    public void apply(EntityChangedEvent<T> event) {
+        lock.writeLock().lock();
+        try {
+            if (replay != null) {
+                replay.add(event);
+            }
+            if (state != null) {
+                applyTo(state, deleted, event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Start building a replacement structure; changes are buffered until it completes
+     * Callers must not run two rebuilds of the same index at once
+     * @return Rebuild to feed with every row of the table
+     */
+    public IndexRebuild<T> startRebuild() {
+        lock.writeLock().lock();
+        try {
+            replay = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return new Rebuild(createState());
+    }
+
+    /**
+     * Run a query against the live structure under the read lock
+     * @param query Query to run
+     * @param <R> Result type
+     * @return Query result, or null if the index is not ready yet
+     */
+    protected <R> R read(Function<S, R> query) {
+        if (!ready) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return query.apply(state);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void applyTo(S target, Set<Long> targetDeleted, EntityChangedEvent<T> event) {
+        for (T entity : event.getChanged()) {
+            if (isNewer(target, targetDeleted, entity)) {
+                upsert(target, entity);
+            }
+        }
+        for (Long id : event.getDeletedIds()) {
+            targetDeleted.add(id);
+            remove(target, id);
+        }
+    }
+
+    private boolean isNewer(S target, Set<Long> targetDeleted, T entity) {
+        Long id = idOf.apply(entity);
+        if (targetDeleted.contains(id)) {
+            return false;
+        }
+        Long held = heldVersion(target, id);
+        Long version = versionOf.apply(entity);
+        // Rows without a version (not yet backfilled) cannot be ordered; the latest event wins
+        return held == null || version == null || version > held;
+    }
+
+    /**
+     * A replacement structure under construction
+     */
+    private class Rebuild implements IndexRebuild<T> {
+
+        private final S building;
+        private final Set<Long> buildingDeleted = new HashSet<>();
+
+        private Rebuild(S building) {
+            this.building = building;
+        }
+
+        @Override
+        public void add(T entity) {
+            upsert(building, entity);
+        }
+
+        @Override
+        public void complete() {
+            lock.writeLock().lock();
+            try {
+                replayOnto(building);
+                state = building;
+                deleted = buildingDeleted;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public List<String> verify() {
+            lock.writeLock().lock();
+            try {
+                replayOnto(building);
+                if (state == null) {
+                    return List.of(getName() + " index has not been built");
+                }
+                return compare(building, state);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public void abandon() {
+            lock.writeLock().lock();
+            try {
+                replay = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // Caller holds the write lock
+        private void replayOnto(S target) {
+            if (replay != null) {
+                for (EntityChangedEvent<T> event : replay) {
+                    // Rows the scan read after the event committed are already newer and are kept
+                    applyTo(target, buildingDeleted, event);
+                }
+            }
+            replay = null;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.otago.practical4backend.index;
+
+import com.otago.practical4backend.model.Attendant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Attendant Contact Filter
+ * Bloom filter over normalized attendant emails and mobile numbers.
+ * Lets the duplicate pre-check on creates and updates skip the database when a contact is
+ * definitely new; the unique constraints on the attendants table remain the real guarantee.
+ * Lookups never use it: it lags committed writes, so its "definitely new" can be stale.
+ * Removed or changed contacts leave stale bits, which only cost an extra query
+ * until the next rebuild.
+ */
+@Component
+public class AttendantContactFilter extends AbstractEntityIndex<Attendant, BloomFilter> {
+
+    private static final String EMAIL_PREFIX = "e:";
+    private static final String MOBILE_PREFIX = "m:";
+
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+
+    /**
+     * Constructor injection for the filter sizing
+     * @param expectedEntries Number of contacts (emails plus mobiles) to size the filter for
+     * @param falsePositiveRate Target false positive rate at that size
+     */
+    @Autowired
+    public AttendantContactFilter(@Value("${app.attendants.contact-filter.expected-entries:200000}") long expectedEntries,
+                                  @Value("${app.attendants.contact-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        super(Attendant::getId, Attendant::getVersion);
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @Override
+    public String getName() {
+        return "attendant-contact";
+    }
+
+    /**
+     * Check whether an email may already belong to an attendant
+     * @param email Email address (normalized before the check)
+     * @return false if no attendant has it, true if one might (also true while the filter is not ready)
+     */
+    public boolean mightContainEmail(String email) {
+        String normalized = Attendant.normalizeEmail(email);
+        return normalized != null && mightContain(EMAIL_PREFIX + normalized);
+    }
+
+    /**
+     * Check whether a mobile number may already belong to an attendant
+     * @param mobile Mobile number (normalized before the check)
+     * @return false if no attendant has it, true if one might (also true while the filter is not ready)
+     */
+    public boolean mightContainMobile(String mobile) {
+        String normalized = Attendant.normalizeMobile(mobile);
+        return normalized != null && mightContain(MOBILE_PREFIX + normalized);
+    }
+
+    private boolean mightContain(String key) {
+        Boolean result = read(filter -> filter.mightContain(key));
+        return result == null || result;
+    }
+
+    @Override
+    protected BloomFilter createState() {
+        return new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    @Override
+    protected void upsert(BloomFilter filter, Attendant attendant) {
+        String email = Attendant.normalizeEmail(attendant.getEmail());
+        if (email != null) {
+            filter.add(EMAIL_PREFIX + email);
+        }
+        String mobile = Attendant.normalizeMobile(attendant.getMobile());
+        if (mobile != null) {
+            filter.add(MOBILE_PREFIX + mobile);
+        }
+    }
+
+    @Override
+    protected Long heldVersion(BloomFilter filter, Long id) {
+        // Nothing is kept per attendant; a late, older snapshot only adds bits that may be stale anyway
+        return null;
+    }
+
+    @Override
+    protected void remove(BloomFilter filter, Long id) {
+        // Bloom filters cannot forget values; the stale bits are dropped on the next rebuild
+    }
+
+    @Override
+    protected List<String> compare(BloomFilter expected, BloomFilter actual) {
+        return actual.differencesFrom(expected, "attendant contact");
+    }
+}
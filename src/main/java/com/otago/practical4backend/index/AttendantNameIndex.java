@@ -0,0 +1,60 @@
+package com.otago.practical4backend.index;
+
+import com.otago.practical4backend.model.Attendant;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Attendant Name Index
+ * Trigram index over Attendant.name backing case-insensitive name search
+ */
+@Component
+public class AttendantNameIndex extends AbstractEntityIndex<Attendant, TrigramIndex> {
+
+    /**
+     * Create the index; snapshots of the same attendant are ordered by their version
+     */
+    public AttendantNameIndex() {
+        super(Attendant::getId, Attendant::getVersion);
+    }
+
+    @Override
+    public String getName() {
+        return "attendant-name";
+    }
+
+    /**
+     * Find attendants whose name contains a keyword, ignoring case
+     * @param keyword Substring to search for
+     * @return Matching attendant IDs in ascending order, or null if the index is not ready yet
+     */
+    public long[] search(String keyword) {
+        return read(index -> index.search(keyword));
+    }
+
+    @Override
+    protected TrigramIndex createState() {
+        return new TrigramIndex();
+    }
+
+    @Override
+    protected void upsert(TrigramIndex index, Attendant attendant) {
+        index.put(attendant.getId(), attendant.getName(), attendant.getVersion());
+    }
+
+    @Override
+    protected Long heldVersion(TrigramIndex index, Long id) {
+        return index.versionOf(id);
+    }
+
+    @Override
+    protected void remove(TrigramIndex index, Long id) {
+        index.remove(id);
+    }
+
+    @Override
+    protected List<String> compare(TrigramIndex expected, TrigramIndex actual) {
+        return actual.differencesFrom(expected, "attendant");
+    }
+}
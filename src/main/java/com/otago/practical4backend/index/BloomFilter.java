@@ -0,0 +1,120 @@
+package com.otago.practical4backend.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bloom Filter
+ * Fixed-size set membership test over strings with no false negatives.
+ * mightContain returning false means the value was definitely never added;
+ * true means it probably was. Values cannot be removed, so deletions leave stale
+ * bits behind until the filter is rebuilt.
+ *
+ * Not thread-safe; callers provide their own locking.
+ */
+public class BloomFilter {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Create a filter sized for an expected number of values
+     * @param expectedEntries Number of values the filter should hold at the target error rate
+     * @param falsePositiveRate Target probability that mightContain is true for an absent value
+     */
+    public BloomFilter(long expectedEntries, double falsePositiveRate) {
+        long n = Math.max(1, expectedEntries);
+        // Optimal sizing: m = -n ln p / (ln 2)^2 bits and k = (m / n) ln 2 hash functions
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new long[(int) Math.max(1, (m + 63) >>> 6)];
+        this.bitCount = (long) bits.length << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+    }
+
+    /**
+     * Add a value
+     * @param value Value to add (null is ignored)
+     */
+    public void add(String value) {
+        if (value == null) {
+            return;
+        }
+        long hash = hash(value);
+        long h1 = hash & 0xffffffffL;
+        long h2 = hash >>> 32;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Test whether a value may have been added
+     * @param value Value to test
+     * @return false if the value was definitely never added, true if it probably was
+     */
+    public boolean mightContain(String value) {
+        if (value == null) {
+            return false;
+        }
+        long hash = hash(value);
+        long h1 = hash & 0xffffffffL;
+        long h2 = hash >>> 32;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Describe bits set in an expected filter but missing here
+     * Missing bits would cause false negatives; extra bits only come from removed values
+     * @param expected Filter freshly built from the database (must have the same size)
+     * @param entityName Entity name used in the messages
+     * @return One line per problem; empty if every expected bit is set
+     */
+    public List<String> differencesFrom(BloomFilter expected, String entityName) {
+        List<String> differences = new ArrayList<>();
+        if (expected.bits.length != bits.length || expected.hashCount != hashCount) {
+            differences.add(entityName + " filter size differs from the expected configuration");
+            return differences;
+        }
+        long missing = 0;
+        for (int i = 0; i < bits.length; i++) {
+            missing += Long.bitCount(expected.bits[i] & ~bits[i]);
+        }
+        if (missing > 0) {
+            differences.add(entityName + " filter is missing " + missing + " bits set by current rows");
+        }
+        return differences;
+    }
+
+    /**
+     * Get the number of bits in the filter
+     * @return Size in bits
+     */
+    public long bitSize() {
+        return bitCount;
+    }
+
+    private long index(long combinedHash) {
+        // Kirsch-Mitzenmacher double hashing: k indexes from two halves of one 64-bit hash
+        return combinedHash % bitCount;
+    }
+
+    private static long hash(String value) {
+        // FNV-1a over UTF-16 code units, then a SplitMix64 finaliser to spread the bits
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
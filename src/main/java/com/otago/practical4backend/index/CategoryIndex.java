@@ -0,0 +1,151 @@
+package com.otago.practical4backend.index;
+
+import com.otago.practical4backend.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Category Index
+ * In-memory secondary index from category to product IDs, plus a snapshot of every product row,
+ * so products in a category can be listed without touching the database.
+ *
+ * Categories are matched case-insensitively, like the default MySQL collation does for
+ * findByCategory. Returned products are shared snapshots and must not be modified.
+ */
+@Component
+public class CategoryIndex extends AbstractEntityIndex<Product, CategoryIndex.State> {
+
+    /**
+     * Index structure: category key to product IDs (in ID order) and ID to row snapshot
+     */
+    static class State {
+        private final Map<String, TreeSet<Long>> idsByCategory = new HashMap<>();
+        private final Map<Long, Product> rows = new HashMap<>();
+    }
+
+    /**
+     * Create the index; snapshots of the same product are ordered by their version
+     */
+    public CategoryIndex() {
+        super(Product::getId, Product::getVersion);
+    }
+
+    @Override
+    public String getName() {
+        return "category";
+    }
+
+    /**
+     * Find the products in a category
+     * @param category Category name (case-insensitive)
+     * @return Products in ID order, or null if the index is not ready yet
+     */
+    public List<Product> findByCategory(String category) {
+        String key = key(category);
+        return read(state -> {
+            TreeSet<Long> ids = state.idsByCategory.get(key);
+            if (ids == null) {
+                return List.of();
+            }
+            List<Product> products = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                products.add(state.rows.get(id));
+            }
+            return products;
+        });
+    }
+
+    @Override
+    protected State createState() {
+        return new State();
+    }
+
+    @Override
+    protected void upsert(State state, Product product) {
+        Product previous = state.rows.put(product.getId(), product);
+        String newKey = key(product.getCategory());
+        if (previous != null) {
+            String oldKey = key(previous.getCategory());
+            if (oldKey.equals(newKey)) {
+                return;
+            }
+            // Moved between categories
+            removeFromCategory(state, oldKey, product.getId());
+        }
+        state.idsByCategory.computeIfAbsent(newKey, k -> new TreeSet<>()).add(product.getId());
+    }
+
+    @Override
+    protected Long heldVersion(State state, Long id) {
+        Product held = state.rows.get(id);
+        return held == null ? null : held.getVersion();
+    }
+
+    @Override
+    protected void remove(State state, Long id) {
+        Product previous = state.rows.remove(id);
+        if (previous != null) {
+            removeFromCategory(state, key(previous.getCategory()), id);
+        }
+    }
+
+    @Override
+    protected List<String> compare(State expected, State actual) {
+        List<String> differences = new ArrayList<>();
+        for (Map.Entry<Long, Product> entry : expected.rows.entrySet()) {
+            Product indexed = actual.rows.get(entry.getKey());
+            if (indexed == null) {
+                differences.add("product " + entry.getKey() + " missing from index");
+            } else if (!sameRow(entry.getValue(), indexed)) {
+                differences.add("product " + entry.getKey() + " is stale in index");
+            }
+        }
+        for (Long id : actual.rows.keySet()) {
+            if (!expected.rows.containsKey(id)) {
+                differences.add("product " + id + " is in index but not in database");
+            }
+        }
+        for (Map.Entry<String, TreeSet<Long>> entry : actual.idsByCategory.entrySet()) {
+            if (!entry.getValue().equals(expected.idsByCategory.get(entry.getKey()))) {
+                differences.add("category '" + entry.getKey() + "' has the wrong members");
+            }
+        }
+        for (String key : expected.idsByCategory.keySet()) {
+            if (!actual.idsByCategory.containsKey(key)) {
+                differences.add("category '" + key + "' missing from index");
+            }
+        }
+        return differences;
+    }
+
+    private void removeFromCategory(State state, String key, Long id) {
+        TreeSet<Long> ids = state.idsByCategory.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                state.idsByCategory.remove(key);
+            }
+        }
+    }
+
+    private static String key(String category) {
+        return category == null ? "" : category.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean sameRow(Product a, Product b) {
+        return Objects.equals(a.getVersion(), b.getVersion())
+                && Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getCategory(), b.getCategory())
+                && Objects.equals(a.getStock(), b.getStock())
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && (a.getPrice() == null ? b.getPrice() == null
+                    : b.getPrice() != null && a.getPrice().compareTo(b.getPrice()) == 0);
+    }
+}
@@ -0,0 +1,214 @@
+package com.otago.practical4backend.index;
+
+import com.otago.practical4backend.dto.CategoryStats;
+import com.otago.practical4backend.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Category Stats Index
+ * Per-category inventory aggregates (product count, units, stock value, price range, low-stock count)
+ * kept up to date from committed product changes, so the dashboard never runs a GROUP BY.
+ *
+ * Each product's last known contribution is remembered, so an update subtracts the old values and
+ * adds the new ones. Money is summed in whole cents as longs, which is exact; min and max price
+ * come from a per-category count of each price, so removing the cheapest product is still exact.
+ * Categories are grouped case-insensitively, like CategoryIndex
+ */
+@Component
+public class CategoryStatsIndex extends AbstractEntityIndex<Product, CategoryStatsIndex.State> {
+
+    /**
+     * Index name, used by IndexMaintainer to reconcile it
+     */
+    public static final String NAME = "category-stats";
+
+    private final int lowStockThreshold;
+
+    /**
+     * Constructor with the low-stock threshold from application.properties
+     * @param lowStockThreshold Products with stock below this level count as low stock
+     */
+    @Autowired
+    public CategoryStatsIndex(@Value("${app.products.stats.low-stock-threshold:10}") int lowStockThreshold) {
+        super(Product::getId, Product::getVersion);
+        this.lowStockThreshold = lowStockThreshold;
+    }
+
+    /**
+     * Index structure: each product's contribution and the running totals per category key
+     */
+    static class State {
+        private final Map<Long, Contribution> contributions = new HashMap<>();
+        private final Map<String, Totals> totalsByCategory = new HashMap<>();
+    }
+
+    /**
+     * What one product adds to its category's totals
+     */
+    private record Contribution(String key, String category, long priceCents, int stock, Long version) {
+    }
+
+    /**
+     * Running totals of one category
+     */
+    private static final class Totals {
+        private String category;
+        private long productCount;
+        private long totalUnits;
+        private long totalValueCents;
+        private long lowStockCount;
+        private final TreeMap<Long, Integer> priceCounts = new TreeMap<>();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Get the low-stock threshold the aggregates are counted against
+     * @return Stock level below which a product is low on stock
+     */
+    public int getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+
+    /**
+     * Get the aggregates of every category
+     * @return Stats ordered by category name, or null if the index is not ready yet
+     */
+    public List<CategoryStats> stats() {
+        return read(state -> {
+            List<CategoryStats> stats = new ArrayList<>(state.totalsByCategory.size());
+            for (Totals totals : state.totalsByCategory.values()) {
+                stats.add(new CategoryStats(totals.category, totals.productCount, totals.totalUnits,
+                        cents(totals.totalValueCents), cents(totals.priceCounts.firstKey()),
+                        cents(totals.priceCounts.lastKey()), totals.lowStockCount));
+            }
+            stats.sort(Comparator.comparing(CategoryStats::getCategory,
+                    Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)));
+            return stats;
+        });
+    }
+
+    @Override
+    protected State createState() {
+        return new State();
+    }
+
+    @Override
+    protected void upsert(State state, Product product) {
+        Contribution contribution = new Contribution(key(product.getCategory()), product.getCategory(),
+                toCents(product.getPrice()), product.getStock() == null ? 0 : product.getStock(), product.getVersion());
+        Contribution previous = state.contributions.put(product.getId(), contribution);
+        if (previous != null) {
+            subtract(state, previous);
+        }
+        add(state, contribution);
+    }
+
+    @Override
+    protected Long heldVersion(State state, Long id) {
+        Contribution held = state.contributions.get(id);
+        return held == null ? null : held.version();
+    }
+
+    @Override
+    protected void remove(State state, Long id) {
+        Contribution previous = state.contributions.remove(id);
+        if (previous != null) {
+            subtract(state, previous);
+        }
+    }
+
+    @Override
+    protected List<String> compare(State expected, State actual) {
+        List<String> differences = new ArrayList<>();
+        Set<String> keys = new HashSet<>(expected.totalsByCategory.keySet());
+        keys.addAll(actual.totalsByCategory.keySet());
+        for (String key : keys) {
+            Totals wanted = expected.totalsByCategory.get(key);
+            Totals held = actual.totalsByCategory.get(key);
+            if (held == null) {
+                differences.add("category '" + key + "' missing from index");
+            } else if (wanted == null) {
+                differences.add("category '" + key + "' is in index but not in database");
+            } else if (!sameTotals(wanted, held)) {
+                differences.add("category '" + key + "' has stale totals");
+            }
+        }
+        return differences;
+    }
+
+    private void add(State state, Contribution contribution) {
+        Totals totals = state.totalsByCategory.computeIfAbsent(contribution.key(), k -> new Totals());
+        if (totals.productCount == 0) {
+            totals.category = contribution.category();
+        }
+        totals.productCount++;
+        totals.totalUnits += contribution.stock();
+        totals.totalValueCents = Math.addExact(totals.totalValueCents,
+                Math.multiplyExact(contribution.priceCents(), (long) contribution.stock()));
+        totals.priceCounts.merge(contribution.priceCents(), 1, Integer::sum);
+        if (contribution.stock() < lowStockThreshold) {
+            totals.lowStockCount++;
+        }
+    }
+
+    private void subtract(State state, Contribution contribution) {
+        Totals totals = state.totalsByCategory.get(contribution.key());
+        if (totals == null) {
+            return;
+        }
+        if (--totals.productCount == 0) {
+            state.totalsByCategory.remove(contribution.key());
+            return;
+        }
+        totals.totalUnits -= contribution.stock();
+        totals.totalValueCents = Math.subtractExact(totals.totalValueCents,
+                Math.multiplyExact(contribution.priceCents(), (long) contribution.stock()));
+        totals.priceCounts.computeIfPresent(contribution.priceCents(), (price, count) -> count == 1 ? null : count - 1);
+        if (contribution.stock() < lowStockThreshold) {
+            totals.lowStockCount--;
+        }
+    }
+
+    private static boolean sameTotals(Totals a, Totals b) {
+        return a.productCount == b.productCount
+                && a.totalUnits == b.totalUnits
+                && a.totalValueCents == b.totalValueCents
+                && a.lowStockCount == b.lowStockCount
+                && Objects.equals(a.priceCounts.firstKey(), b.priceCounts.firstKey())
+                && Objects.equals(a.priceCounts.lastKey(), b.priceCounts.lastKey());
+    }
+
+    /**
+     * Prices are stored with two decimals, rounded half up like the database column
+     */
+    private static long toCents(BigDecimal price) {
+        return price == null ? 0 : price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal cents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static String key(String category) {
+        return category == null ? "" : category.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,208 @@
+package com.otago.practical4backend.index;
+
+import com.otago.practical4backend.dto.IndexConsistencyReport;
+import com.otago.practical4backend.event.AttendantChangedEvent;
+import com.otago.practical4backend.event.EntityChangedEvent;
+import com.otago.practical4backend.event.ProductChangedEvent;
+import com.otago.practical4backend.model.Attendant;
+import com.otago.practical4backend.model.Product;
+import com.otago.practical4backend.routing.PrimaryReads;
+import com.otago.practical4backend.service.AttendantService;
+import com.otago.practical4backend.service.ProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Index Maintainer
+ * Builds the in-memory indexes at startup with a single table scan per entity,
+ * forwards committed change events to them, and checks or rebuilds them on demand.
+ * The category aggregates are also reconciled with the database on a schedule.
+ * Scans read from the primary, so a lagging replica never rebuilds an index from stale rows
+ */
+@Component
+public class IndexMaintainer {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexMaintainer.class);
+
+    private final ProductService productService;
+    private final AttendantService attendantService;
+    private final List<AbstractEntityIndex<Product, ?>> productIndexes;
+    private final List<AbstractEntityIndex<Attendant, ?>> attendantIndexes;
+
+    /**
+     * Constructor injection
+     * @param productService Product service, used for streaming table scans
+     * @param attendantService Attendant service, used for streaming table scans
+     * @param productIndexes Every product index in the application context
+     * @param attendantIndexes Every attendant index in the application context
+     */
+    @Autowired
+    public IndexMaintainer(ProductService productService,
+                           AttendantService attendantService,
+                           List<AbstractEntityIndex<Product, ?>> productIndexes,
+                           List<AbstractEntityIndex<Attendant, ?>> attendantIndexes) {
+        this.productService = productService;
+        this.attendantService = attendantService;
+        this.productIndexes = productIndexes;
+        this.attendantIndexes = attendantIndexes;
+    }
+
+    /**
+     * Build every index once the application has started (after DataLoader has run)
+     * A failed build is logged; the affected queries keep falling back to the database
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildAll() {
+        buildAtStartup("product", productIndexes, this::scanProducts, Product::new);
+        buildAtStartup("attendant", attendantIndexes, this::scanAttendants, Attendant::new);
+    }
+
+    /**
+     * Apply committed product changes to every product index
+     * @param event Committed product changes
+     */
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        applyAll(productIndexes, event);
+    }
+
+    /**
+     * Apply committed attendant changes to every attendant index
+     * @param event Committed attendant changes
+     */
+    @EventListener
+    public void onAttendantChanged(AttendantChangedEvent event) {
+        applyAll(attendantIndexes, event);
+    }
+
+    /**
+     * Compare an index with the database and optionally rebuild it
+     * @param name Index name
+     * @param repair Whether to rebuild the index after checking it
+     * @return Consistency report, or null if there is no index with that name
+     */
+    public synchronized IndexConsistencyReport verify(String name, boolean repair) {
+        IndexConsistencyReport report = verify(name, repair, productIndexes,
+                this::scanProducts, Product::new);
+        if (report == null) {
+            report = verify(name, repair, attendantIndexes,
+                    this::scanAttendants, Attendant::new);
+        }
+        return report;
+    }
+
+    /**
+     * Periodically compare the category aggregates with the database, rebuilding them if they drifted
+     * (e.g. after rows were changed outside the application)
+     */
+    @Scheduled(fixedDelayString = "${app.products.stats.reconcile-interval-ms:600000}",
+            initialDelayString = "${app.products.stats.reconcile-interval-ms:600000}")
+    public synchronized void reconcileCategoryStats() {
+        IndexConsistencyReport report = verify(CategoryStatsIndex.NAME, false);
+        if (report != null && !report.isConsistent()) {
+            log.warn("Category stats drifted from the database ({} differences, e.g. {}); rebuilding",
+                    report.getDifferenceCount(), report.getDifferences().get(0));
+            for (AbstractEntityIndex<Product, ?> index : productIndexes) {
+                if (index.getName().equals(CategoryStatsIndex.NAME)) {
+                    rebuild(List.of(index), this::scanProducts, Product::new);
+                }
+            }
+        }
+    }
+
+    private long scanProducts(Consumer<Product> sink) {
+        return PrimaryReads.call(() -> productService.exportProducts(sink));
+    }
+
+    private long scanAttendants(Consumer<Attendant> sink) {
+        return PrimaryReads.call(() -> attendantService.exportAttendants(sink));
+    }
+
+    private <T> void buildAtStartup(String entityName,
+                                    List<AbstractEntityIndex<T, ?>> indexes,
+                                    ToLongFunction<Consumer<T>> scan,
+                                    UnaryOperator<T> snapshot) {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        try {
+            long started = System.nanoTime();
+            long rows = rebuild(indexes, scan, snapshot);
+            log.info("Built {} {} indexes from {} rows in {} ms",
+                    indexes.size(), entityName, rows, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Failed to build {} indexes; queries will use the database", entityName, e);
+        }
+    }
+
+    private <T> void applyAll(List<AbstractEntityIndex<T, ?>> indexes, EntityChangedEvent<T> event) {
+        for (AbstractEntityIndex<T, ?> index : indexes) {
+            index.apply(event);
+        }
+    }
+
+    private <T> IndexConsistencyReport verify(String name, boolean repair,
+                                              List<AbstractEntityIndex<T, ?>> indexes,
+                                              ToLongFunction<Consumer<T>> scan,
+                                              UnaryOperator<T> snapshot) {
+        for (AbstractEntityIndex<T, ?> index : indexes) {
+            if (index.getName().equals(name)) {
+                IndexRebuild<T> expected = index.startRebuild();
+                List<String> differences;
+                try {
+                    scan.applyAsLong(expected::add);
+                    differences = expected.verify();
+                } catch (RuntimeException e) {
+                    expected.abandon();
+                    throw e;
+                }
+                if (repair) {
+                    rebuild(List.of(index), scan, snapshot);
+                }
+                return new IndexConsistencyReport(name, differences, repair);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Rebuild indexes from one streaming scan of their table
+     * @param indexes Indexes to rebuild
+     * @param scan Streaming export of the table
+     * @param snapshot Copies a row so the indexes can keep it after it is detached
+     * @return Number of rows scanned
+     */
+    private synchronized <T> long rebuild(List<AbstractEntityIndex<T, ?>> indexes,
+                                          ToLongFunction<Consumer<T>> scan,
+                                          UnaryOperator<T> snapshot) {
+        List<IndexRebuild<T>> rebuilds = new ArrayList<>();
+        for (AbstractEntityIndex<T, ?> index : indexes) {
+            rebuilds.add(index.startRebuild());
+        }
+        long rows;
+        try {
+            rows = scan.applyAsLong(row -> {
+                T copy = snapshot.apply(row);
+                for (IndexRebuild<T> rebuild : rebuilds) {
+                    rebuild.add(copy);
+                }
+            });
+        } catch (RuntimeException e) {
+            rebuilds.forEach(IndexRebuild::abandon);
+            throw e;
+        }
+        rebuilds.forEach(IndexRebuild::complete);
+        return rows;
+    }
+}
@@ -0,0 +1,35 @@
+package com.otago.practical4backend.index;
+
+import java.util.List;
+
+/**
+ * Index Rebuild
+ * A replacement index structure being filled from a full table scan
+ *
+ * @param <T> Entity type
+ */
+public interface IndexRebuild<T> {
+
+    /**
+     * Add one row from the table scan
+     * @param entity Detached entity snapshot (the index may keep it)
+     */
+    void add(T entity);
+
+    /**
+     * Replay changes committed during the scan and swap the new structure in
+     */
+    void complete();
+
+    /**
+     * Replay changes committed during the scan and compare the result with the live structure
+     * The live structure is left untouched
+     * @return One line per difference; empty if the index is consistent with the database
+     */
+    List<String> verify();
+
+    /**
+     * Discard the structure after a failed scan
+     */
+    void abandon();
+}
@@ -0,0 +1,60 @@
+package com.otago.practical4backend.index;
+
+import com.otago.practical4backend.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Product Name Index
+ * Trigram index over Product.name backing case-insensitive name search
+ */
+@Component
+public class ProductNameIndex extends AbstractEntityIndex<Product, TrigramIndex> {
+
+    /**
+     * Create the index; snapshots of the same product are ordered by their version
+     */
+    public ProductNameIndex() {
+        super(Product::getId, Product::getVersion);
+    }
+
+    @Override
+    public String getName() {
+        return "product-name";
+    }
+
+    /**
+     * Find products whose name contains a keyword, ignoring case
+     * @param keyword Substring to search for
+     * @return Matching product IDs in ascending order, or null if the index is not ready yet
+     */
+    public long[] search(String keyword) {
+        return read(index -> index.search(keyword));
+    }
+
+    @Override
+    protected TrigramIndex createState() {
+        return new TrigramIndex();
+    }
+
+    @Override
+    protected void upsert(TrigramIndex index, Product product) {
+        index.put(product.getId(), product.getName(), product.getVersion());
+    }
+
+    @Override
+    protected Long heldVersion(TrigramIndex index, Long id) {
+        return index.versionOf(id);
+    }
+
+    @Override
+    protected void remove(TrigramIndex index, Long id) {
+        index.remove(id);
+    }
+
+    @Override
+    protected List<String> compare(TrigramIndex expected, TrigramIndex actual) {
+        return actual.differencesFrom(expected, "product");
+    }
+}
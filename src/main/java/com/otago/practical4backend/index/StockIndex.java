@@ -0,0 +1,165 @@
+package com.otago.practical4backend.index;
+
+import com.otago.practical4backend.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Stock Index
+ * Products ordered by stock level, held in two parallel primitive arrays sorted by (stock, id).
+ * "All products with stock below N" is a binary search followed by a copy of the first k IDs,
+ * so low-stock queries cost O(log n + k) and never touch the database.
+ */
+@Component
+public class StockIndex extends AbstractEntityIndex<Product, StockIndex.State> {
+
+    /**
+     * Index structure: parallel sorted arrays plus the current stock and version of each product
+     */
+    static class State {
+        private int[] stocks = new int[16];
+        private long[] ids = new long[16];
+        private int size;
+        private final Map<Long, Level> levelById = new HashMap<>();
+
+        /**
+         * Position of the first entry not less than (stock, id)
+         */
+        private int lowerBound(int stock, long id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (stocks[mid] < stock || (stocks[mid] == stock && ids[mid] < id)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void insert(int stock, long id) {
+            int position = lowerBound(stock, id);
+            if (size == ids.length) {
+                int capacity = size + (size >> 1) + 1;
+                stocks = Arrays.copyOf(stocks, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+            }
+            System.arraycopy(stocks, position, stocks, position + 1, size - position);
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            stocks[position] = stock;
+            ids[position] = id;
+            size++;
+        }
+
+        private void delete(int stock, long id) {
+            int position = lowerBound(stock, id);
+            if (position < size && stocks[position] == stock && ids[position] == id) {
+                System.arraycopy(stocks, position + 1, stocks, position, size - position - 1);
+                System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+                size--;
+            }
+        }
+    }
+
+    /**
+     * Stock level of one product, and the version it was read from
+     */
+    private record Level(int stock, Long version) {
+    }
+
+    /**
+     * Create the index; snapshots of the same product are ordered by their version
+     */
+    public StockIndex() {
+        super(Product::getId, Product::getVersion);
+    }
+
+    @Override
+    public String getName() {
+        return "stock";
+    }
+
+    /**
+     * Find products with stock strictly below a threshold
+     * @param threshold Stock level threshold
+     * @return Product IDs ordered by stock then ID, or null if the index is not ready yet
+     */
+    public long[] idsBelow(int threshold) {
+        return read(state -> Arrays.copyOf(state.ids, state.lowerBound(threshold, Long.MIN_VALUE)));
+    }
+
+    /**
+     * Get the indexed stock level of a product
+     * @param id Product ID
+     * @return Stock level, or null if the product is unknown or the index is not ready yet
+     */
+    public Integer stockOf(Long id) {
+        return read(state -> {
+            Level level = state.levelById.get(id);
+            return level == null ? null : level.stock();
+        });
+    }
+
+    @Override
+    protected State createState() {
+        return new State();
+    }
+
+    @Override
+    protected void upsert(State state, Product product) {
+        int stock = product.getStock() == null ? 0 : product.getStock();
+        Level previous = state.levelById.put(product.getId(), new Level(stock, product.getVersion()));
+        if (previous != null) {
+            if (previous.stock() == stock) {
+                return;
+            }
+            state.delete(previous.stock(), product.getId());
+        }
+        state.insert(stock, product.getId());
+    }
+
+    @Override
+    protected Long heldVersion(State state, Long id) {
+        Level held = state.levelById.get(id);
+        return held == null ? null : held.version();
+    }
+
+    @Override
+    protected void remove(State state, Long id) {
+        Level previous = state.levelById.remove(id);
+        if (previous != null) {
+            state.delete(previous.stock(), id);
+        }
+    }
+
+    @Override
+    protected List<String> compare(State expected, State actual) {
+        List<String> differences = new ArrayList<>();
+        for (Map.Entry<Long, Level> entry : expected.levelById.entrySet()) {
+            Level indexed = actual.levelById.get(entry.getKey());
+            Integer indexedStock = indexed == null ? null : indexed.stock();
+            if (!Objects.equals(indexedStock, entry.getValue().stock())) {
+                differences.add("product " + entry.getKey() + " has stock " + indexedStock
+                        + " in index but " + entry.getValue().stock() + " in database");
+            }
+        }
+        for (Long id : actual.levelById.keySet()) {
+            if (!expected.levelById.containsKey(id)) {
+                differences.add("product " + id + " is in index but not in database");
+            }
+        }
+        if (actual.size != actual.levelById.size()) {
+            differences.add("sorted arrays hold " + actual.size + " entries for "
+                    + actual.levelById.size() + " products");
+        }
+        return differences;
+    }
+}
@@ -0,0 +1,252 @@
+package com.otago.practical4backend.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Trigram Index
+ * Inverted index from every three-character substring of a name to the IDs containing it,
+ * used to answer case-insensitive substring searches without a LIKE '%keyword%' table scan.
+ *
+ * Posting lists are sorted primitive long arrays. A search intersects the posting lists of the
+ * keyword's trigrams, smallest first, and then confirms each candidate with a real substring
+ * check, so results are exactly those of a case-insensitive "contains". Keywords shorter than
+ * three characters are answered by scanning the names held in memory.
+ *
+ * Not thread-safe; callers synchronise access (see {@link AbstractEntityIndex}).
+ */
+public class TrigramIndex {
+
+    private final Map<Long, String> names = new HashMap<>();
+    private final Map<Long, Long> versions = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    /**
+     * Add or replace the name for an ID
+     * @param id Entity ID
+     * @param name Entity name
+     * @param version Version of the entity the name was read from, or null if unknown
+     */
+    public void put(long id, String name, Long version) {
+        if (version != null) {
+            versions.put(id, version);
+        } else {
+            versions.remove(id);
+        }
+        String normalized = normalize(name);
+        String previous = names.put(id, normalized);
+        if (previous != null) {
+            if (previous.equals(normalized)) {
+                return;
+            }
+            for (long trigram : trigrams(previous)) {
+                removePosting(trigram, id);
+            }
+        }
+        for (long trigram : trigrams(normalized)) {
+            postings.computeIfAbsent(trigram, k -> new Postings()).add(id);
+        }
+    }
+
+    /**
+     * Remove an ID from the index; no-op if it is not present
+     * @param id Entity ID
+     */
+    public void remove(long id) {
+        versions.remove(id);
+        String previous = names.remove(id);
+        if (previous != null) {
+            for (long trigram : trigrams(previous)) {
+                removePosting(trigram, id);
+            }
+        }
+    }
+
+    /**
+     * Get the version of the entity an ID's name was read from
+     * @param id Entity ID
+     * @return Version, or null if the ID is not indexed or its version is unknown
+     */
+    public Long versionOf(long id) {
+        return versions.get(id);
+    }
+
+    /**
+     * Find every ID whose name contains the keyword, ignoring case
+     * @param keyword Substring to look for
+     * @return Matching IDs in ascending order
+     */
+    public long[] search(String keyword) {
+        String needle = normalize(keyword);
+
+        if (needle.length() < 3) {
+            // Too short for a trigram lookup: check every name
+            long[] matches = new long[names.size()];
+            int count = 0;
+            for (Map.Entry<Long, String> entry : names.entrySet()) {
+                if (entry.getValue().contains(needle)) {
+                    matches[count++] = entry.getKey();
+                }
+            }
+            long[] result = Arrays.copyOf(matches, count);
+            Arrays.sort(result);
+            return result;
+        }
+
+        long[] keys = trigrams(needle);
+        List<Postings> lists = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            Postings list = postings.get(key);
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+        // Intersect, starting from the rarest trigram
+        long[] candidates = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+        int count = candidates.length;
+        for (int i = 1; i < lists.size() && count > 0; i++) {
+            Postings list = lists.get(i);
+            int kept = 0;
+            for (int j = 0; j < count; j++) {
+                if (Arrays.binarySearch(list.ids, 0, list.size, candidates[j]) >= 0) {
+                    candidates[kept++] = candidates[j];
+                }
+            }
+            count = kept;
+        }
+
+        // Trigrams can match out of order, so confirm the real substring
+        int confirmed = 0;
+        for (int j = 0; j < count; j++) {
+            if (names.get(candidates[j]).contains(needle)) {
+                candidates[confirmed++] = candidates[j];
+            }
+        }
+        return Arrays.copyOf(candidates, confirmed);
+    }
+
+    /**
+     * Get the number of indexed names
+     * @return Indexed entry count
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Describe how this index differs from one built from the database
+     * Posting lists are derived from the names, so comparing names is sufficient
+     * @param expected Index freshly built from the database
+     * @param entityName Entity name used in the descriptions
+     * @return One line per difference; empty if consistent
+     */
+    public List<String> differencesFrom(TrigramIndex expected, String entityName) {
+        List<String> differences = new ArrayList<>();
+        for (Map.Entry<Long, String> entry : expected.names.entrySet()) {
+            String indexed = names.get(entry.getKey());
+            if (indexed == null) {
+                differences.add(entityName + " " + entry.getKey() + " missing from index");
+            } else if (!indexed.equals(entry.getValue())) {
+                differences.add(entityName + " " + entry.getKey() + " has a stale name in index");
+            }
+        }
+        for (Long id : names.keySet()) {
+            if (!expected.names.containsKey(id)) {
+                differences.add(entityName + " " + id + " is in index but not in database");
+            }
+        }
+        return differences;
+    }
+
+    private void removePosting(long trigram, long id) {
+        Postings list = postings.get(trigram);
+        if (list != null && list.remove(id) && list.size == 0) {
+            postings.remove(trigram);
+        }
+    }
+
+    /**
+     * Lower-case a name the same way for indexing and searching
+     * @param value Name or keyword, may be null
+     * @return Normalised value, never null
+     */
+    static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Get the distinct trigrams of a string, each packed into a long (16 bits per char)
+     * @param value Normalised string
+     * @return Distinct trigram keys
+     */
+    private static long[] trigrams(String value) {
+        int count = value.length() - 2;
+        if (count <= 0) {
+            return new long[0];
+        }
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = ((long) value.charAt(i) << 32)
+                    | ((long) value.charAt(i + 1) << 16)
+                    | value.charAt(i + 2);
+        }
+        Arrays.sort(keys);
+        int distinct = 1;
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i] != keys[distinct - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+    /**
+     * Sorted, growable array of IDs for one trigram
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            // IDs usually arrive in ascending order, so check the tail first
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+            }
+        }
+    }
+}
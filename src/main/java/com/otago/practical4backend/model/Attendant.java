@@ -1,16 +1,41 @@
 package com.otago.practical4backend.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.Instant;
+import java.util.Locale;
 
 /**
  * Attendant Entity Class
  * Represents an attendant/staff member in the system
  * Maps to the 'attendants' table in the database
+ * Held in the Hibernate second-level cache region "attendants" (see SecondLevelCacheConfig)
  */
 @Entity
-@Table(name = "attendants")
+@Table(name = "attendants", uniqueConstraints = {
+        @UniqueConstraint(name = Attendant.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email_normalized"),
+        @UniqueConstraint(name = Attendant.MOBILE_UNIQUE_CONSTRAINT, columnNames = "mobile_normalized")
+}, indexes = {
+        @Index(name = "idx_attendants_updated_at", columnList = "updated_at")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Attendant.CACHE_REGION)
 public class Attendant {
 
+    /**
+     * Second-level cache region for attendants
+     */
+    public static final String CACHE_REGION = "attendants";
+
+    /**
+     * Unique constraint names, used to tell which duplicate a failed insert or update hit
+     */
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_attendants_email_normalized";
+    public static final String MOBILE_UNIQUE_CONSTRAINT = "uk_attendants_mobile_normalized";
+
     /**
      * Primary key - auto-generated ID
      */
@@ -48,6 +73,35 @@ public class Attendant {
     @Column(length = 500)
     private String comments;
 
+    /**
+     * Optimistic lock version, incremented on every update
+     * Exposed read-only in JSON and used as the resource's ETag
+     */
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    /**
+     * Time of the last change to this row, set whenever it is inserted or updated
+     */
+    @Column(name = "updated_at")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant updatedAt;
+
+    /**
+     * Lower-cased, trimmed email; null when no email is set
+     * Kept in step with email by normalizeContacts and backs the unique email constraint
+     */
+    @Column(name = "email_normalized", length = 100)
+    private String emailNormalized;
+
+    /**
+     * Mobile number without spaces or hyphens; null when no mobile is set
+     * Kept in step with mobile by normalizeContacts and backs the unique mobile constraint
+     */
+    @Column(name = "mobile_normalized", length = 20)
+    private String mobileNormalized;
+
     // Default constructor required by JPA
     public Attendant() {
     }
@@ -61,6 +115,62 @@ public class Attendant {
         this.comments = comments;
     }
 
+    // Copy constructor - takes a detached snapshot that is safe to share between threads
+    public Attendant(Attendant other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.address = other.address;
+        this.mobile = other.mobile;
+        this.email = other.email;
+        this.comments = other.comments;
+        this.version = other.version;
+        this.emailNormalized = other.emailNormalized;
+        this.mobileNormalized = other.mobileNormalized;
+        this.updatedAt = other.updatedAt;
+    }
+
+    /**
+     * Normalize an email address for duplicate detection
+     * @param email Email address, may be null
+     * @return Trimmed lower-case email, or null if blank
+     */
+    public static String normalizeEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        String normalized = email.trim().toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    /**
+     * Normalize a mobile number for duplicate detection
+     * @param mobile Mobile number, may be null
+     * @return Mobile number without whitespace or hyphens, or null if blank
+     */
+    public static String normalizeMobile(String mobile) {
+        if (mobile == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(mobile.length());
+        for (int i = 0; i < mobile.length(); i++) {
+            char c = mobile.charAt(i);
+            // Same characters as the regex class [\s-]
+            if (c != ' ' && c != '-' && (c < '\t' || c > '\r')) {
+                normalized.append(c);
+            }
+        }
+        return normalized.length() == 0 ? null : normalized.toString();
+    }
+
+    // Refresh the normalized columns and the change time before every insert and update
+    @PrePersist
+    @PreUpdate
+    void normalizeContacts() {
+        this.emailNormalized = normalizeEmail(email);
+        this.mobileNormalized = normalizeMobile(mobile);
+        this.updatedAt = Instant.now();
+    }
+
     // Getters and Setters with documentation
 
     /**
@@ -159,6 +269,38 @@ public class Attendant {
         this.comments = comments;
     }
 
+    /**
+     * Get the optimistic lock version
+     * @return Version, or null for an unsaved attendant
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Set the optimistic lock version
+     * @param version Version to set
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * Get the time of the last change
+     * @return Last change time, or null for an unsaved attendant
+     */
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Set the time of the last change
+     * @param updatedAt Last change time to set
+     */
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     /**
      * String representation of the Attendant object
      * @return String containing all attendant details
@@ -172,6 +314,7 @@ public class Attendant {
                 ", mobile='" + mobile + '\'' +
                 ", email='" + email + '\'' +
                 ", comments='" + comments + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.otago.practical4backend.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Change Log Entry Entity Class
+ * One committed write to a product or attendant, given its change number once committed (see ChangeLog)
+ * Maps to the 'change_log' table, which is only ever appended to; entries superseded by a later
+ * write to the same row, and deletions older than the retention period, are removed by compaction
+ */
+@Entity
+@Table(name = "change_log", indexes = {
+        @Index(name = "idx_change_log_number", columnList = "change_number", unique = true),
+        @Index(name = "idx_change_log_table_number", columnList = "table_name, change_number"),
+        @Index(name = "idx_change_log_table_entity", columnList = "table_name, entity_id, change_number")
+})
+public class ChangeLogEntry {
+
+    /**
+     * Primary key - auto-generated ID, in insertion order rather than commit order
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Change number, null until the entry has committed and been numbered
+     */
+    @Column(name = "change_number", unique = true)
+    private Long changeNumber;
+
+    /**
+     * Table the changed row belongs to, e.g. "products"
+     */
+    @Column(name = "table_name", nullable = false, length = 50)
+    private String tableName;
+
+    /**
+     * ID of the changed row
+     */
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    /**
+     * Whether the row was deleted
+     */
+    @Column(nullable = false)
+    private boolean deleted;
+
+    /**
+     * Time the change was recorded
+     */
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    // Default constructor required by JPA
+    public ChangeLogEntry() {
+    }
+
+    /**
+     * Get the ID
+     * @return Entry ID
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Get the change number
+     * @return Change number, or null if not yet numbered
+     */
+    public Long getChangeNumber() {
+        return changeNumber;
+    }
+
+    /**
+     * Get the table the changed row belongs to
+     * @return Table name
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Get the ID of the changed row
+     * @return Entity ID
+     */
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * Check whether the row was deleted
+     * @return true for a deletion
+     */
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    /**
+     * Get the time the change was recorded
+     * @return Change time
+     */
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+}
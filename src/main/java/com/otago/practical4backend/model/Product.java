@@ -1,22 +1,49 @@
 package com.otago.practical4backend.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
+import java.time.Instant;
 
 /**
  * Product Entity Class
  * Represents a product in the inventory system
  * Maps to the 'products' table in the database
+ * Held in the Hibernate second-level cache region "products" (see SecondLevelCacheConfig)
  */
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_updated_at", columnList = "updated_at")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Product.CACHE_REGION)
 public class Product {
 
     /**
-     * Primary key - auto-generated ID
+     * Second-level cache region for products
+     */
+    public static final String CACHE_REGION = "products";
+
+    /**
+     * Number of IDs reserved from the id_generator table per round trip
+     * Also used as the allocation step when seeding the generator for an existing table
+     */
+    public static final int ID_ALLOCATION_SIZE = 100;
+
+    /**
+     * Primary key - allocated from the id_generator table with a pooled optimizer
+     * Unlike IDENTITY this lets Hibernate batch inserts, and works the same on MySQL and H2
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "product_id_generator")
+    @TableGenerator(name = "product_id_generator",
+            table = "id_generator",
+            pkColumnName = "sequence_name",
+            valueColumnName = "next_val",
+            pkColumnValue = "products",
+            allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     /**
@@ -49,6 +76,21 @@ public class Product {
     @Column(length = 500)
     private String description;
 
+    /**
+     * Optimistic lock version, incremented on every update
+     * Exposed read-only in JSON and used as the resource's ETag
+     */
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    /**
+     * Time of the last change to this row, set whenever it is inserted or updated
+     */
+    @Column(name = "updated_at")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant updatedAt;
+
     // Default constructor required by JPA
     public Product() {
     }
@@ -62,6 +104,25 @@ public class Product {
         this.description = description;
     }
 
+    // Copy constructor - takes a detached snapshot that is safe to share between threads
+    public Product(Product other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.price = other.price;
+        this.category = other.category;
+        this.stock = other.stock;
+        this.description = other.description;
+        this.version = other.version;
+        this.updatedAt = other.updatedAt;
+    }
+
+    // Record the change time before every insert and update
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        this.updatedAt = Instant.now();
+    }
+
     // Getters and Setters with documentation
 
     /**
@@ -160,6 +221,38 @@ public class Product {
         this.description = description;
     }
 
+    /**
+     * Get the optimistic lock version
+     * @return Version, or null for an unsaved product
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Set the optimistic lock version
+     * @param version Version to set
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * Get the time of the last change
+     * @return Last change time, or null for an unsaved product
+     */
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Set the time of the last change
+     * @param updatedAt Last change time to set
+     */
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     /**
      * String representation of the Product object
      * @return String containing all product details
@@ -173,6 +266,7 @@ public class Product {
                 ", category='" + category + '\'' +
                 ", stock=" + stock +
                 ", description='" + description + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.otago.practical4backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Schema Upgrade Entity Class
+ * One-off data upgrades that have already been applied, so SchemaUpgradeRunner skips them on later
+ * starts. Only mapped so the table is created with the schema; SchemaUpgradeRunner reads and writes
+ * it with JDBC
+ */
+@Entity
+@Table(name = "schema_upgrades")
+public class SchemaUpgrade {
+
+    /**
+     * Upgrade name - primary key
+     */
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    /**
+     * Time the upgrade was applied
+     */
+    @Column(name = "applied_at", nullable = false)
+    private Instant appliedAt;
+
+    // Default constructor required by JPA
+    public SchemaUpgrade() {
+    }
+
+    /**
+     * Get the upgrade name
+     * @return Upgrade name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the time the upgrade was applied
+     * @return Time applied
+     */
+    public Instant getAppliedAt() {
+        return appliedAt;
+    }
+}
@@ -0,0 +1,47 @@
+package com.otago.practical4backend.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Sync Watermark Entity Class
+ * Named positions in the change log kept by its compaction job: how far superseded entries have been
+ * compacted, and the newest deletion that has been purged. Only mapped so the table is created with
+ * the schema; ChangeLog reads and updates it with JDBC
+ */
+@Entity
+@Table(name = "sync_watermarks")
+public class SyncWatermark {
+
+    /**
+     * Watermark name - primary key
+     */
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    /**
+     * Change number the watermark has reached
+     */
+    @Column(name = "change_id", nullable = false)
+    private Long changeId;
+
+    // Default constructor required by JPA
+    public SyncWatermark() {
+    }
+
+    /**
+     * Get the watermark name
+     * @return Watermark name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the change number the watermark has reached
+     * @return Change number
+     */
+    public Long getChangeId() {
+        return changeId;
+    }
+}
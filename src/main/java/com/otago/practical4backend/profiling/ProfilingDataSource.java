@@ -0,0 +1,138 @@
+package com.otago.practical4backend.profiling;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/**
+ * Profiling Data Source
+ * Hands out connections that time every statement into the current request's QueryProfile.
+ * Connections checked out by threads without a profile are returned unwrapped
+ */
+public class ProfilingDataSource extends DelegatingDataSource {
+
+    private final Supplier<SqlProfiler> profilerLookup;
+    private volatile SqlProfiler profiler;
+
+    /**
+     * Wrap a data source
+     * @param target Real (pooled) data source
+     * @param profiler Profiler, looked up lazily because this wraps an infrastructure bean
+     */
+    public ProfilingDataSource(DataSource target, Supplier<SqlProfiler> profiler) {
+        super(target);
+        this.profilerLookup = profiler;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        SqlProfiler sqlProfiler = profiler;
+        if (sqlProfiler == null) {
+            sqlProfiler = profilerLookup.get();
+            profiler = sqlProfiler;
+        }
+        QueryProfile profile = sqlProfiler == null ? null : sqlProfiler.current();
+        if (profile == null) {
+            return connection;
+        }
+        return proxy(Connection.class, connection, new ConnectionHandler(connection, sqlProfiler, profile));
+    }
+
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Wraps the statements a connection creates
+     */
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+        private final SqlProfiler profiler;
+        private final QueryProfile profile;
+
+        private ConnectionHandler(Connection connection, SqlProfiler profiler, QueryProfile profile) {
+            this.connection = connection;
+            this.profiler = profiler;
+            this.profile = profile;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = ProfilingDataSource.invoke(connection, method, args);
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return proxy(PreparedStatement.class, (PreparedStatement) result,
+                            new StatementHandler(result, (String) args[0], profiler, profile));
+                case "prepareCall":
+                    return proxy(CallableStatement.class, (CallableStatement) result,
+                            new StatementHandler(result, (String) args[0], profiler, profile));
+                case "createStatement":
+                    return proxy(Statement.class, (Statement) result,
+                            new StatementHandler(result, null, profiler, profile));
+                default:
+                    return result;
+            }
+        }
+    }
+
+    /**
+     * Times the execute* calls of one statement
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final Object statement;
+        private final String preparedSql;
+        private final SqlProfiler profiler;
+        private final QueryProfile profile;
+
+        private StatementHandler(Object statement, String preparedSql, SqlProfiler profiler, QueryProfile profile) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+            this.profiler = profiler;
+            this.profile = profile;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute")) {
+                return ProfilingDataSource.invoke(statement, method, args);
+            }
+            long started = System.nanoTime();
+            try {
+                return ProfilingDataSource.invoke(statement, method, args);
+            } finally {
+                String sql = preparedSql;
+                if (sql == null) {
+                    sql = args != null && args.length > 0 && args[0] instanceof String text ? text : "<batch>";
+                }
+                profiler.record(profile, sql, System.nanoTime() - started);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.otago.practical4backend.profiling;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Profiling Data Source Post Processor
+ * Wraps the application's "dataSource" bean in a ProfilingDataSource.
+ * Boot's pool metrics and health checks still find the Hikari pool by unwrapping it
+ */
+@Component
+public class ProfilingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<SqlProfiler> profiler;
+
+    /**
+     * Constructor injection
+     * @param profiler Provider of the profiler; resolved on first use so it is not created early
+     */
+    public ProfilingDataSourcePostProcessor(ObjectProvider<SqlProfiler> profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                && !(bean instanceof ProfilingDataSource)) {
+            return new ProfilingDataSource(dataSource, profiler::getIfAvailable);
+        }
+        return bean;
+    }
+}
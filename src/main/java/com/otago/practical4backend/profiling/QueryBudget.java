@@ -0,0 +1,25 @@
+package com.otago.practical4backend.profiling;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Query Budget
+ * Declares the most SQL statements a controller method may issue per request.
+ * Profiled requests that go over it are logged as warnings, and the budget is
+ * reported in the X-SQL-Profile header so tests can assert it
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface QueryBudget {
+
+    /**
+     * Maximum number of statements
+     * @return Statement budget
+     */
+    int value();
+}
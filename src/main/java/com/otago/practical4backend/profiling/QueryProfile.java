@@ -0,0 +1,113 @@
+package com.otago.practical4backend.profiling;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Query Profile
+ * Statement count, database time and repeated statements of one HTTP request.
+ * Only touched by the request thread, so it needs no locking
+ */
+public class QueryProfile {
+
+    private final String request;
+    private final Map<String, Integer> countsBySql = new HashMap<>();
+    private int statementCount;
+    private long totalNanos;
+    private Integer budget;
+
+    /**
+     * Start an empty profile
+     * @param request Request description used in logs, e.g. "GET /api/products/7"
+     */
+    public QueryProfile(String request) {
+        this.request = request;
+    }
+
+    /**
+     * Record one executed statement (a JDBC batch counts as one)
+     * @param sql SQL text
+     * @param elapsedNanos Time spent in the driver
+     */
+    void record(String sql, long elapsedNanos) {
+        statementCount++;
+        totalNanos += elapsedNanos;
+        countsBySql.merge(sql, 1, Integer::sum);
+    }
+
+    /**
+     * Get the request description
+     * @return Method and path
+     */
+    public String getRequest() {
+        return request;
+    }
+
+    /**
+     * Get the number of statements executed so far
+     * @return Statement count
+     */
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    /**
+     * Get the total time spent executing statements
+     * @return Database time in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Get the statement budget of the handling controller method
+     * @return Budget, or null if the method declares none
+     */
+    public Integer getBudget() {
+        return budget;
+    }
+
+    void setBudget(Integer budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Check whether the request went over its statement budget
+     * @return true if a budget is declared and exceeded
+     */
+    public boolean isOverBudget() {
+        return budget != null && statementCount > budget;
+    }
+
+    /**
+     * Find statements executed repeatedly with identical SQL (typically an N+1 pattern)
+     * @param threshold Minimum number of executions to report
+     * @return SQL text mapped to its execution count, most frequent first
+     */
+    public Map<String, Integer> repeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        countsBySql.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+
+    /**
+     * One-line summary used in the X-SQL-Profile response header
+     * @param repeatThreshold Minimum executions for a statement to count as repeated
+     * @return e.g. "statements=3; time=1.204ms; repeated=0; budget=1"
+     */
+    public String summary(int repeatThreshold) {
+        StringBuilder summary = new StringBuilder()
+                .append("statements=").append(statementCount)
+                .append("; time=").append(String.format(Locale.ROOT, "%.3f", totalNanos / 1_000_000.0)).append("ms")
+                .append("; repeated=").append(repeatedStatements(repeatThreshold).size());
+        if (budget != null) {
+            summary.append("; budget=").append(budget);
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,46 @@
+package com.otago.practical4backend.profiling;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * SQL Profile Header Advice
+ * In debug mode, adds the X-SQL-Profile summary header to profiled responses just before
+ * the body is written (the last point at which headers can still be set)
+ */
+@ControllerAdvice
+public class SqlProfileHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    private final SqlProfiler profiler;
+
+    /**
+     * Constructor injection for SqlProfiler
+     * @param profiler Profiler tracking the request's statements
+     */
+    @Autowired
+    public SqlProfileHeaderAdvice(SqlProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return profiler.isDebugHeaderEnabled();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        QueryProfile profile = profiler.current();
+        if (profile != null) {
+            response.getHeaders().set(SqlProfilingFilter.HEADER, profiler.summary(profile));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,128 @@
+package com.otago.practical4backend.profiling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * SQL Profiler
+ * Tracks the statements issued while serving a sampled HTTP request.
+ *
+ * The profile lives in a ThreadLocal for the duration of the request. Connections are only
+ * wrapped for timing when the requesting thread has a profile, so unsampled requests pay
+ * one ThreadLocal read per connection checkout and nothing per statement.
+ * Replaces show-sql / bind-parameter logging, which wrote every statement synchronously.
+ */
+@Component
+public class SqlProfiler {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlProfiler.class);
+
+    private final ThreadLocal<QueryProfile> current = new ThreadLocal<>();
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowQueryNanos;
+    private final int repeatThreshold;
+    private final boolean debugHeader;
+
+    /**
+     * Constructor injection for the profiler settings
+     * @param enabled Whether requests are profiled at all
+     * @param sampleRate Fraction of requests profiled (0.0 - 1.0)
+     * @param slowQueryMillis Statements slower than this are logged
+     * @param repeatThreshold Identical statements executed at least this often in one request are reported as N+1
+     * @param debugHeader Whether clients may force profiling with the X-SQL-Profile request header
+     */
+    @Autowired
+    public SqlProfiler(@Value("${app.sql-profiler.enabled:true}") boolean enabled,
+                       @Value("${app.sql-profiler.sample-rate:0.01}") double sampleRate,
+                       @Value("${app.sql-profiler.slow-query-ms:200}") long slowQueryMillis,
+                       @Value("${app.sql-profiler.repeat-threshold:5}") int repeatThreshold,
+                       @Value("${app.sql-profiler.debug-header:false}") boolean debugHeader) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowQueryNanos = slowQueryMillis * 1_000_000;
+        this.repeatThreshold = repeatThreshold;
+        this.debugHeader = debugHeader;
+    }
+
+    /**
+     * Decide whether to profile a request and, if so, start its profile on this thread
+     * @param request Request description used in logs
+     * @param forced Whether the client asked for a profile (honoured only in debug mode)
+     * @return New profile, or null if the request is not profiled
+     */
+    public QueryProfile start(String request, boolean forced) {
+        if (!enabled) {
+            return null;
+        }
+        boolean sampled = (forced && debugHeader) || ThreadLocalRandom.current().nextDouble() < sampleRate;
+        if (!sampled) {
+            return null;
+        }
+        QueryProfile profile = new QueryProfile(request);
+        current.set(profile);
+        return profile;
+    }
+
+    /**
+     * Get the profile of the request running on this thread
+     * @return Current profile, or null if the request is not profiled
+     */
+    public QueryProfile current() {
+        return current.get();
+    }
+
+    /**
+     * End the profile of the current request and report anything suspicious
+     * @param profile Profile returned by start
+     */
+    public void finish(QueryProfile profile) {
+        current.remove();
+        Map<String, Integer> repeated = profile.repeatedStatements(repeatThreshold);
+        repeated.forEach((sql, count) ->
+                log.warn("Possible N+1 in {}: {} executions of {}", profile.getRequest(), count, sql));
+        if (profile.isOverBudget()) {
+            log.warn("{} issued {} statements, over its budget of {}",
+                    profile.getRequest(), profile.getStatementCount(), profile.getBudget());
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("{}: {}", profile.getRequest(), profile.summary(repeatThreshold));
+        }
+    }
+
+    /**
+     * Check whether responses should carry the X-SQL-Profile summary header
+     * @return true in debug mode
+     */
+    public boolean isDebugHeaderEnabled() {
+        return debugHeader;
+    }
+
+    /**
+     * Summarise a profile for the response header
+     * @param profile Profile to summarise
+     * @return Header value
+     */
+    public String summary(QueryProfile profile) {
+        return profile.summary(repeatThreshold);
+    }
+
+    /**
+     * Record an executed statement
+     * @param profile Profile of the request that executed it
+     * @param sql SQL text
+     * @param elapsedNanos Time spent in the driver
+     */
+    void record(QueryProfile profile, String sql, long elapsedNanos) {
+        profile.record(sql, elapsedNanos);
+        if (elapsedNanos >= slowQueryNanos) {
+            log.warn("Slow query in {} ({} ms): {}", profile.getRequest(), elapsedNanos / 1_000_000, sql);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.otago.practical4backend.profiling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * SQL Profiling Filter
+ * Starts a query profile for sampled requests and reports it when the request completes
+ */
+@Component
+public class SqlProfilingFilter extends OncePerRequestFilter {
+
+    /**
+     * Request header asking for a profile, and response header carrying its summary
+     */
+    public static final String HEADER = "X-SQL-Profile";
+
+    private final SqlProfiler profiler;
+
+    /**
+     * Constructor injection for SqlProfiler
+     * @param profiler Profiler tracking the request's statements
+     */
+    @Autowired
+    public SqlProfilingFilter(SqlProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryProfile profile = profiler.start(request.getMethod() + " " + request.getRequestURI(),
+                request.getHeader(HEADER) != null);
+        if (profile == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            profiler.finish(profile);
+        }
+    }
+}
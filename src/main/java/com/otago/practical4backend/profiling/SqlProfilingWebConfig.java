@@ -0,0 +1,46 @@
+package com.otago.practical4backend.profiling;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * SQL Profiling Web Configuration
+ * Attaches the @QueryBudget of the handling controller method to the request's profile
+ */
+@Configuration
+public class SqlProfilingWebConfig implements WebMvcConfigurer {
+
+    private final SqlProfiler profiler;
+
+    /**
+     * Constructor injection for SqlProfiler
+     * @param profiler Profiler tracking the request's statements
+     */
+    @Autowired
+    public SqlProfilingWebConfig(SqlProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                QueryProfile profile = profiler.current();
+                if (profile != null && handler instanceof HandlerMethod method) {
+                    QueryBudget budget = method.getMethodAnnotation(QueryBudget.class);
+                    if (budget != null) {
+                        profile.setBudget(budget.value());
+                    }
+                }
+                return true;
+            }
+        });
+    }
+}
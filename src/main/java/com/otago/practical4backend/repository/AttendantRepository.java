@@ -1,10 +1,18 @@
 package com.otago.practical4backend.repository;
 
+import com.otago.practical4backend.dto.TableVersion;
 import com.otago.practical4backend.model.Attendant;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Attendant Repository Interface
@@ -14,11 +22,21 @@ import java.util.Optional;
 @Repository
 public interface AttendantRepository extends JpaRepository<Attendant, Long> {
 
+    /**
+     * Query cache region; results are invalidated whenever the attendants table is written
+     */
+    String EMAIL_QUERY_REGION = "attendants-by-email";
+
     /**
      * Find attendant by email address
+     * Results are held in the query cache
      * @param email Email address to search for
      * @return Optional containing attendant if found
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EMAIL_QUERY_REGION)
+    })
     Optional<Attendant> findByEmail(String email);
 
     /**
@@ -41,4 +59,65 @@ public interface AttendantRepository extends JpaRepository<Attendant, Long> {
      * @return true if attendant exists, false otherwise
      */
     boolean existsByMobile(String mobile);
+
+    /**
+     * Check if an attendant exists by normalized email (see Attendant.normalizeEmail)
+     * @param emailNormalized Normalized email to check
+     * @return true if attendant exists, false otherwise
+     */
+    boolean existsByEmailNormalized(String emailNormalized);
+
+    /**
+     * Check if an attendant exists by normalized mobile number (see Attendant.normalizeMobile)
+     * @param mobileNormalized Normalized mobile number to check
+     * @return true if attendant exists, false otherwise
+     */
+    boolean existsByMobileNormalized(String mobileNormalized);
+
+    /**
+     * Check if another attendant already uses a normalized email
+     * @param emailNormalized Normalized email to check
+     * @param id ID of the attendant being updated
+     * @return true if a different attendant has the email, false otherwise
+     */
+    boolean existsByEmailNormalizedAndIdNot(String emailNormalized, Long id);
+
+    /**
+     * Check if another attendant already uses a normalized mobile number
+     * @param mobileNormalized Normalized mobile number to check
+     * @param id ID of the attendant being updated
+     * @return true if a different attendant has the mobile number, false otherwise
+     */
+    boolean existsByMobileNormalizedAndIdNot(String mobileNormalized, Long id);
+
+    /**
+     * Find the page of attendants following a cursor (keyset / seek pagination)
+     * Runs "WHERE id > :cursor ORDER BY id LIMIT n" so deep pages cost the same as the first page
+     * @param cursor Last attendant ID of the previous page (0 for the first page)
+     * @param pageable Page request carrying the page size (page number must be 0)
+     * @return Attendants with IDs greater than the cursor, in ID order
+     */
+    @Query("SELECT a FROM Attendant a WHERE a.id > :cursor ORDER BY a.id")
+    List<Attendant> findPageAfter(@Param("cursor") Long cursor, Pageable pageable);
+
+    /**
+     * Stream every attendant in ID order without materialising the whole table
+     * The JDBC fetch size keeps only one batch of rows in the driver at a time
+     * (MySQL needs useCursorFetch=true on the connection URL for this to take effect)
+     * Must be consumed inside a transaction and closed after use
+     * @return Stream of all attendants, loaded read-only
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM Attendant a ORDER BY a.id")
+    Stream<Attendant> streamAllOrderById();
+
+    /**
+     * Fingerprint the attendants table for collection ETags
+     * @return Row count, highest ID and version sum
+     */
+    @Query("SELECT new com.otago.practical4backend.dto.TableVersion(COUNT(a), MAX(a.id), SUM(a.version)) FROM Attendant a")
+    TableVersion probeVersion();
 }
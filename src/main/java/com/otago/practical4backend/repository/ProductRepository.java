@@ -1,9 +1,18 @@
 package com.otago.practical4backend.repository;
 
+import com.otago.practical4backend.dto.CategoryStats;
+import com.otago.practical4backend.dto.TableVersion;
 import com.otago.practical4backend.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Product Repository Interface
@@ -13,11 +22,22 @@ import java.util.List;
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    /**
+     * Query cache regions; results are invalidated whenever the products table is written
+     */
+    String CATEGORY_QUERY_REGION = "products-by-category";
+    String LOW_STOCK_QUERY_REGION = "products-low-stock";
+
     /**
      * Find products by category
+     * Results are held in the query cache
      * @param category Category name to search for
      * @return List of products in the specified category
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CATEGORY_QUERY_REGION)
+    })
     List<Product> findByCategory(String category);
 
     /**
@@ -29,10 +49,14 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     /**
      * Find products with stock less than specified amount
-     * Useful for identifying products that need restocking
+     * Useful for identifying products that need restocking; results are held in the query cache
      * @param stockLevel Stock level threshold
      * @return List of products with stock below the threshold
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = LOW_STOCK_QUERY_REGION)
+    })
     List<Product> findByStockLessThan(Integer stockLevel);
 
     /**
@@ -41,4 +65,47 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @return true if product exists, false otherwise
      */
     boolean existsByName(String name);
-}
\ No newline at end of file
+
+    /**
+     * Find the page of products following a cursor (keyset / seek pagination)
+     * Runs "WHERE id > :cursor ORDER BY id LIMIT n" so deep pages cost the same as the first page
+     * @param cursor Last product ID of the previous page (0 for the first page)
+     * @param pageable Page request carrying the page size (page number must be 0)
+     * @return Products with IDs greater than the cursor, in ID order
+     */
+    @Query("SELECT p FROM Product p WHERE p.id > :cursor ORDER BY p.id")
+    List<Product> findPageAfter(@Param("cursor") Long cursor, Pageable pageable);
+
+    /**
+     * Stream every product in ID order without materialising the whole table
+     * The JDBC fetch size keeps only one batch of rows in the driver at a time
+     * (MySQL needs useCursorFetch=true on the connection URL for this to take effect)
+     * Must be consumed inside a transaction and closed after use
+     * @return Stream of all products, loaded read-only
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAllOrderById();
+
+    /**
+     * Compute per-category inventory aggregates with GROUP BY
+     * Only used until the in-memory CategoryStatsIndex has been built
+     * @param lowStockThreshold Products with stock below this level count as low stock
+     * @return Aggregates per category
+     */
+    @Query("SELECT new com.otago.practical4backend.dto.CategoryStats(p.category, COUNT(p), SUM(p.stock), "
+            + "SUM(p.price * p.stock), MIN(p.price), MAX(p.price), "
+            + "SUM(CASE WHEN p.stock < :lowStockThreshold THEN 1L ELSE 0L END)) "
+            + "FROM Product p GROUP BY p.category ORDER BY p.category")
+    List<CategoryStats> aggregateByCategory(@Param("lowStockThreshold") int lowStockThreshold);
+
+    /**
+     * Fingerprint the products table for collection ETags
+     * @return Row count, highest ID and version sum
+     */
+    @Query("SELECT new com.otago.practical4backend.dto.TableVersion(COUNT(p), MAX(p.id), SUM(p.version)) FROM Product p")
+    TableVersion probeVersion();
+}
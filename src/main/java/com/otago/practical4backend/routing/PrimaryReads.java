@@ -0,0 +1,48 @@
+package com.otago.practical4backend.routing;
+
+import java.util.function.Supplier;
+
+/**
+ * Primary Reads
+ * Routing hint for internal reads that must see the latest committed data: reloads after a commit,
+ * cache fills and index rebuilds. A lagging replica would hand these stale rows (or none), which the
+ * caller would then keep. Transactions whose first statement runs inside {@link #call} read from the
+ * primary even when they are read-only. Without a replica configured the hint has no effect
+ */
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Integer> depth = ThreadLocal.withInitial(() -> 0);
+
+    private PrimaryReads() {
+    }
+
+    /**
+     * Run work whose reads must come from the primary
+     * The route is picked when a transaction first uses its connection, so the work should start its
+     * own transaction or be the first to touch the database in the surrounding one
+     * @param work Work to run
+     * @param <T> Result type
+     * @return Result of the work
+     */
+    public static <T> T call(Supplier<T> work) {
+        depth.set(depth.get() + 1);
+        try {
+            return work.get();
+        } finally {
+            int remaining = depth.get() - 1;
+            if (remaining == 0) {
+                depth.remove();
+            } else {
+                depth.set(remaining);
+            }
+        }
+    }
+
+    /**
+     * Whether the current thread is inside {@link #call}
+     * @return true if reads must use the primary
+     */
+    public static boolean isRequired() {
+        return depth.get() > 0;
+    }
+}
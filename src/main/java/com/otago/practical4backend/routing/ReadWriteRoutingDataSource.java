@@ -0,0 +1,60 @@
+package com.otago.practical4backend.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Read/Write Routing Data Source
+ * Sends connections for read-only transactions to the replica and everything else to the primary.
+ * Read-only transactions still use the primary after the client's own writes (see {@link ReadYourWrites})
+ * and for internal reads that must be current (see {@link PrimaryReads}).
+ * The route is picked when a connection is first used, so this must sit behind a
+ * LazyConnectionDataSourceProxy: by then the transaction manager has published the read-only flag
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Target of a connection
+     */
+    enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReadYourWrites readYourWrites;
+
+    /**
+     * Create the router
+     * @param primary Pool for writes and non-read-only work
+     * @param replica Pool for read-only transactions
+     * @param readYourWrites Tracker sending a client's reads to the primary after it writes
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return readYourWrites.readsFromPrimary() || PrimaryReads.isRequired() ? Route.PRIMARY : Route.REPLICA;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Only a committed write makes the client's next reads stick to the primary
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    readYourWrites.wrote();
+                }
+            });
+        }
+        return Route.PRIMARY;
+    }
+}
@@ -0,0 +1,114 @@
+package com.otago.practical4backend.routing;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.time.Duration;
+
+/**
+ * Read Your Writes
+ * Tracks, per request thread, whether reads must go to the primary because the client has just written.
+ * After a write commits, the rest of the request reads from the primary, and a short-lived cookie
+ * keeps the client's following requests there until the replica has had time to catch up
+ */
+public class ReadYourWrites {
+
+    /** Cookie holding the time (epoch milliseconds) until which the client reads from the primary */
+    public static final String COOKIE = "read-primary-until";
+
+    private final ThreadLocal<RequestState> current = new ThreadLocal<>();
+    private final Duration window;
+
+    /**
+     * Create the tracker
+     * @param window How long a client keeps reading from the primary after a write (0 disables stickiness)
+     */
+    public ReadYourWrites(Duration window) {
+        this.window = window;
+    }
+
+    /**
+     * Whether stickiness is switched on
+     * @return true if writes make later reads use the primary
+     */
+    public boolean isEnabled() {
+        return !window.isZero() && !window.isNegative();
+    }
+
+    /**
+     * Start tracking a request
+     * @param request Incoming request, checked for the cookie of a recent write
+     * @param response Response the cookie is added to after a write
+     */
+    void begin(HttpServletRequest request, HttpServletResponse response) {
+        current.set(new RequestState(request.getContextPath(), response, recentlyWrote(request)));
+    }
+
+    /**
+     * Stop tracking the current request
+     */
+    void end() {
+        current.remove();
+    }
+
+    /**
+     * Whether the current thread's reads must use the primary
+     * @return true inside a request that has written, or whose client wrote within the window
+     */
+    public boolean readsFromPrimary() {
+        RequestState state = current.get();
+        return state != null && state.primary;
+    }
+
+    /**
+     * Record that a write transaction of the current request committed
+     */
+    public void wrote() {
+        RequestState state = current.get();
+        if (state == null) {
+            return;
+        }
+        state.primary = true;
+        if (!state.response.isCommitted()) {
+            Cookie cookie = new Cookie(COOKIE, Long.toString(System.currentTimeMillis() + window.toMillis()));
+            cookie.setPath(state.contextPath.isEmpty() ? "/" : state.contextPath);
+            cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+            cookie.setHttpOnly(true);
+            state.response.addCookie(cookie);
+        }
+    }
+
+    private static boolean recentlyWrote(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stickiness of one request
+     */
+    private static final class RequestState {
+
+        private final String contextPath;
+        private final HttpServletResponse response;
+        private boolean primary;
+
+        private RequestState(String contextPath, HttpServletResponse response, boolean primary) {
+            this.contextPath = contextPath;
+            this.response = response;
+            this.primary = primary;
+        }
+    }
+}
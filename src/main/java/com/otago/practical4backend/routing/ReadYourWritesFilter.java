@@ -0,0 +1,41 @@
+package com.otago.practical4backend.routing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Read Your Writes Filter
+ * Scopes read-your-writes tracking to each request; registered by RoutingDataSourceConfig
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReadYourWrites readYourWrites;
+
+    /**
+     * Constructor injection for ReadYourWrites
+     * @param readYourWrites Per-request write tracker
+     */
+    public ReadYourWritesFilter(ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!readYourWrites.isEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        readYourWrites.begin(request, response);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            readYourWrites.end();
+        }
+    }
+}
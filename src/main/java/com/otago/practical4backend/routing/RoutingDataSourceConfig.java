@@ -0,0 +1,102 @@
+package com.otago.practical4backend.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Routing Data Source Configuration
+ * Active when app.datasource.replica.url is set. Replaces Boot's single pool with a primary pool
+ * (spring.datasource.*) and a replica pool (app.datasource.replica.*), and exposes a "dataSource"
+ * that routes read-only transactions to the replica. Without a replica URL nothing changes
+ */
+@Configuration
+@ConditionalOnProperty("app.datasource.replica.url")
+public class RoutingDataSourceConfig {
+
+    /**
+     * Pool for the primary database, configured like Boot's default pool
+     * @param properties spring.datasource.* settings
+     * @return Primary connection pool
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Pool for the read replica; credentials and driver default to the primary's
+     * @param properties spring.datasource.* settings, used for the defaults
+     * @param url Replica JDBC URL
+     * @param username Replica user, or empty for the primary's
+     * @param password Replica password, or empty for the primary's
+     * @return Replica connection pool, marked read-only
+     */
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:}") String username,
+                                              @Value("${app.datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username.isEmpty() ? properties.determineUsername() : username)
+                .password(password.isEmpty() ? properties.determinePassword() : password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * Per-request read-your-writes tracking
+     * @param window How long a client reads from the primary after a write (0 to disable)
+     * @return Write tracker shared by the router and the filter
+     */
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${app.datasource.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWrites(window);
+    }
+
+    /**
+     * Filter scoping read-your-writes tracking to each request
+     * @param readYourWrites Write tracker
+     * @return Servlet filter, registered by Boot
+     */
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReadYourWrites readYourWrites) {
+        return new ReadYourWritesFilter(readYourWrites);
+    }
+
+    /**
+     * The application's data source: connections are fetched lazily, on first statement,
+     * so the router sees whether the surrounding transaction is read-only
+     * @param primary Primary pool
+     * @param replica Replica pool
+     * @param readYourWrites Write tracker
+     * @return Routing data source used by JPA and JdbcTemplate
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReadYourWrites readYourWrites) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, readYourWrites));
+    }
+}
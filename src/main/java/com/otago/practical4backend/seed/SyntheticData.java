@@ -0,0 +1,207 @@
+package com.otago.practical4backend.seed;
+
+import com.otago.practical4backend.model.Attendant;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic Data
+ * Builds realistic product and attendant rows with the skew seen in real catalogues:
+ * a few categories and product types hold most of the rows (Zipf distributed), prices are
+ * log-normal around a per-category median, and stock has long tails at zero and in bulk.
+ * Every value comes from the random source passed in, so rows are reproducible from a seed
+ */
+final class SyntheticData {
+
+    /** Categories, most popular first, with their median price in dollars */
+    private static final String[] CATEGORIES = {
+            "Electronics", "Clothing", "Kitchen", "Books", "Toys",
+            "Sports", "Health", "Garden", "Furniture", "Stationery",
+            "Appliances", "Automotive", "Beauty", "Pets", "Music",
+            "Outdoors", "Baby", "Tools", "Jewellery", "Groceries"
+    };
+    private static final double[] MEDIAN_PRICES = {
+            180, 45, 35, 25, 30,
+            60, 20, 40, 320, 8,
+            250, 70, 25, 30, 90,
+            110, 35, 55, 150, 6
+    };
+
+    private static final String[] BRANDS = {
+            "Acme", "Kiwi", "Southern", "Summit", "Harbour", "Tasman", "Fern", "Pacific",
+            "Alpine", "Coastal", "Orbit", "Nova", "Pioneer", "Atlas", "Vertex", "Evergreen"
+    };
+    private static final String[] ADJECTIVES = {
+            "Classic", "Wireless", "Compact", "Deluxe", "Portable", "Smart", "Ergonomic", "Premium",
+            "Basic", "Heavy-duty", "Eco", "Pro", "Mini", "Ultra", "Vintage", "Waterproof"
+    };
+    private static final String[] NOUNS = {
+            "Speaker", "Jacket", "Kettle", "Notebook", "Backpack", "Lamp", "Chair", "Mouse",
+            "Keyboard", "Bottle", "Headphones", "Blender", "Desk", "Towel", "Charger", "Mug",
+            "Tent", "Drill", "Watch", "Blanket", "Camera", "Pan", "Helmet", "Cushion"
+    };
+    private static final String[] DESCRIPTION_PHRASES = {
+            "Built to last with a two-year warranty.",
+            "Popular with customers across the country.",
+            "Lightweight design that is easy to carry.",
+            "Suitable for everyday use at home or work.",
+            "Made from sustainably sourced materials.",
+            "Available while stocks last.",
+            "Includes everything needed to get started.",
+            "Easy to clean and simple to store.",
+            "Rated highly for value and reliability.",
+            "A customer favourite for gifting."
+    };
+
+    private static final String[] FIRST_NAMES = {
+            "Olivia", "Jack", "Charlotte", "Noah", "Isla", "Oliver", "Amelia", "Leo", "Mia", "George",
+            "Ava", "Luca", "Harper", "William", "Sophie", "James", "Lily", "Mason", "Aria", "Hunter",
+            "Ruby", "Theo", "Zoe", "Arlo", "Grace", "Hugo", "Ella", "Kai", "Emily", "Nikau"
+    };
+    private static final String[] LAST_NAMES = {
+            "Smith", "Wilson", "Williams", "Brown", "Taylor", "Jones", "Singh", "Wang", "Anderson", "Thompson",
+            "Walker", "Nguyen", "Kumar", "Martin", "Clarke", "Patel", "White", "Harris", "Li", "Ngata"
+    };
+    private static final String[] STREETS = {
+            "George Street", "Princes Street", "Queen Street", "King Street", "Great King Street",
+            "Cumberland Street", "Stuart Street", "Castle Street", "High Street", "Moray Place"
+    };
+    private static final String[] SUBURBS = {
+            "Dunedin Central", "North Dunedin", "Mornington", "Roslyn", "St Kilda",
+            "Caversham", "Andersons Bay", "Maori Hill", "Mosgiel", "Port Chalmers"
+    };
+    private static final String[] COMMENTS = {
+            "Available for weekend shifts.",
+            "Prefers morning shifts.",
+            "Trained on the new point-of-sale system.",
+            "First-aid certified.",
+            "Team leader for the electronics section.",
+            "Part-time, studying at the university.",
+            "Fluent in English and Te Reo Maori.",
+            "Handles stock deliveries on Mondays."
+    };
+    private static final String[] MOBILE_PREFIXES = {"21", "22", "27", "29"};
+    private static final long MOBILE_NUMBERS_PER_PREFIX = 10_000_000L;
+
+    /** Largest number of attendants that can be given distinct mobile numbers */
+    static final long MAX_ATTENDANTS = MOBILE_PREFIXES.length * MOBILE_NUMBERS_PER_PREFIX;
+
+    private final Zipf categories = new Zipf(CATEGORIES.length, 1.1);
+    private final Zipf nouns = new Zipf(NOUNS.length, 1.0);
+    private final Zipf brands = new Zipf(BRANDS.length, 0.8);
+    private final Zipf firstNames = new Zipf(FIRST_NAMES.length, 0.9);
+    private final Zipf lastNames = new Zipf(LAST_NAMES.length, 0.9);
+
+    /**
+     * Build one products row
+     * @param id Product ID
+     * @param random Random source for this row's chunk
+     * @return Values for id, name, price, category, stock, description
+     */
+    Object[] product(long id, SplittableRandom random) {
+        int category = categories.sample(random);
+        String name = BRANDS[brands.sample(random)] + " "
+                + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                + NOUNS[nouns.sample(random)];
+        if (random.nextInt(4) != 0) {
+            // Most products carry a model code, e.g. "K420"
+            name += " " + (char) ('A' + random.nextInt(26)) + random.nextInt(100, 1000);
+        }
+
+        // Log-normal around the category median, floored at 50 cents
+        double price = Math.max(0.5, MEDIAN_PRICES[category] * Math.exp(random.nextGaussian() * 0.6));
+
+        return new Object[]{id, name, BigDecimal.valueOf(Math.round(price * 100), 2),
+                CATEGORIES[category], stock(random), description(random)};
+    }
+
+    /**
+     * Build one attendants row
+     * Email and mobile are derived from the ID so they are unique even when normalized
+     * @param id Attendant ID (1 to MAX_ATTENDANTS)
+     * @param random Random source for this row's chunk
+     * @return Values for id, name, address, mobile, email, comments, email_normalized, mobile_normalized
+     */
+    Object[] attendant(long id, SplittableRandom random) {
+        String first = FIRST_NAMES[firstNames.sample(random)];
+        String last = LAST_NAMES[lastNames.sample(random)];
+        String address = random.nextInt(1, 400) + " " + STREETS[random.nextInt(STREETS.length)] + ", "
+                + SUBURBS[random.nextInt(SUBURBS.length)] + ", Dunedin " + (9010 + random.nextInt(15));
+
+        long n = id - 1;
+        long number = n % MOBILE_NUMBERS_PER_PREFIX;
+        String mobile = "+64 " + MOBILE_PREFIXES[(int) (n / MOBILE_NUMBERS_PER_PREFIX)] + " "
+                + String.format("%03d %04d", number / 10_000, number % 10_000);
+        String email = first.toLowerCase(Locale.ROOT) + "." + last.toLowerCase(Locale.ROOT) + "." + id
+                + "@company.co.nz";
+        String comments = random.nextInt(3) == 0 ? null : COMMENTS[random.nextInt(COMMENTS.length)];
+
+        return new Object[]{id, first + " " + last, address, mobile, email, comments,
+                Attendant.normalizeEmail(email), Attendant.normalizeMobile(mobile)};
+    }
+
+    /**
+     * Stock with the shape of a real warehouse: some items sold out, many running low,
+     * most holding a moderate amount, and a few bulk lines with thousands
+     */
+    private static int stock(SplittableRandom random) {
+        int bucket = random.nextInt(100);
+        if (bucket < 6) {
+            return 0;
+        }
+        if (bucket < 25) {
+            return random.nextInt(1, 10);
+        }
+        if (bucket < 97) {
+            return (int) Math.min(1000, Math.round(40 * Math.exp(random.nextGaussian() * 0.8)));
+        }
+        return random.nextInt(1000, 20_000);
+    }
+
+    /**
+     * Description of one to six phrases; about a fifth of products have none
+     */
+    private static String description(SplittableRandom random) {
+        if (random.nextInt(5) == 0) {
+            return null;
+        }
+        int phrases = random.nextInt(1, 7);
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < phrases; i++) {
+            if (i > 0) {
+                description.append(' ');
+            }
+            description.append(DESCRIPTION_PHRASES[random.nextInt(DESCRIPTION_PHRASES.length)]);
+        }
+        return description.toString();
+    }
+
+    /**
+     * Zipf distribution over ranks 0..n-1: rank k is picked with weight 1 / (k + 1)^exponent
+     */
+    private static final class Zipf {
+
+        private final double[] cumulative;
+
+        private Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double total = 0;
+            for (int k = 0; k < n; k++) {
+                total += 1.0 / Math.pow(k + 1, exponent);
+                cumulative[k] = total;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= total;
+            }
+        }
+
+        private int sample(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            // binarySearch returns -(insertion point) - 1 when the value is not an exact match
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.otago.practical4backend.seed;
+
+import com.otago.practical4backend.config.SchemaUpgradeRunner;
+import com.otago.practical4backend.event.ChangeLog;
+import com.otago.practical4backend.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Synthetic Data Generator
+ * Seeds the database with a configurable number of realistic products and attendants
+ * when the "seed" profile is active (it replaces the small DataLoader sample set).
+ *
+ * Rows are generated in fixed-size chunks on a thread pool and written with JDBC batch inserts.
+ * Each chunk has its own random source derived from the seed and the chunk number, so the same
+ * seed and chunk size always produce the same rows, whatever the thread scheduling
+ */
+@Component
+@Profile("seed")
+@Order(Ordered.HIGHEST_PRECEDENCE + 1) // Before the indexes are built; SchemaUpgradeRunner ran before any runner
+public class SyntheticDataGenerator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    /** Golden-ratio increment, spreading chunk seeds across the generator's state space */
+    private static final long CHUNK_SEED_STEP = 0x9E3779B97F4A7C15L;
+
+    private static final String PRODUCT_INSERT =
+            "INSERT INTO products (id, name, price, category, stock, description, version) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, 0)";
+    private static final String ATTENDANT_INSERT =
+            "INSERT INTO attendants (id, name, address, mobile, email, comments, "
+                    + "email_normalized, mobile_normalized, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaUpgradeRunner schemaUpgradeRunner;
+    private final ChangeLog changeLog;
+    private final SyntheticData data = new SyntheticData();
+    private final long productCount;
+    private final long attendantCount;
+    private final long seed;
+    private final int chunkSize;
+    private final int batchSize;
+    private final int threads;
+    private final boolean replace;
+
+    /**
+     * Constructor with generator settings from application-seed.properties
+     * @param jdbcTemplate JDBC access to the application database
+     * @param schemaUpgradeRunner Used to move the product ID generator past the inserted IDs
+     *                            and to add the inserted rows to the change log
+     * @param changeLog Makes synced clients start again when the tables are replaced
+     * @param productCount Number of products to generate
+     * @param attendantCount Number of attendants to generate
+     * @param seed Random seed; the same seed and chunk size give the same data
+     * @param chunkSize Rows generated per task
+     * @param batchSize Rows sent per JDBC batch
+     * @param threads Generator threads (each holds one pooled connection while inserting)
+     * @param replace Whether to empty non-empty tables first instead of leaving them alone
+     */
+    @Autowired
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate,
+                                  SchemaUpgradeRunner schemaUpgradeRunner,
+                                  ChangeLog changeLog,
+                                  @Value("${app.seed.products:100000}") long productCount,
+                                  @Value("${app.seed.attendants:10000}") long attendantCount,
+                                  @Value("${app.seed.random-seed:42}") long seed,
+                                  @Value("${app.seed.chunk-size:10000}") int chunkSize,
+                                  @Value("${app.seed.batch-size:1000}") int batchSize,
+                                  @Value("${app.seed.threads:4}") int threads,
+                                  @Value("${app.seed.replace:false}") boolean replace) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schemaUpgradeRunner = schemaUpgradeRunner;
+        this.changeLog = changeLog;
+        this.productCount = productCount;
+        this.attendantCount = attendantCount;
+        this.seed = seed;
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        this.threads = threads;
+        this.replace = replace;
+    }
+
+    /**
+     * Generate and insert the configured data set
+     * @param args Application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (attendantCount > SyntheticData.MAX_ATTENDANTS) {
+            throw new IllegalStateException("app.seed.attendants may be at most " + SyntheticData.MAX_ATTENDANTS);
+        }
+        if (!replace && (rowCount("products") > 0 || rowCount("attendants") > 0)) {
+            log.warn("Seed skipped: products or attendants already has rows "
+                    + "(set app.seed.replace=true to replace them)");
+            return;
+        }
+        if (replace) {
+            jdbcTemplate.execute("TRUNCATE TABLE products");
+            jdbcTemplate.execute("TRUNCATE TABLE attendants");
+            // Truncated rows leave no deletions in the change log, so every client that synced before
+            // must resync fully. New entries are numbered on from the numbering watermark
+            changeLog.raisePurgedThrough(changeLog.lastNumber() + 1);
+            jdbcTemplate.execute("DELETE FROM change_log");
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "seed-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            long started = System.nanoTime();
+            generate("products", PRODUCT_INSERT, productCount, data::product, pool);
+            generate("attendants", ATTENDANT_INSERT, attendantCount, data::attendant, pool);
+            log.info("Seeded {} rows in {} ms (seed {})", productCount + attendantCount,
+                    (System.nanoTime() - started) / 1_000_000, seed);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // IDs were supplied explicitly, so move both ID sources past them
+        schemaUpgradeRunner.seedIdGenerator("products", "products", Product.ID_ALLOCATION_SIZE);
+        restartAttendantIds(attendantCount + 1);
+        schemaUpgradeRunner.backfillChangeLog();
+        changeLog.requestNumbering();
+    }
+
+    /**
+     * Generate one table's rows in parallel chunks and wait for all of them
+     */
+    private void generate(String table, String sql, long count, RowFactory factory, ExecutorService pool) {
+        long started = System.nanoTime();
+        List<Future<?>> chunks = new ArrayList<>();
+        for (long first = 1; first <= count; first += chunkSize) {
+            long chunk = (first - 1) / chunkSize;
+            long firstId = first;
+            long lastId = Math.min(count, first + chunkSize - 1);
+            chunks.add(pool.submit(() -> insertChunk(sql, factory, chunk, firstId, lastId)));
+        }
+
+        try {
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Seeding " + table + " was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Seeding " + table + " failed", e.getCause());
+        }
+
+        double seconds = Math.max(1e-9, (System.nanoTime() - started) / 1e9);
+        log.info("Seeded {} {} in {} s ({} rows/s)", count, table,
+                String.format("%.2f", seconds), Math.round(count / seconds));
+    }
+
+    /**
+     * Build one chunk of rows from its own random source and insert it in batches
+     */
+    private void insertChunk(String sql, RowFactory factory, long chunk, long firstId, long lastId) {
+        SplittableRandom random = new SplittableRandom(seed + chunk * CHUNK_SEED_STEP);
+        List<Object[]> rows = new ArrayList<>((int) (lastId - firstId + 1));
+        for (long id = firstId; id <= lastId; id++) {
+            rows.add(factory.row(id, random));
+        }
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + batchSize, rows.size())));
+        }
+    }
+
+    private long rowCount(String table) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * MySQL moves AUTO_INCREMENT past explicitly inserted IDs by itself; H2 identity columns do not
+     */
+    private void restartAttendantIds(long next) {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if ("H2".equals(database)) {
+            jdbcTemplate.execute("ALTER TABLE attendants ALTER COLUMN id RESTART WITH " + next);
+        }
+    }
+
+    /**
+     * Builds the insert parameters for one row
+     */
+    @FunctionalInterface
+    private interface RowFactory {
+        Object[] row(long id, SplittableRandom random);
+    }
+}
@@ -0,0 +1,44 @@
+package com.otago.practical4backend.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate Row Count
+ * Caches the result of a COUNT query for a short time so paged listings can
+ * report a total without running COUNT(*) on every request
+ */
+public class ApproximateCount {
+
+    private final LongSupplier counter;
+    private final long ttlNanos;
+
+    private volatile long value;
+    private volatile long refreshedAt;
+    private volatile boolean loaded;
+
+    /**
+     * Create an approximate counter
+     * @param counter Exact (expensive) count to cache
+     * @param ttlMillis How long a cached count may be reused
+     */
+    public ApproximateCount(LongSupplier counter, long ttlMillis) {
+        this.counter = counter;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * Get the cached count, refreshing it if it has expired
+     * Concurrent refreshes are harmless, the last one wins
+     * @return Approximate row count
+     */
+    public long get() {
+        long now = System.nanoTime();
+        if (!loaded || now - refreshedAt > ttlNanos) {
+            value = counter.getAsLong();
+            refreshedAt = now;
+            loaded = true;
+        }
+        return value;
+    }
+}
@@ -1,54 +1,267 @@
 package com.otago.practical4backend.service;
 
+import com.otago.practical4backend.cache.EntityCache;
+import com.otago.practical4backend.cache.SecondLevelCache;
+import com.otago.practical4backend.dto.BulkWriteResult;
+import com.otago.practical4backend.dto.ChangeFeed;
+import com.otago.practical4backend.dto.CursorPage;
+import com.otago.practical4backend.dto.FieldPatch;
+import com.otago.practical4backend.dto.MultiGetResult;
+import com.otago.practical4backend.dto.TableVersion;
+import com.otago.practical4backend.event.AttendantChangePublisher;
+import com.otago.practical4backend.index.AttendantContactFilter;
+import com.otago.practical4backend.index.AttendantNameIndex;
 import com.otago.practical4backend.model.Attendant;
 import com.otago.practical4backend.repository.AttendantRepository;
+import com.otago.practical4backend.validation.AttendantValidator;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Attendant Service Class
  * Contains business logic for attendant operations
  * Implements service layer pattern to separate business logic from controllers
+ * Read methods run read-only: Hibernate skips dirty checking and snapshots, and with a replica
+ * configured (app.datasource.replica.url) their queries are routed to it
  */
 @Service
 @Transactional
+@Timed("app.service")
 public class AttendantService {
 
+    /** Fields a client may select with ?fields= */
+    private static final FieldProjection<Attendant> FIELDS = new FieldProjection<>(Attendant.class, Attendant::getId)
+            .field("name", Attendant::getName)
+            .field("address", Attendant::getAddress)
+            .field("mobile", Attendant::getMobile)
+            .field("email", Attendant::getEmail)
+            .field("comments", Attendant::getComments)
+            .field("version", Attendant::getVersion);
+
     private final AttendantRepository attendantRepository;
+    private final AttendantValidator attendantValidator;
+    private final EntityManager entityManager;
+    private final EntityCache<Attendant> attendantCache;
+    private final AttendantChangePublisher changePublisher;
+    private final AttendantNameIndex nameIndex;
+    private final AttendantContactFilter contactFilter;
+    private final KeysetPagination keysetPagination;
+    private final DeltaSync deltaSync;
+    private final BulkWriter bulkWriter;
+    private final JdbcTemplate jdbcTemplate;
+    private final SecondLevelCache secondLevelCache;
+    private final ApproximateCount approximateAttendantCount;
+    private final int maxMultiGetIds;
 
-    // Email validation pattern
-    private static final Pattern EMAIL_PATTERN =
-            Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    // Duplicate contact errors, shared because they carry no per-request state
+    private static final DuplicateContactException DUPLICATE_EMAIL =
+            new DuplicateContactException("Email already exists");
+    private static final DuplicateContactException DUPLICATE_MOBILE =
+            new DuplicateContactException("Mobile number already exists");
 
     /**
      * Constructor injection for AttendantRepository
      * @param attendantRepository Repository for attendant data access
+     * @param attendantValidator Validates attendants before they are written
+     * @param entityManager Shared entity manager, used to detach rows while streaming
+     * @param attendantCache Read-through cache for lookups by ID
+     * @param changePublisher Publishes committed attendant changes to caches and indexes
+     * @param nameIndex In-memory trigram index serving name search
+     * @param contactFilter Bloom filter of existing emails and mobiles, to skip duplicate checks
+     * @param keysetPagination Helper for cursor-based listings
+     * @param deltaSync Helper for change-feed listings
+     * @param bulkWriter Runs bulk updates and deletes as JDBC batches
+     * @param jdbcTemplate Runs single-row partial updates
+     * @param secondLevelCache Evicts rows updated with JDBC
+     * @param countTtlMillis How long the approximate total of a listing may be reused
+     * @param maxMultiGetIds Most IDs one multi-get request may ask for
      */
     @Autowired
-    public AttendantService(AttendantRepository attendantRepository) {
+    public AttendantService(AttendantRepository attendantRepository,
+                            AttendantValidator attendantValidator,
+                            EntityManager entityManager,
+                            EntityCache<Attendant> attendantCache,
+                            AttendantChangePublisher changePublisher,
+                            AttendantNameIndex nameIndex,
+                            AttendantContactFilter contactFilter,
+                            KeysetPagination keysetPagination,
+                            DeltaSync deltaSync,
+                            BulkWriter bulkWriter,
+                            JdbcTemplate jdbcTemplate,
+                            SecondLevelCache secondLevelCache,
+                            @Value("${app.pagination.count-cache-ttl-ms:30000}") long countTtlMillis,
+                            @Value("${app.multi-get.max-ids:10000}") int maxMultiGetIds) {
         this.attendantRepository = attendantRepository;
+        this.attendantValidator = attendantValidator;
+        this.entityManager = entityManager;
+        this.attendantCache = attendantCache;
+        this.changePublisher = changePublisher;
+        this.nameIndex = nameIndex;
+        this.contactFilter = contactFilter;
+        this.keysetPagination = keysetPagination;
+        this.deltaSync = deltaSync;
+        this.bulkWriter = bulkWriter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.secondLevelCache = secondLevelCache;
+        this.approximateAttendantCount = new ApproximateCount(attendantRepository::count, countTtlMillis);
+        this.maxMultiGetIds = maxMultiGetIds;
     }
 
     /**
      * Get all attendants from the database
      * @return List of all attendants
      */
+    @Transactional(readOnly = true)
     public List<Attendant> getAllAttendants() {
         return attendantRepository.findAll();
     }
 
+    /**
+     * Get selected fields of every attendant
+     * Only the requested columns are read, and no entities are loaded into the persistence context
+     * @param fields Comma-separated fields to return, e.g. "id,name" (the ID is always included)
+     * @return One map per attendant, in ID order
+     * @throws IllegalArgumentException if a field is not selectable
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllAttendants(String fields) {
+        return FIELDS.select(entityManager, FIELDS.parse(fields), null, 0);
+    }
+
+    /**
+     * Export every attendant in ID order with constant memory use
+     * Rows are read through a database cursor and detached from the persistence
+     * context as soon as the sink has consumed them, so the first-level cache never grows
+     * @param sink Receives each attendant in turn
+     * @return Number of attendants exported
+     */
+    @Transactional(readOnly = true)
+    public long exportAttendants(Consumer<Attendant> sink) {
+        long exported = 0;
+        try (Stream<Attendant> attendants = attendantRepository.streamAllOrderById()) {
+            Iterator<Attendant> iterator = attendants.iterator();
+            while (iterator.hasNext()) {
+                Attendant attendant = iterator.next();
+                sink.accept(attendant);
+                entityManager.detach(attendant);
+                exported++;
+            }
+        }
+        return exported;
+    }
+
+    /**
+     * Get one page of attendants ordered by ID using keyset pagination
+     * @param cursor Opaque cursor from the previous page, or null for the first page
+     * @param limit Requested page size, or null for the default
+     * @param includeTotal Whether to report an approximate total row count
+     * @return Page of attendants with the cursor for the next page
+     * @throws IllegalArgumentException if the cursor or limit is invalid
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Attendant> getAttendantsPage(String cursor, Integer limit, boolean includeTotal) {
+        return keysetPagination.page(cursor, limit,
+                attendantRepository::findPageAfter,
+                Attendant::getId,
+                includeTotal ? approximateAttendantCount::get : null);
+    }
+
+    /**
+     * Get selected fields of one page of attendants ordered by ID using keyset pagination
+     * @param cursor Opaque cursor from the previous page, or null for the first page
+     * @param limit Requested page size, or null for the default
+     * @param includeTotal Whether to report an approximate total row count
+     * @param fields Comma-separated fields to return, e.g. "id,name" (the ID is always included)
+     * @return Page of attendant rows with the cursor for the next page
+     * @throws IllegalArgumentException if the cursor, limit or a field is invalid
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Map<String, Object>> getAttendantsPage(String cursor, Integer limit, boolean includeTotal,
+                                                             String fields) {
+        List<String> selected = FIELDS.parse(fields);
+        return keysetPagination.page(cursor, limit,
+                (after, pageable) -> FIELDS.select(entityManager, selected,
+                        (cb, root) -> cb.gt(root.<Long>get("id"), after), pageable.getPageSize()),
+                row -> (Long) row.get("id"),
+                includeTotal ? approximateAttendantCount::get : null);
+    }
+
+    /**
+     * Get the attendants created, updated or deleted after a change number (delta sync)
+     * The cost follows the number of changes returned, not the size of the table.
+     * Runs its own read-only transaction on the primary (see DeltaSync)
+     * @param since Last change number the client has seen, or 0 for a full sync
+     * @param limit Requested page size, or null for the default
+     * @return Changed attendants and deletions in change order, with the number to continue from
+     * @throws IllegalArgumentException if since is negative or the limit is invalid
+     */
+    public ChangeFeed<Attendant> getAttendantChanges(long since, Integer limit) {
+        return deltaSync.changesSince(Attendant.class, "attendants", since, limit);
+    }
+
     /**
      * Get a specific attendant by ID
+     * Served from the in-process cache when possible; only misses reach the database.
+     * Does not start a transaction of its own, so a cache hit never borrows a connection
      * @param id Attendant ID to search for
      * @return Optional containing attendant if found
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<Attendant> getAttendantById(Long id) {
-        return attendantRepository.findById(id);
+        return attendantCache.get(id, attendantRepository::findById);
+    }
+
+    /**
+     * Get many attendants by ID in one call
+     * Cached attendants are served from memory; the misses are loaded with chunked IN (...) queries,
+     * and without a transaction of its own an all-hit request never borrows a connection
+     * @param ids Requested IDs; repeats are returned once, at their first position
+     * @return Attendants in request order, plus the IDs that do not exist
+     * @throws IllegalArgumentException if no IDs or too many IDs are given
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public MultiGetResult<Attendant> getAttendantsByIds(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("At least one ID is required");
+        }
+        if (requested.size() > maxMultiGetIds) {
+            throw new IllegalArgumentException("At most " + maxMultiGetIds + " IDs may be requested at once");
+        }
+
+        Map<Long, Attendant> found = attendantCache.getAll(requested, attendantRepository::findAllById, Attendant::getId);
+        List<Attendant> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            Attendant attendant = found.get(id);
+            if (attendant != null) {
+                items.add(attendant);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new MultiGetResult<>(items, missing);
     }
 
     /**
@@ -58,52 +271,36 @@ public class AttendantService {
      */
     public Attendant createAttendant(Attendant attendant) {
         // Validate attendant data before saving
-        validateAttendant(attendant);
+        attendantValidator.validate(attendant);
 
-        // Check for duplicate email
-        if (attendant.getEmail() != null && !attendant.getEmail().isEmpty()) {
-            if (attendantRepository.existsByEmail(attendant.getEmail())) {
-                throw new IllegalArgumentException("Email already exists");
-            }
-        }
-
-        // Check for duplicate mobile
-        if (attendant.getMobile() != null && !attendant.getMobile().isEmpty()) {
-            if (attendantRepository.existsByMobile(attendant.getMobile())) {
-                throw new IllegalArgumentException("Mobile number already exists");
-            }
+        // Unique constraints on the normalized columns catch duplicates, even between concurrent creates
+        checkLikelyDuplicates(attendant.getEmail(), attendant.getMobile(), null);
+        try {
+            // IDENTITY ids make the INSERT run immediately, so a violation surfaces here
+            Attendant saved = attendantRepository.save(attendant);
+            changePublisher.changed(saved);
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicate(e);
         }
-
-        return attendantRepository.save(attendant);
     }
 
     /**
      * Update an existing attendant
      * @param id Attendant ID to update
      * @param attendantDetails Updated attendant details
+     * @param expectedVersion Version from the client's If-Match header, or null to update unconditionally
      * @return Updated attendant or null if not found
+     * @throws PreconditionFailedException if the attendant is no longer at the expected version
      */
-    public Attendant updateAttendant(Long id, Attendant attendantDetails) {
+    public Attendant updateAttendant(Long id, Attendant attendantDetails, Long expectedVersion) {
         Optional<Attendant> optionalAttendant = attendantRepository.findById(id);
 
         if (optionalAttendant.isPresent()) {
             Attendant attendant = optionalAttendant.get();
+            checkVersion(attendant, expectedVersion);
 
-            // Check for duplicate email (excluding current attendant)
-            if (attendantDetails.getEmail() != null &&
-                    !attendantDetails.getEmail().equals(attendant.getEmail())) {
-                if (attendantRepository.existsByEmail(attendantDetails.getEmail())) {
-                    throw new IllegalArgumentException("Email already exists");
-                }
-            }
-
-            // Check for duplicate mobile (excluding current attendant)
-            if (attendantDetails.getMobile() != null &&
-                    !attendantDetails.getMobile().equals(attendant.getMobile())) {
-                if (attendantRepository.existsByMobile(attendantDetails.getMobile())) {
-                    throw new IllegalArgumentException("Mobile number already exists");
-                }
-            }
+            checkLikelyDuplicates(attendantDetails.getEmail(), attendantDetails.getMobile(), id);
 
             // Update attendant fields
             attendant.setName(attendantDetails.getName());
@@ -113,32 +310,174 @@ public class AttendantService {
             attendant.setComments(attendantDetails.getComments());
 
             // Validate before saving
-            validateAttendant(attendant);
+            attendantValidator.validate(attendant);
 
-            return attendantRepository.save(attendant);
+            try {
+                // Flush now so a unique constraint violation surfaces here rather than at commit
+                Attendant saved = attendantRepository.saveAndFlush(attendant);
+                changePublisher.changed(saved);
+                return saved;
+            } catch (DataIntegrityViolationException e) {
+                throw translateDuplicate(e);
+            }
         }
 
         return null;
     }
 
+    /**
+     * Partially update an attendant
+     * Only the given fields are validated and written, in one UPDATE without reading the row first
+     * @param id Attendant ID to update
+     * @param changes Attendant carrying the new values
+     * @param fields Names of the fields present in the request; all other fields are left unchanged
+     * @param expectedVersion Version from the client's If-Match header, or null to update unconditionally
+     * @return Updated attendant or null if not found
+     * @throws PreconditionFailedException if the attendant is no longer at the expected version
+     */
+    public Attendant patchAttendant(Long id, Attendant changes, Set<String> fields, Long expectedVersion) {
+        attendantValidator.validateFields(changes, fields);
+
+        PartialUpdate update = new PartialUpdate("attendants", Attendant.class);
+        for (String field : fields) {
+            switch (field) {
+                case "name" -> update.set("name", changes.getName());
+                case "address" -> update.set("address", changes.getAddress());
+                case "mobile" -> {
+                    checkLikelyDuplicates(null, changes.getMobile(), id);
+                    // JDBC updates skip entity callbacks, so the normalized column is set explicitly
+                    update.set("mobile", changes.getMobile());
+                    update.set("mobile_normalized", Attendant.normalizeMobile(changes.getMobile()));
+                }
+                case "email" -> {
+                    checkLikelyDuplicates(changes.getEmail(), null, id);
+                    update.set("email", changes.getEmail());
+                    update.set("email_normalized", Attendant.normalizeEmail(changes.getEmail()));
+                }
+                case "comments" -> update.set("comments", changes.getComments());
+                default -> throw new IllegalArgumentException("Field cannot be updated: " + field);
+            }
+        }
+
+        if (update.isEmpty()) {
+            Optional<Attendant> current = attendantRepository.findById(id);
+            current.ifPresent(existing -> checkVersion(existing, expectedVersion));
+            return current.orElse(null);
+        }
+        try {
+            if (update.execute(jdbcTemplate, secondLevelCache, id, expectedVersion) == 0) {
+                // Either missing, or at another version than the client expected
+                attendantRepository.findById(id).ifPresent(existing -> checkVersion(existing, expectedVersion));
+                return null;
+            }
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicate(e);
+        }
+        // Read back the full row by primary key for the response, caches and indexes
+        Attendant saved = attendantRepository.findById(id).orElse(null);
+        if (saved != null) {
+            changePublisher.changed(saved);
+        }
+        return saved;
+    }
+
+    /**
+     * Apply many partial updates in one transaction
+     * Each item is validated on its own and reported separately; valid items are written with
+     * batched UPDATEs, one statement per set of changed columns, without reading the rows first.
+     * Caches and indexes reload the updated rows after commit
+     * @param patches Items in request order
+     * @return Outcome of every item
+     * @throws IllegalArgumentException if there are no items or more than app.bulk.max-items,
+     *         or if two items give the same email or mobile
+     */
+    public BulkWriteResult patchAttendants(List<FieldPatch<Attendant>> patches) {
+        bulkWriter.checkSize(patches.size());
+        BulkWriteResult result = new BulkWriteResult();
+        BulkWriter.Update update = bulkWriter.update("attendants", Attendant.class);
+
+        for (int i = 0; i < patches.size(); i++) {
+            Attendant changes = patches.get(i).changes();
+            Set<String> fields = patches.get(i).fields();
+            try {
+                attendantValidator.validateFields(changes, fields);
+                // Sorted, so items changing the same columns share a statement whatever their JSON order
+                Map<String, Object> columns = new TreeMap<>();
+                for (String field : fields) {
+                    switch (field) {
+                        case "name" -> columns.put("name", changes.getName());
+                        case "address" -> columns.put("address", changes.getAddress());
+                        case "mobile" -> {
+                            checkLikelyDuplicates(null, changes.getMobile(), changes.getId());
+                            columns.put("mobile", changes.getMobile());
+                            columns.put("mobile_normalized", Attendant.normalizeMobile(changes.getMobile()));
+                        }
+                        case "email" -> {
+                            checkLikelyDuplicates(changes.getEmail(), null, changes.getId());
+                            columns.put("email", changes.getEmail());
+                            columns.put("email_normalized", Attendant.normalizeEmail(changes.getEmail()));
+                        }
+                        case "comments" -> columns.put("comments", changes.getComments());
+                        default -> throw new IllegalArgumentException("Field cannot be updated: " + field);
+                    }
+                }
+                update.add(i, changes.getId(), columns);
+            } catch (IllegalArgumentException e) {
+                result.record(i, changes.getId(), BulkWriteResult.Status.INVALID, e.getMessage());
+            }
+        }
+
+        try {
+            changePublisher.changedIds(update.execute(result));
+        } catch (DataIntegrityViolationException e) {
+            // Two items in this request claimed the same contact; the whole batch is rolled back
+            throw translateDuplicate(e);
+        }
+        return result;
+    }
+
     /**
      * Delete an attendant by ID
      * @param id Attendant ID to delete
+     * @param expectedVersion Version from the client's If-Match header, or null to delete unconditionally
      * @return true if deleted successfully, false if not found
+     * @throws PreconditionFailedException if the attendant is no longer at the expected version
      */
-    public boolean deleteAttendant(Long id) {
-        if (attendantRepository.existsById(id)) {
-            attendantRepository.deleteById(id);
-            return true;
+    public boolean deleteAttendant(Long id, Long expectedVersion) {
+        // findById is usually served by the second-level cache, unlike an existsById count query
+        Optional<Attendant> existing = attendantRepository.findById(id);
+        if (existing.isEmpty()) {
+            return false;
         }
-        return false;
+        checkVersion(existing.get(), expectedVersion);
+        // Deleting the loaded entity makes Hibernate check the version again in the DELETE
+        attendantRepository.delete(existing.get());
+        changePublisher.deleted(id);
+        return true;
+    }
+
+    /**
+     * Delete many attendants in one transaction with a batched DELETE
+     * @param ids Attendant IDs in request order
+     * @return Outcome of every ID
+     * @throws IllegalArgumentException if there are no IDs or more than app.bulk.max-items
+     */
+    public BulkWriteResult deleteAttendants(List<Long> ids) {
+        BulkWriteResult result = new BulkWriteResult();
+        for (Long id : bulkWriter.delete("attendants", Attendant.class, ids, result)) {
+            changePublisher.deleted(id);
+        }
+        return result;
     }
 
     /**
      * Find attendant by email
+     * Always queries: the contact filter learns of a new attendant only after its commit has been
+     * published (and never of another instance's writes), so its "definitely absent" can be wrong
      * @param email Email to search for
      * @return Optional containing attendant if found
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<Attendant> getAttendantByEmail(String email) {
         return attendantRepository.findByEmail(email);
     }
@@ -146,36 +485,117 @@ public class AttendantService {
     /**
      * Search attendants by name
      * @param keyword Keyword to search in attendant names
-     * @return List of matching attendants
+     * @return List of matching attendants in ID order
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Attendant> searchAttendantsByName(String keyword) {
-        return attendantRepository.findByNameContainingIgnoreCase(keyword);
+        // Case-insensitive substring match on the trigram index instead of LIKE '%keyword%'
+        long[] ids = nameIndex.search(keyword);
+        if (ids == null) {
+            return attendantRepository.findByNameContainingIgnoreCase(keyword);
+        }
+        return findAllInOrder(ids);
     }
 
     /**
-     * Validate attendant data
-     * @param attendant Attendant to validate
-     * @throws IllegalArgumentException if validation fails
+     * Get selected fields of the attendants whose names contain a keyword
+     * @param keyword Keyword to search in attendant names
+     * @param fields Comma-separated fields to return, e.g. "id,name" (the ID is always included)
+     * @return One map per matching attendant, in ID order
+     * @throws IllegalArgumentException if a field is not selectable
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Map<String, Object>> searchAttendantsByName(String keyword, String fields) {
+        List<String> selected = FIELDS.parse(fields);
+        long[] ids = nameIndex.search(keyword);
+        if (ids == null) {
+            return FIELDS.select(entityManager, selected, FIELDS.containingIgnoreCase("name", keyword), 0);
+        }
+        return FIELDS.selectByIds(entityManager, selected, ids);
+    }
+
+    /**
+     * Fingerprint the attendants table, used for collection ETags
+     * @return Row count, highest ID and version sum
+     */
+    @Transactional(readOnly = true)
+    public TableVersion getAttendantsVersion() {
+        return attendantRepository.probeVersion();
+    }
+
+    private void checkVersion(Attendant attendant, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(attendant.getVersion())) {
+            throw new PreconditionFailedException("Attendant", attendant.getId(), attendant.getVersion());
+        }
+    }
+
+    /**
+     * Load attendants by ID, keeping the given order and skipping IDs that no longer exist
+     * Cached attendants are used first; only the misses are fetched, in chunked IN (...) queries
+     * @param ids Attendant IDs
+     * @return Attendants in the order of the IDs
      */
-    private void validateAttendant(Attendant attendant) {
-        if (attendant.getName() == null || attendant.getName().trim().isEmpty()) {
-            throw new IllegalArgumentException("Attendant name is required");
+    private List<Attendant> findAllInOrder(long[] ids) {
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        Map<Long, Attendant> found = attendantCache.getAll(idList, attendantRepository::findAllById, Attendant::getId);
+        List<Attendant> result = new ArrayList<>(found.size());
+        for (Long id : idList) {
+            Attendant attendant = found.get(id);
+            if (attendant != null) {
+                result.add(attendant);
+            }
         }
+        return result;
+    }
 
-        // Validate email format if provided
-        if (attendant.getEmail() != null && !attendant.getEmail().isEmpty()) {
-            if (!EMAIL_PATTERN.matcher(attendant.getEmail()).matches()) {
-                throw new IllegalArgumentException("Invalid email format");
+    /**
+     * Reject contacts that already belong to another attendant, querying only when the
+     * Bloom filter says a value might exist
+     * This just gives a clean error for the common case; the unique constraints are the guarantee
+     * @param email Email being written, or null if unchanged
+     * @param mobile Mobile number being written, or null if unchanged
+     * @param id ID of the attendant being updated, or null for a new attendant
+     * @throws DuplicateContactException if a duplicate is found
+     */
+    private void checkLikelyDuplicates(String email, String mobile, Long id) {
+        String normalizedEmail = Attendant.normalizeEmail(email);
+        if (normalizedEmail != null && contactFilter.mightContainEmail(normalizedEmail)) {
+            boolean exists = id == null
+                    ? attendantRepository.existsByEmailNormalized(normalizedEmail)
+                    : attendantRepository.existsByEmailNormalizedAndIdNot(normalizedEmail, id);
+            if (exists) {
+                throw DUPLICATE_EMAIL;
             }
         }
 
-        // Validate mobile number if provided (basic validation)
-        if (attendant.getMobile() != null && !attendant.getMobile().isEmpty()) {
-            // Remove spaces and hyphens for validation
-            String cleanMobile = attendant.getMobile().replaceAll("[\\s-]", "");
-            if (!cleanMobile.matches("^[0-9+]{7,15}$")) {
-                throw new IllegalArgumentException("Invalid mobile number format");
+        String normalizedMobile = Attendant.normalizeMobile(mobile);
+        if (normalizedMobile != null && contactFilter.mightContainMobile(normalizedMobile)) {
+            boolean exists = id == null
+                    ? attendantRepository.existsByMobileNormalized(normalizedMobile)
+                    : attendantRepository.existsByMobileNormalizedAndIdNot(normalizedMobile, id);
+            if (exists) {
+                throw DUPLICATE_MOBILE;
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Turn a unique constraint violation into the matching validation error
+     * @param e Exception raised by the insert or update
+     * @return Validation error to throw, or the original exception if it was not a duplicate contact
+     */
+    private RuntimeException translateDuplicate(RuntimeException e) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+        String message = String.valueOf(cause.getMessage()).toLowerCase(Locale.ROOT);
+        if (message.contains(Attendant.EMAIL_UNIQUE_CONSTRAINT)) {
+            return DUPLICATE_EMAIL;
+        }
+        if (message.contains(Attendant.MOBILE_UNIQUE_CONSTRAINT)) {
+            return DUPLICATE_MOBILE;
+        }
+        return e;
+    }
+}
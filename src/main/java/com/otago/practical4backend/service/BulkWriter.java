@@ -0,0 +1,221 @@
+package com.otago.practical4backend.service;
+
+import com.otago.practical4backend.cache.SecondLevelCache;
+import com.otago.practical4backend.dto.BulkWriteResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk Writer
+ * Runs bulk PATCH and DELETE requests as JDBC batches instead of one read and one write per row.
+ * Items that change the same columns share one prepared "UPDATE ... WHERE id = ?" statement,
+ * and the driver's per-statement update counts tell which IDs existed, so no row is read first.
+ * Statements join the caller's transaction; the written rows are evicted from the second-level cache
+ */
+@Component
+public class BulkWriter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SecondLevelCache secondLevelCache;
+    private final int maxItems;
+    private final int batchSize;
+
+    /**
+     * Constructor with limits from application.properties
+     * @param jdbcTemplate JDBC access sharing the JPA transaction's connection
+     * @param secondLevelCache Evicts rows Hibernate did not see being written
+     * @param maxItems Largest number of items one request may contain
+     * @param batchSize Number of statements sent per JDBC batch
+     */
+    public BulkWriter(JdbcTemplate jdbcTemplate,
+                      SecondLevelCache secondLevelCache,
+                      @Value("${app.bulk.max-items:10000}") int maxItems,
+                      @Value("${app.bulk.jdbc-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.secondLevelCache = secondLevelCache;
+        this.maxItems = maxItems;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Reject requests that are empty or larger than the configured maximum
+     * @param items Number of items in the request
+     * @throws IllegalArgumentException if the request is empty or too large
+     */
+    public void checkSize(int items) {
+        if (items == 0) {
+            throw new IllegalArgumentException("At least one item is required");
+        }
+        if (items > maxItems) {
+            throw new IllegalArgumentException("At most " + maxItems + " items may be sent at once");
+        }
+    }
+
+    /**
+     * Start a bulk update of a table
+     * @param table Table name
+     * @param entityType Entity mapped to the table
+     * @return Update to add items to
+     */
+    public Update update(String table, Class<?> entityType) {
+        return new Update(table, entityType);
+    }
+
+    /**
+     * Delete rows by ID with a batched "DELETE ... WHERE id = ?"
+     * Null and repeated IDs are recorded as invalid and skipped
+     * @param table Table name
+     * @param entityType Entity mapped to the table
+     * @param ids IDs in request order
+     * @param result Receives one outcome per ID
+     * @return IDs that were deleted
+     */
+    public List<Long> delete(String table, Class<?> entityType, List<Long> ids, BulkWriteResult result) {
+        checkSize(ids.size());
+        Set<Long> seen = new HashSet<>();
+        List<Integer> indexes = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                result.record(i, null, BulkWriteResult.Status.INVALID, "Missing id");
+            } else if (!seen.add(id)) {
+                result.record(i, id, BulkWriteResult.Status.INVALID, "Duplicate id");
+            } else {
+                indexes.add(i);
+                rows.add(new Object[]{id});
+            }
+        }
+
+        List<Long> deleted = new ArrayList<>();
+        int[] counts = execute("DELETE FROM " + table + " WHERE id = ?", rows);
+        for (int i = 0; i < counts.length; i++) {
+            Long id = (Long) rows.get(i)[0];
+            if (applied(counts[i])) {
+                result.record(indexes.get(i), id, BulkWriteResult.Status.DELETED, null);
+                deleted.add(id);
+            } else {
+                result.record(indexes.get(i), id, BulkWriteResult.Status.NOT_FOUND, "Not found");
+            }
+        }
+        secondLevelCache.evictAfterWrite(entityType, deleted);
+        result.sortByIndex();
+        return deleted;
+    }
+
+    /**
+     * Run a statement once per row, batchSize rows per JDBC batch
+     */
+    private int[] execute(String sql, List<Object[]> rows) {
+        int[] counts = new int[rows.size()];
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<Object[]> chunk = rows.subList(from, Math.min(from + batchSize, rows.size()));
+            int[] chunkCounts = jdbcTemplate.batchUpdate(sql, chunk);
+            System.arraycopy(chunkCounts, 0, counts, from, chunkCounts.length);
+        }
+        return counts;
+    }
+
+    private static boolean applied(int count) {
+        // Some drivers only report that a batched statement succeeded, not how many rows it touched
+        return count > 0 || count == Statement.SUCCESS_NO_INFO;
+    }
+
+    /**
+     * One bulk update, grouping items by the set of columns they change
+     */
+    public final class Update {
+
+        private final String table;
+        private final Class<?> entityType;
+        private final Map<List<String>, Group> groups = new LinkedHashMap<>();
+        private final Set<Long> seen = new HashSet<>();
+        private final Timestamp updatedAt = Timestamp.from(Instant.now());
+
+        private Update(String table, Class<?> entityType) {
+            this.table = table;
+            this.entityType = entityType;
+        }
+
+        /**
+         * Add an item
+         * @param index Zero-based position of the item in the request body
+         * @param id Row to update
+         * @param columns New values by column name, in a stable order
+         * @throws IllegalArgumentException if the ID is missing, repeated, or nothing is changed
+         */
+        public void add(int index, Long id, Map<String, Object> columns) {
+            if (id == null) {
+                throw new IllegalArgumentException("Missing id");
+            }
+            if (columns.isEmpty()) {
+                throw new IllegalArgumentException("No fields to update");
+            }
+            if (!seen.add(id)) {
+                throw new IllegalArgumentException("Duplicate id");
+            }
+            Object[] row = new Object[columns.size() + 2];
+            int i = 0;
+            for (Object value : columns.values()) {
+                row[i++] = value;
+            }
+            row[i++] = updatedAt;
+            row[i] = id;
+            Group group = groups.computeIfAbsent(List.copyOf(columns.keySet()), key -> new Group());
+            group.indexes.add(index);
+            group.rows.add(row);
+        }
+
+        /**
+         * Run one batched statement per column group, bumping each row's version and change time
+         * @param result Receives one outcome per added item
+         * @return IDs that were updated
+         */
+        public List<Long> execute(BulkWriteResult result) {
+            List<Long> updated = new ArrayList<>();
+            for (Map.Entry<List<String>, Group> entry : groups.entrySet()) {
+                StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+                for (String column : entry.getKey()) {
+                    sql.append(column).append(" = ?, ");
+                }
+                sql.append("updated_at = ?, version = version + 1 WHERE id = ?");
+
+                Group group = entry.getValue();
+                int[] counts = BulkWriter.this.execute(sql.toString(), group.rows);
+                for (int i = 0; i < counts.length; i++) {
+                    Object[] row = group.rows.get(i);
+                    Long id = (Long) row[row.length - 1];
+                    if (applied(counts[i])) {
+                        result.record(group.indexes.get(i), id, BulkWriteResult.Status.UPDATED, null);
+                        updated.add(id);
+                    } else {
+                        result.record(group.indexes.get(i), id, BulkWriteResult.Status.NOT_FOUND, "Not found");
+                    }
+                }
+            }
+            secondLevelCache.evictAfterWrite(entityType, updated);
+            result.sortByIndex();
+            return updated;
+        }
+    }
+
+    /**
+     * Items that change the same columns
+     */
+    private static final class Group {
+
+        private final List<Integer> indexes = new ArrayList<>();
+        private final List<Object[]> rows = new ArrayList<>();
+    }
+}
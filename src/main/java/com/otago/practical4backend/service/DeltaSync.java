@@ -0,0 +1,115 @@
+package com.otago.practical4backend.service;
+
+import com.otago.practical4backend.dto.ChangeFeed;
+import com.otago.practical4backend.event.ChangeLog;
+import com.otago.practical4backend.model.ChangeLogEntry;
+import com.otago.practical4backend.routing.PrimaryReads;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delta Sync Helper
+ * Answers "what changed since change number n" by walking the change log from n, joined to the
+ * current rows, through the (table_name, change_number) index.
+ *
+ * Change numbers are given out after commit, in the order they become visible (see ChangeLog), so
+ * nextSince never moves past a change that may still appear
+ */
+@Component
+public class DeltaSync {
+
+    private final EntityManager entityManager;
+    private final ChangeLog changeLog;
+    private final KeysetPagination keysetPagination;
+    private final TransactionTemplate readTransaction;
+
+    /**
+     * Constructor injection
+     * @param entityManager Shared entity manager
+     * @param changeLog Source of the deletion purge watermark
+     * @param keysetPagination Resolves the page size with the listing defaults and maximum
+     * @param transactionManager Transaction manager for the read
+     */
+    @Autowired
+    public DeltaSync(EntityManager entityManager,
+                     ChangeLog changeLog,
+                     KeysetPagination keysetPagination,
+                     PlatformTransactionManager transactionManager) {
+        this.entityManager = entityManager;
+        this.changeLog = changeLog;
+        this.keysetPagination = keysetPagination;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Fetch one page of changes
+     * Read from the primary, so a client sees its own changes as soon as they are numbered rather than
+     * once a replica catches up
+     * @param entityType Entity mapped to the table
+     * @param table Table the rows are stored in
+     * @param since Last change number the client has seen (0 for a full sync)
+     * @param limit Requested page size, may be null
+     * @param <T> Entity type
+     * @return Changes after the given number, at most limit of them
+     * @throws IllegalArgumentException if since is negative or the limit is not positive
+     */
+    public <T> ChangeFeed<T> changesSince(Class<T> entityType, String table, long since, Integer limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since must not be negative");
+        }
+        int size = keysetPagination.resolveLimit(limit);
+        return PrimaryReads.call(() -> readTransaction.execute(status -> read(entityType, table, since, size)));
+    }
+
+    private <T> ChangeFeed<T> read(Class<T> entityType, String table, long since, int size) {
+        if (since > 0 && since < changeLog.purgedThrough()) {
+            return ChangeFeed.resync(since);
+        }
+
+        // One extra entry so the last page reports hasMore=false
+        String entityName = entityManager.getMetamodel().entity(entityType).getName();
+        List<Object[]> entries = entityManager.createQuery(
+                        "SELECT c, e FROM ChangeLogEntry c LEFT JOIN " + entityName + " e ON e.id = c.entityId "
+                                + "WHERE c.tableName = :table AND c.changeNumber > :since ORDER BY c.changeNumber", Object[].class)
+                .setParameter("table", table)
+                .setParameter("since", since)
+                .setMaxResults(size + 1)
+                .getResultList();
+
+        Map<Long, T> changed = new LinkedHashMap<>();
+        Map<Long, ChangeFeed.Deletion> deleted = new LinkedHashMap<>();
+        long next = since;
+        int consumed = 0;
+        boolean hasMore = false;
+        for (Object[] row : entries) {
+            ChangeLogEntry entry = (ChangeLogEntry) row[0];
+            if (consumed == size) {
+                hasMore = true;
+                break;
+            }
+            consumed++;
+            next = entry.getChangeNumber();
+
+            // A row changed more than once in this page is sent once, in its current state
+            Long id = entry.getEntityId();
+            changed.remove(id);
+            if (entry.isDeleted()) {
+                deleted.put(id, new ChangeFeed.Deletion(id, entry.getChangeNumber(), entry.getChangedAt()));
+            } else if (row[1] != null) {
+                changed.put(id, entityType.cast(row[1]));
+            }
+            // A changed row that no longer exists has a deletion entry later in the log
+        }
+        return new ChangeFeed<>(new ArrayList<>(changed.values()), new ArrayList<>(deleted.values()),
+                next, hasMore, false);
+    }
+}
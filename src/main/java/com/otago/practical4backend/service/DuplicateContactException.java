@@ -0,0 +1,17 @@
+package com.otago.practical4backend.service;
+
+import com.otago.practical4backend.validation.ValidationException;
+
+import java.util.List;
+
+/**
+ * Thrown when an email or mobile number already belongs to another attendant
+ * A ValidationException, so the API answers it with the same 400 Bad Request and message as before,
+ * whether the duplicate was found up front or by the unique constraints after a concurrent write
+ */
+public class DuplicateContactException extends ValidationException {
+
+    public DuplicateContactException(String message) {
+        super(List.of(message));
+    }
+}
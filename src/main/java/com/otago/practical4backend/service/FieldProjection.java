@@ -0,0 +1,179 @@
+package com.otago.practical4backend.service;
+
+import com.otago.practical4backend.cache.EntityCache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Sparse fieldsets for list endpoints (?fields=id,name,price)
+ * Turns a field list into a "SELECT <columns> FROM ..." tuple query, so only the requested
+ * columns are read and no managed entities are created. Rows come back as ordered maps,
+ * which Jackson writes as JSON objects with just those properties
+ * @param <T> Entity type
+ */
+final class FieldProjection<T> {
+
+    private final Class<T> entityType;
+    private final Map<String, Function<T, Object>> accessors = new LinkedHashMap<>();
+
+    FieldProjection(Class<T> entityType, Function<T, Long> idOf) {
+        this.entityType = entityType;
+        field("id", idOf::apply);
+    }
+
+    /**
+     * Allow a field to be selected
+     * @param attribute Entity attribute name, also used as the JSON property name
+     * @param accessor Getter used to project entities that are already in memory
+     * @return This projection
+     */
+    FieldProjection<T> field(String attribute, Function<T, Object> accessor) {
+        accessors.put(attribute, accessor);
+        return this;
+    }
+
+    /**
+     * Parse the fields query parameter
+     * The ID is always selected first, since clients need it to address rows and cursors depend on it
+     * @param fields Comma-separated attribute names
+     * @return Selected attributes in request order, without duplicates
+     * @throws IllegalArgumentException if a name is not a selectable field
+     */
+    List<String> parse(String fields) {
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!accessors.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "'; selectable fields are "
+                        + String.join(", ", accessors.keySet()));
+            }
+            selected.add(name);
+        }
+        return List.copyOf(selected);
+    }
+
+    /**
+     * Project entities that are already in memory (index snapshots, cache entries)
+     * @param entities Entities to project
+     * @param fields Attributes from {@link #parse(String)}
+     * @return One map per entity, in the same order
+     */
+    List<Map<String, Object>> project(List<T> entities, List<String> fields) {
+        List<Map<String, Object>> rows = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, accessors.get(field).apply(entity));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Select the requested columns of the rows matching a filter, in ID order
+     * @param entityManager Entity manager bound to the current transaction
+     * @param fields Attributes from {@link #parse(String)}
+     * @param filter Builds the WHERE clause, or null for every row
+     * @param maxResults Row limit, or 0 for no limit
+     * @return One map per row
+     */
+    List<Map<String, Object>> select(EntityManager entityManager, List<String> fields,
+                                     BiFunction<CriteriaBuilder, Root<T>, Predicate> filter, int maxResults) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<T> root = query.from(entityType);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(root.get(field));
+        }
+        query.multiselect(selections);
+        if (filter != null) {
+            query.where(filter.apply(builder, root));
+        }
+        query.orderBy(builder.asc(root.get("id")));
+
+        TypedQuery<Tuple> typed = entityManager.createQuery(query);
+        if (maxResults > 0) {
+            typed.setMaxResults(maxResults);
+        }
+
+        List<Tuple> tuples = typed.getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                row.put(fields.get(i), tuple.get(i));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Select the requested columns of rows by ID, keeping the order of the IDs
+     * IDs are fetched in chunked IN (...) queries; IDs that no longer exist are skipped
+     * @param entityManager Entity manager bound to the current transaction
+     * @param fields Attributes from {@link #parse(String)}
+     * @param ids Row IDs, e.g. from an in-memory index
+     * @return One map per existing row
+     */
+    List<Map<String, Object>> selectByIds(EntityManager entityManager, List<String> fields, long[] ids) {
+        Map<Object, Map<String, Object>> found = new HashMap<>();
+        for (int from = 0; from < ids.length; from += EntityCache.LOAD_CHUNK_SIZE) {
+            List<Long> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(from + EntityCache.LOAD_CHUNK_SIZE, ids.length); i++) {
+                chunk.add(ids[i]);
+            }
+            List<Map<String, Object>> chunkRows =
+                    select(entityManager, fields, (cb, root) -> root.get("id").in(chunk), 0);
+            for (Map<String, Object> row : chunkRows) {
+                found.put(row.get("id"), row);
+            }
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>(found.size());
+        for (long id : ids) {
+            Map<String, Object> row = found.get(id);
+            if (row != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Case-insensitive substring filter, matching Spring Data's ContainingIgnoreCase
+     * @param attribute String attribute to search
+     * @param keyword Substring to look for; LIKE wildcards in it are matched literally
+     * @return Filter for {@link #select}
+     */
+    BiFunction<CriteriaBuilder, Root<T>, Predicate> containingIgnoreCase(String attribute, String keyword) {
+        String escaped = keyword.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return (cb, root) -> cb.like(cb.lower(root.<String>get(attribute)), "%" + escaped + "%", '\\');
+    }
+}
@@ -0,0 +1,32 @@
+package com.otago.practical4backend.service;
+
+/**
+ * Thrown when a reservation asks for more units than a product has left
+ * Rejections are routine on hot products, so no stack trace is captured
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private final Long productId;
+    private final int requested;
+    private final Integer available;
+
+    public InsufficientStockException(Long productId, int requested, Integer available) {
+        super("Insufficient stock for product " + productId + ": requested " + requested
+                + ", available " + available, null, false, false);
+        this.productId = productId;
+        this.requested = requested;
+        this.available = available;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public Integer getAvailable() {
+        return available;
+    }
+}
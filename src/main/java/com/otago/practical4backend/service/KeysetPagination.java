@@ -0,0 +1,80 @@
+package com.otago.practical4backend.service;
+
+import com.otago.practical4backend.dto.CursorPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Keyset Pagination Helper
+ * Turns an opaque cursor and limit into a seek query ("id > :cursor ORDER BY id LIMIT n")
+ * and wraps the result in a {@link CursorPage}
+ */
+@Component
+public class KeysetPagination {
+
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    /**
+     * Constructor with page size settings from application.properties
+     * @param defaultLimit Page size used when the client does not send a limit
+     * @param maxLimit Largest page size a client may request
+     */
+    public KeysetPagination(@Value("${app.pagination.default-limit:50}") int defaultLimit,
+                            @Value("${app.pagination.max-limit:1000}") int maxLimit) {
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Resolve the page size for a request
+     * @param limit Requested limit, may be null
+     * @return Limit clamped to the configured maximum
+     * @throws IllegalArgumentException if the limit is not positive
+     */
+    public int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return Math.min(limit, maxLimit);
+    }
+
+    /**
+     * Fetch one page using a seek query
+     * One extra row is requested so the last page does not hand out a cursor to an empty page
+     * @param cursor Opaque cursor from the previous page, or null for the first page
+     * @param limit Requested page size, may be null
+     * @param seek Seek query taking the last seen ID and a page request
+     * @param idOf Function extracting the ID of an item
+     * @param total Approximate total supplier, or null if the total was not requested
+     * @param <T> Item type
+     * @return Page of items with the cursor for the next page
+     */
+    public <T> CursorPage<T> page(String cursor, Integer limit,
+                                  BiFunction<Long, Pageable, List<T>> seek,
+                                  Function<T, Long> idOf,
+                                  LongSupplier total) {
+        long after = CursorPage.decodeCursor(cursor);
+        int size = resolveLimit(limit);
+
+        List<T> rows = seek.apply(after, PageRequest.of(0, size + 1));
+        String next = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            next = CursorPage.encodeCursor(idOf.apply(rows.get(size - 1)));
+        }
+
+        Long approximateTotal = total != null ? total.getAsLong() : null;
+        return new CursorPage<>(rows, next, size, approximateTotal);
+    }
+}
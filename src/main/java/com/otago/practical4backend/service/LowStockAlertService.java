@@ -0,0 +1,145 @@
+package com.otago.practical4backend.service;
+
+import com.otago.practical4backend.event.ProductChangedEvent;
+import com.otago.practical4backend.index.StockIndex;
+import com.otago.practical4backend.model.Product;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Low Stock Alert Service
+ * Pushes a Server-Sent Event to each subscriber when a product's stock drops below
+ * the threshold that subscriber asked for, so dashboards no longer need to poll
+ */
+@Service
+public class LowStockAlertService {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockAlertService.class);
+
+    private final StockIndex stockIndex;
+    private final long emitterTimeoutMillis;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    // A single sender thread keeps events in order and keeps slow clients off the committing thread
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "low-stock-alerts");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor injection
+     * @param stockIndex Stock index, used to find each product's previous stock level
+     * @param emitterTimeoutMillis How long a subscription stays open before the client must reconnect
+     */
+    @Autowired
+    public LowStockAlertService(StockIndex stockIndex,
+                                @Value("${app.low-stock.sse-timeout-ms:1800000}") long emitterTimeoutMillis) {
+        this.stockIndex = stockIndex;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+    }
+
+    /**
+     * Subscribe to low-stock alerts
+     * @param threshold Alert when a product's stock goes from at or above this level to below it
+     * @return Emitter streaming "low-stock" events carrying the product
+     */
+    public SseEmitter subscribe(int threshold) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscription subscription = new Subscription(emitter, threshold);
+        subscriptions.add(subscription);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(error -> subscriptions.remove(subscription));
+        return emitter;
+    }
+
+    /**
+     * Get the number of open subscriptions
+     * @return Subscriber count
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Detect products that crossed below a subscribed threshold
+     * Runs before the indexes are updated, so the stock index still holds the previous level
+     * @param event Committed product changes
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (subscriptions.isEmpty() || !stockIndex.isReady()) {
+            return;
+        }
+        for (Product product : event.getChanged()) {
+            if (product.getStock() == null || !stockIndex.isNewer(product)) {
+                // A snapshot older than the indexed one arrived late; the change was already seen
+                continue;
+            }
+            int stock = product.getStock();
+            Integer previous = stockIndex.stockOf(product.getId());
+            for (Subscription subscription : subscriptions) {
+                boolean below = stock < subscription.threshold;
+                boolean wasBelow = previous != null && previous < subscription.threshold;
+                if (below && !wasBelow) {
+                    sender.execute(() -> send(subscription, product));
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop the sender thread and close every subscription on shutdown
+     */
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        for (Subscription subscription : subscriptions) {
+            subscription.emitter.complete();
+        }
+        subscriptions.clear();
+    }
+
+    private void send(Subscription subscription, Product product) {
+        try {
+            subscription.emitter.send(SseEmitter.event()
+                    .name("low-stock")
+                    .id(String.valueOf(product.getId()))
+                    .data(product));
+        } catch (IOException | IllegalStateException e) {
+            // Client disconnected or the emitter already completed
+            log.debug("Dropping low-stock subscriber: {}", e.getMessage());
+            subscriptions.remove(subscription);
+            subscription.emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * One open SSE connection and its threshold
+     */
+    private static final class Subscription {
+        private final SseEmitter emitter;
+        private final int threshold;
+
+        private Subscription(SseEmitter emitter, int threshold) {
+            this.emitter = emitter;
+            this.threshold = threshold;
+        }
+    }
+}
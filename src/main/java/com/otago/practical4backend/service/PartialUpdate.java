@@ -0,0 +1,74 @@
+package com.otago.practical4backend.service;
+
+import com.otago.practical4backend.cache.SecondLevelCache;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a single "UPDATE ... SET <changed columns> WHERE id = ?" statement
+ * Used by PATCH so a stock or price edit does not read the row first or rewrite every column.
+ * Runs through JDBC rather than a JPQL or Criteria bulk update, which would make Hibernate drop
+ * the entity's whole second-level cache region; only the updated row is evicted instead
+ */
+final class PartialUpdate {
+
+    private final String table;
+    private final Class<?> entityType;
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    PartialUpdate(String table, Class<?> entityType) {
+        this.table = table;
+        this.entityType = entityType;
+    }
+
+    /**
+     * Add a column to the SET clause
+     * @param column Column name
+     * @param value New value (may be null for nullable columns)
+     * @return This update
+     */
+    PartialUpdate set(String column, Object value) {
+        values.put(column, value);
+        return this;
+    }
+
+    boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    /**
+     * Run the update in the caller's transaction, bumping the row's version and change time
+     * @param jdbcTemplate JDBC access sharing the JPA transaction's connection
+     * @param secondLevelCache Evicts the row, which Hibernate did not see being written
+     * @param id Primary key of the row to update
+     * @param expectedVersion Only update if the row is at this version (null to skip the check)
+     * @return Number of rows updated (0 if the row does not exist or is at another version)
+     */
+    int execute(JdbcTemplate jdbcTemplate, SecondLevelCache secondLevelCache, Long id, Long expectedVersion) {
+        StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+        List<Object> args = new ArrayList<>(values.size() + 3);
+        values.forEach((column, value) -> {
+            sql.append(column).append(" = ?, ");
+            args.add(value);
+        });
+        // Entity callbacks and Hibernate's versioning do not run for plain JDBC, so do their work here
+        sql.append("updated_at = ?, version = version + 1 WHERE id = ?");
+        args.add(Timestamp.from(Instant.now()));
+        args.add(id);
+        if (expectedVersion != null) {
+            sql.append(" AND version = ?");
+            args.add(expectedVersion);
+        }
+        int updated = jdbcTemplate.update(sql.toString(), args.toArray());
+        if (updated > 0) {
+            secondLevelCache.evictAfterWrite(entityType, List.of(id));
+        }
+        return updated;
+    }
+}
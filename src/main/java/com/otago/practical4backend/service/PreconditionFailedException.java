@@ -0,0 +1,26 @@
+package com.otago.practical4backend.service;
+
+/**
+ * Thrown when an If-Match precondition names a version that is no longer current
+ * Conflicting writes are routine under concurrent editing, so no stack trace is captured
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    private final Long id;
+    private final Long currentVersion;
+
+    public PreconditionFailedException(String entityName, Long id, Long currentVersion) {
+        super(entityName + " " + id + " has been modified (current version " + currentVersion + ")",
+                null, false, false);
+        this.id = id;
+        this.currentVersion = currentVersion;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
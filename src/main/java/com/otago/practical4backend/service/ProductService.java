@@ -1,49 +1,276 @@
 package com.otago.practical4backend.service;
 
+import com.otago.practical4backend.cache.EntityCache;
+import com.otago.practical4backend.cache.SecondLevelCache;
+import com.otago.practical4backend.dto.BulkImportResult;
+import com.otago.practical4backend.dto.BulkWriteResult;
+import com.otago.practical4backend.dto.CategoryStats;
+import com.otago.practical4backend.dto.ChangeFeed;
+import com.otago.practical4backend.dto.CursorPage;
+import com.otago.practical4backend.dto.FieldPatch;
+import com.otago.practical4backend.dto.MultiGetResult;
+import com.otago.practical4backend.dto.TableVersion;
+import com.otago.practical4backend.event.ProductChangePublisher;
+import com.otago.practical4backend.index.CategoryIndex;
+import com.otago.practical4backend.index.CategoryStatsIndex;
+import com.otago.practical4backend.index.ProductNameIndex;
+import com.otago.practical4backend.index.StockIndex;
 import com.otago.practical4backend.model.Product;
 import com.otago.practical4backend.repository.ProductRepository;
+import com.otago.practical4backend.validation.ProductValidator;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Product Service Class
  * Contains business logic for product operations
  * Implements service layer pattern to separate business logic from controllers
+ * Read methods run read-only: Hibernate skips dirty checking and snapshots, and with a replica
+ * configured (app.datasource.replica.url) their queries are routed to it
  */
 @Service
 @Transactional
+@Timed("app.service")
 public class ProductService {
 
+    /** Fields a client may select with ?fields= */
+    private static final FieldProjection<Product> FIELDS = new FieldProjection<>(Product.class, Product::getId)
+            .field("name", Product::getName)
+            .field("price", Product::getPrice)
+            .field("category", Product::getCategory)
+            .field("stock", Product::getStock)
+            .field("description", Product::getDescription)
+            .field("version", Product::getVersion);
+
     private final ProductRepository productRepository;
+    private final ProductValidator productValidator;
+    private final EntityManager entityManager;
+    private final EntityCache<Product> productCache;
+    private final ProductChangePublisher changePublisher;
+    private final ProductNameIndex nameIndex;
+    private final StockIndex stockIndex;
+    private final CategoryIndex categoryIndex;
+    private final CategoryStatsIndex categoryStatsIndex;
+    private final KeysetPagination keysetPagination;
+    private final DeltaSync deltaSync;
+    private final BulkWriter bulkWriter;
+    private final JdbcTemplate jdbcTemplate;
+    private final SecondLevelCache secondLevelCache;
+    private final ApproximateCount approximateProductCount;
+    private final int bulkBatchSize;
+    private final int maxMultiGetIds;
 
     /**
      * Constructor injection for ProductRepository
      * @param productRepository Repository for product data access
+     * @param productValidator Validates products before they are written
+     * @param entityManager Shared entity manager, used to detach rows while streaming
+     * @param productCache Read-through cache for lookups by ID
+     * @param changePublisher Publishes committed product changes to caches and indexes
+     * @param nameIndex In-memory trigram index serving name search
+     * @param stockIndex In-memory stock-ordered index serving low-stock queries
+     * @param categoryIndex In-memory index serving category listings
+     * @param categoryStatsIndex In-memory per-category inventory aggregates
+     * @param keysetPagination Helper for cursor-based listings
+     * @param deltaSync Helper for change-feed listings
+     * @param bulkWriter Runs bulk updates and deletes as JDBC batches
+     * @param jdbcTemplate Runs single-row partial and stock updates
+     * @param secondLevelCache Evicts rows updated with JDBC
+     * @param countTtlMillis How long the approximate total of a listing may be reused
+     * @param bulkBatchSize Number of rows flushed per JDBC batch during bulk imports
+     * @param maxMultiGetIds Most IDs one multi-get request may ask for
      */
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository,
+                          ProductValidator productValidator,
+                          EntityManager entityManager,
+                          EntityCache<Product> productCache,
+                          ProductChangePublisher changePublisher,
+                          ProductNameIndex nameIndex,
+                          StockIndex stockIndex,
+                          CategoryIndex categoryIndex,
+                          CategoryStatsIndex categoryStatsIndex,
+                          KeysetPagination keysetPagination,
+                          DeltaSync deltaSync,
+                          BulkWriter bulkWriter,
+                          JdbcTemplate jdbcTemplate,
+                          SecondLevelCache secondLevelCache,
+                          @Value("${app.pagination.count-cache-ttl-ms:30000}") long countTtlMillis,
+                          @Value("${app.products.bulk.batch-size:500}") int bulkBatchSize,
+                          @Value("${app.multi-get.max-ids:10000}") int maxMultiGetIds) {
         this.productRepository = productRepository;
+        this.productValidator = productValidator;
+        this.entityManager = entityManager;
+        this.productCache = productCache;
+        this.changePublisher = changePublisher;
+        this.nameIndex = nameIndex;
+        this.stockIndex = stockIndex;
+        this.categoryIndex = categoryIndex;
+        this.categoryStatsIndex = categoryStatsIndex;
+        this.keysetPagination = keysetPagination;
+        this.deltaSync = deltaSync;
+        this.bulkWriter = bulkWriter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.secondLevelCache = secondLevelCache;
+        this.approximateProductCount = new ApproximateCount(productRepository::count, countTtlMillis);
+        this.bulkBatchSize = bulkBatchSize;
+        this.maxMultiGetIds = maxMultiGetIds;
     }
 
     /**
      * Get all products from the database
      * @return List of all products
      */
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
+    /**
+     * Get selected fields of every product
+     * Only the requested columns are read, and no entities are loaded into the persistence context
+     * @param fields Comma-separated fields to return, e.g. "id,name" (the ID is always included)
+     * @return One map per product, in ID order
+     * @throws IllegalArgumentException if a field is not selectable
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllProducts(String fields) {
+        return FIELDS.select(entityManager, FIELDS.parse(fields), null, 0);
+    }
+
+    /**
+     * Export every product in ID order with constant memory use
+     * Rows are read through a database cursor and detached from the persistence
+     * context as soon as the sink has consumed them, so the first-level cache never grows
+     * @param sink Receives each product in turn
+     * @return Number of products exported
+     */
+    @Transactional(readOnly = true)
+    public long exportProducts(Consumer<Product> sink) {
+        long exported = 0;
+        try (Stream<Product> products = productRepository.streamAllOrderById()) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                sink.accept(product);
+                entityManager.detach(product);
+                exported++;
+            }
+        }
+        return exported;
+    }
+
+    /**
+     * Get one page of products ordered by ID using keyset pagination
+     * @param cursor Opaque cursor from the previous page, or null for the first page
+     * @param limit Requested page size, or null for the default
+     * @param includeTotal Whether to report an approximate total row count
+     * @return Page of products with the cursor for the next page
+     * @throws IllegalArgumentException if the cursor or limit is invalid
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Product> getProductsPage(String cursor, Integer limit, boolean includeTotal) {
+        return keysetPagination.page(cursor, limit,
+                productRepository::findPageAfter,
+                Product::getId,
+                includeTotal ? approximateProductCount::get : null);
+    }
+
+    /**
+     * Get selected fields of one page of products ordered by ID using keyset pagination
+     * @param cursor Opaque cursor from the previous page, or null for the first page
+     * @param limit Requested page size, or null for the default
+     * @param includeTotal Whether to report an approximate total row count
+     * @param fields Comma-separated fields to return, e.g. "id,name" (the ID is always included)
+     * @return Page of product rows with the cursor for the next page
+     * @throws IllegalArgumentException if the cursor, limit or a field is invalid
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Map<String, Object>> getProductsPage(String cursor, Integer limit, boolean includeTotal,
+                                                           String fields) {
+        List<String> selected = FIELDS.parse(fields);
+        return keysetPagination.page(cursor, limit,
+                (after, pageable) -> FIELDS.select(entityManager, selected,
+                        (cb, root) -> cb.gt(root.<Long>get("id"), after), pageable.getPageSize()),
+                row -> (Long) row.get("id"),
+                includeTotal ? approximateProductCount::get : null);
+    }
+
+    /**
+     * Get the products created, updated or deleted after a change number (delta sync)
+     * The cost follows the number of changes returned, not the size of the table.
+     * Runs its own read-only transaction on the primary (see DeltaSync)
+     * @param since Last change number the client has seen, or 0 for a full sync
+     * @param limit Requested page size, or null for the default
+     * @return Changed products and deletions in change order, with the number to continue from
+     * @throws IllegalArgumentException if since is negative or the limit is invalid
+     */
+    public ChangeFeed<Product> getProductChanges(long since, Integer limit) {
+        return deltaSync.changesSince(Product.class, "products", since, limit);
+    }
+
     /**
      * Get a specific product by ID
+     * Served from the in-process cache when possible; only misses reach the database.
+     * Does not start a transaction of its own, so a cache hit never borrows a connection
      * @param id Product ID to search for
      * @return Optional containing product if found
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return productCache.get(id, productRepository::findById);
+    }
+
+    /**
+     * Get many products by ID in one call
+     * Cached products are served from memory; the misses are loaded with chunked IN (...) queries,
+     * and without a transaction of its own an all-hit request never borrows a connection
+     * @param ids Requested IDs; repeats are returned once, at their first position
+     * @return Products in request order, plus the IDs that do not exist
+     * @throws IllegalArgumentException if no IDs or too many IDs are given
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public MultiGetResult<Product> getProductsByIds(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("At least one ID is required");
+        }
+        if (requested.size() > maxMultiGetIds) {
+            throw new IllegalArgumentException("At most " + maxMultiGetIds + " IDs may be requested at once");
+        }
+
+        Map<Long, Product> found = productCache.getAll(requested, productRepository::findAllById, Product::getId);
+        List<Product> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            Product product = found.get(id);
+            if (product != null) {
+                items.add(product);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new MultiGetResult<>(items, missing);
     }
 
     /**
@@ -53,21 +280,70 @@ public class ProductService {
      */
     public Product createProduct(Product product) {
         // Validate product data before saving
-        validateProduct(product);
-        return productRepository.save(product);
+        productValidator.validate(product);
+        Product saved = productRepository.save(product);
+        changePublisher.changed(saved);
+        return saved;
+    }
+
+    /**
+     * Import many products in one transaction using JDBC batch inserts
+     * Rows are consumed one at a time from the iterator (typically a streaming JSON parser).
+     * Rows that fail validation are skipped and reported; valid rows are persisted and
+     * flushed every bulkBatchSize rows, then cleared so the persistence context stays small
+     * @param rows Products to import
+     * @return Number of imported rows and the errors for rejected rows
+     */
+    public BulkImportResult importProducts(Iterator<Product> rows) {
+        BulkImportResult result = new BulkImportResult();
+        List<Long> importedIds = new ArrayList<>();
+        long index = 0;
+        int pending = 0;
+
+        while (rows.hasNext()) {
+            Product product = rows.next();
+            String violations = productValidator.describeViolations(product);
+            if (violations != null) {
+                result.recordError(index++, violations);
+                continue;
+            }
+
+            // IDs are always allocated by the server
+            product.setId(null);
+            entityManager.persist(product);
+            importedIds.add(product.getId());
+            result.recordImported();
+            index++;
+
+            if (++pending == bulkBatchSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        // Only IDs are kept; the rows are reloaded in chunks for listeners after commit
+        changePublisher.changedIds(importedIds);
+        return result;
     }
 
     /**
      * Update an existing product
      * @param id Product ID to update
      * @param productDetails Updated product details
+     * @param expectedVersion Version from the client's If-Match header, or null to update unconditionally
      * @return Updated product or null if not found
+     * @throws PreconditionFailedException if the product is no longer at the expected version
      */
-    public Product updateProduct(Long id, Product productDetails) {
+    public Product updateProduct(Long id, Product productDetails, Long expectedVersion) {
         Optional<Product> optionalProduct = productRepository.findById(id);
 
         if (optionalProduct.isPresent()) {
             Product product = optionalProduct.get();
+            checkVersion(product, expectedVersion);
 
             // Update product fields
             product.setName(productDetails.getName());
@@ -77,71 +353,333 @@ public class ProductService {
             product.setDescription(productDetails.getDescription());
 
             // Validate before saving
-            validateProduct(product);
+            productValidator.validate(product);
 
-            return productRepository.save(product);
+            Product saved = productRepository.save(product);
+            changePublisher.changed(saved);
+            return saved;
         }
 
         return null;
     }
 
+    /**
+     * Partially update a product
+     * Only the given fields are validated and written, in one UPDATE without reading the row first
+     * @param id Product ID to update
+     * @param changes Product carrying the new values
+     * @param fields Names of the fields present in the request; all other fields are left unchanged
+     * @param expectedVersion Version from the client's If-Match header, or null to update unconditionally
+     * @return Updated product or null if not found
+     * @throws PreconditionFailedException if the product is no longer at the expected version
+     */
+    public Product patchProduct(Long id, Product changes, Set<String> fields, Long expectedVersion) {
+        productValidator.validateFields(changes, fields);
+
+        PartialUpdate update = new PartialUpdate("products", Product.class);
+        for (String field : fields) {
+            switch (field) {
+                case "name" -> update.set("name", changes.getName());
+                case "price" -> update.set("price", changes.getPrice());
+                case "category" -> update.set("category", changes.getCategory());
+                case "stock" -> update.set("stock", changes.getStock());
+                case "description" -> update.set("description", changes.getDescription());
+                default -> throw new IllegalArgumentException("Field cannot be updated: " + field);
+            }
+        }
+
+        if (update.isEmpty()) {
+            Optional<Product> current = productRepository.findById(id);
+            current.ifPresent(existing -> checkVersion(existing, expectedVersion));
+            return current.orElse(null);
+        }
+        if (update.execute(jdbcTemplate, secondLevelCache, id, expectedVersion) == 0) {
+            // Either missing, or at another version than the client expected
+            productRepository.findById(id).ifPresent(existing -> checkVersion(existing, expectedVersion));
+            return null;
+        }
+        // Read back the full row by primary key for the response, caches and indexes
+        Product saved = productRepository.findById(id).orElse(null);
+        if (saved != null) {
+            changePublisher.changed(saved);
+        }
+        return saved;
+    }
+
+    /**
+     * Apply many partial updates in one transaction
+     * Each item is validated on its own and reported separately; valid items are written with
+     * batched UPDATEs, one statement per set of changed columns, without reading the rows first.
+     * Caches and indexes reload the updated rows after commit
+     * @param patches Items in request order
+     * @return Outcome of every item
+     * @throws IllegalArgumentException if there are no items or more than app.bulk.max-items
+     */
+    public BulkWriteResult patchProducts(List<FieldPatch<Product>> patches) {
+        bulkWriter.checkSize(patches.size());
+        BulkWriteResult result = new BulkWriteResult();
+        BulkWriter.Update update = bulkWriter.update("products", Product.class);
+
+        for (int i = 0; i < patches.size(); i++) {
+            Product changes = patches.get(i).changes();
+            Set<String> fields = patches.get(i).fields();
+            try {
+                productValidator.validateFields(changes, fields);
+                // Sorted, so items changing the same columns share a statement whatever their JSON order
+                Map<String, Object> columns = new TreeMap<>();
+                for (String field : fields) {
+                    switch (field) {
+                        case "name" -> columns.put("name", changes.getName());
+                        case "price" -> columns.put("price", changes.getPrice());
+                        case "category" -> columns.put("category", changes.getCategory());
+                        case "stock" -> columns.put("stock", changes.getStock());
+                        case "description" -> columns.put("description", changes.getDescription());
+                        default -> throw new IllegalArgumentException("Field cannot be updated: " + field);
+                    }
+                }
+                update.add(i, changes.getId(), columns);
+            } catch (IllegalArgumentException e) {
+                result.record(i, changes.getId(), BulkWriteResult.Status.INVALID, e.getMessage());
+            }
+        }
+
+        changePublisher.changedIds(update.execute(result));
+        return result;
+    }
+
+    /**
+     * Take stock from a product with a conditional in-database decrement
+     * Prefer {@link StockReservationService#reserve}, which applies a burst on one product in one transaction.
+     * A refusal leaves a surrounding transaction free to commit, since the UPDATE changed nothing
+     * @param id Product ID
+     * @param quantity Units to reserve
+     * @return Product with its new stock level, or null if not found
+     * @throws InsufficientStockException if fewer than quantity units are left
+     */
+    @Transactional(noRollbackFor = InsufficientStockException.class)
+    public Product reserveStock(Long id, int quantity) {
+        validateQuantity(quantity);
+        // The check and the decrement are a single UPDATE, so concurrent reservations can never oversell
+        int updated = jdbcTemplate.update("UPDATE products SET stock = stock - ?, updated_at = ?, "
+                        + "version = version + 1 WHERE id = ? AND stock >= ?",
+                quantity, Timestamp.from(Instant.now()), id, quantity);
+        if (updated == 0) {
+            Optional<Product> current = productRepository.findById(id);
+            if (current.isEmpty()) {
+                return null;
+            }
+            // Not kept in the persistence context, where a later stock UPDATE in this transaction would leave it stale
+            entityManager.detach(current.get());
+            throw new InsufficientStockException(id, quantity, current.get().getStock());
+        }
+        return reloadChangedStock(id);
+    }
+
+    /**
+     * Return previously reserved stock to a product
+     * @param id Product ID
+     * @param quantity Units to release
+     * @return Product with its new stock level, or null if not found
+     */
+    public Product releaseStock(Long id, int quantity) {
+        validateQuantity(quantity);
+        int updated = jdbcTemplate.update("UPDATE products SET stock = stock + ?, updated_at = ?, "
+                        + "version = version + 1 WHERE id = ? AND stock IS NOT NULL",
+                quantity, Timestamp.from(Instant.now()), id);
+        if (updated == 0) {
+            return null;
+        }
+        return reloadChangedStock(id);
+    }
+
     /**
      * Delete a product by ID
      * @param id Product ID to delete
+     * @param expectedVersion Version from the client's If-Match header, or null to delete unconditionally
      * @return true if deleted successfully, false if not found
+     * @throws PreconditionFailedException if the product is no longer at the expected version
      */
-    public boolean deleteProduct(Long id) {
-        if (productRepository.existsById(id)) {
-            productRepository.deleteById(id);
-            return true;
+    public boolean deleteProduct(Long id, Long expectedVersion) {
+        // findById is usually served by the second-level cache, unlike an existsById count query
+        Optional<Product> existing = productRepository.findById(id);
+        if (existing.isEmpty()) {
+            return false;
         }
-        return false;
+        checkVersion(existing.get(), expectedVersion);
+        // Deleting the loaded entity makes Hibernate check the version again in the DELETE
+        productRepository.delete(existing.get());
+        changePublisher.deleted(id);
+        return true;
+    }
+
+    /**
+     * Delete many products in one transaction with a batched DELETE
+     * @param ids Product IDs in request order
+     * @return Outcome of every ID
+     * @throws IllegalArgumentException if there are no IDs or more than app.bulk.max-items
+     */
+    public BulkWriteResult deleteProducts(List<Long> ids) {
+        BulkWriteResult result = new BulkWriteResult();
+        for (Long id : bulkWriter.delete("products", Product.class, ids, result)) {
+            changePublisher.deleted(id);
+        }
+        return result;
     }
 
     /**
      * Find products by category
+     * Answered from the in-memory category index; the database is only queried
+     * until the index has finished building at startup
      * @param category Category to search for
-     * @return List of products in the category
+     * @return List of products in the category (shared snapshots, do not modify)
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Product> getProductsByCategory(String category) {
+        List<Product> indexed = categoryIndex.findByCategory(category);
+        if (indexed != null) {
+            return indexed;
+        }
         return productRepository.findByCategory(category);
     }
 
+    /**
+     * Get selected fields of the products in a category
+     * @param category Category to search for
+     * @param fields Comma-separated fields to return, e.g. "id,name" (the ID is always included)
+     * @return One map per product in the category
+     * @throws IllegalArgumentException if a field is not selectable
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Map<String, Object>> getProductsByCategory(String category, String fields) {
+        List<String> selected = FIELDS.parse(fields);
+        List<Product> indexed = categoryIndex.findByCategory(category);
+        if (indexed != null) {
+            // The index already holds the rows, so projecting them needs no query at all
+            return FIELDS.project(indexed, selected);
+        }
+        return FIELDS.select(entityManager, selected, (cb, root) -> cb.equal(root.get("category"), category), 0);
+    }
+
     /**
      * Search products by name
      * @param keyword Keyword to search in product names
-     * @return List of matching products
+     * @return List of matching products in ID order
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Product> searchProductsByName(String keyword) {
-        return productRepository.findByNameContainingIgnoreCase(keyword);
+        // Case-insensitive substring match on the trigram index instead of LIKE '%keyword%'
+        long[] ids = nameIndex.search(keyword);
+        if (ids == null) {
+            return productRepository.findByNameContainingIgnoreCase(keyword);
+        }
+        return findAllInOrder(ids);
+    }
+
+    /**
+     * Get selected fields of the products whose names contain a keyword
+     * @param keyword Keyword to search in product names
+     * @param fields Comma-separated fields to return, e.g. "id,name" (the ID is always included)
+     * @return One map per matching product, in ID order
+     * @throws IllegalArgumentException if a field is not selectable
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Map<String, Object>> searchProductsByName(String keyword, String fields) {
+        List<String> selected = FIELDS.parse(fields);
+        long[] ids = nameIndex.search(keyword);
+        if (ids == null) {
+            return FIELDS.select(entityManager, selected, FIELDS.containingIgnoreCase("name", keyword), 0);
+        }
+        return FIELDS.selectByIds(entityManager, selected, ids);
     }
 
     /**
      * Get products with low stock
      * @param threshold Stock level threshold
-     * @return List of products with stock below threshold
+     * @return List of products with stock below threshold, lowest stock first
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Product> getLowStockProducts(Integer threshold) {
-        return productRepository.findByStockLessThan(threshold);
+        long[] ids = stockIndex.idsBelow(threshold);
+        if (ids == null) {
+            return productRepository.findByStockLessThan(threshold);
+        }
+        return findAllInOrder(ids);
     }
 
     /**
-     * Validate product data
-     * @param product Product to validate
-     * @throws IllegalArgumentException if validation fails
+     * Get inventory aggregates per category
+     * Answered from the incrementally maintained aggregates; the database is only queried
+     * (with GROUP BY) until they have finished building at startup
+     * @return Product count, units, stock value, price range and low-stock count per category
      */
-    private void validateProduct(Product product) {
-        if (product.getName() == null || product.getName().trim().isEmpty()) {
-            throw new IllegalArgumentException("Product name is required");
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<CategoryStats> getCategoryStats() {
+        List<CategoryStats> indexed = categoryStatsIndex.stats();
+        if (indexed != null) {
+            return indexed;
         }
-        if (product.getPrice() == null || product.getPrice().doubleValue() < 0) {
-            throw new IllegalArgumentException("Product price must be non-negative");
+        return productRepository.aggregateByCategory(categoryStatsIndex.getLowStockThreshold());
+    }
+
+    /**
+     * Re-read a product after a stock UPDATE and publish the change
+     * Only this row is evicted from the second-level cache, so the read goes to the database
+     */
+    private Product reloadChangedStock(Long id) {
+        secondLevelCache.evictAfterWrite(Product.class, List.of(id));
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new IllegalStateException("Product " + id + " vanished during stock update"));
+        changePublisher.changed(product);
+        // The UPDATE bypassed the persistence context, so a later reload in this transaction must not reuse this copy
+        entityManager.detach(product);
+        return product;
+    }
+
+    /**
+     * Check a stock reservation or release quantity
+     * @param quantity Units to reserve or release
+     * @throws IllegalArgumentException if the quantity is not positive
+     */
+    static void validateQuantity(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
         }
-        if (product.getStock() == null || product.getStock() < 0) {
-            throw new IllegalArgumentException("Product stock must be non-negative");
+    }
+
+    /**
+     * Fingerprint the products table, used for collection ETags
+     * @return Row count, highest ID and version sum
+     */
+    @Transactional(readOnly = true)
+    public TableVersion getProductsVersion() {
+        return productRepository.probeVersion();
+    }
+
+    private void checkVersion(Product product, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(product.getVersion())) {
+            throw new PreconditionFailedException("Product", product.getId(), product.getVersion());
+        }
+    }
+
+    /**
+     * Load products by ID, keeping the given order and skipping IDs that no longer exist
+     * Cached products are used first; only the misses are fetched, in chunked IN (...) queries
+     * @param ids Product IDs
+     * @return Products in the order of the IDs
+     */
+    private List<Product> findAllInOrder(long[] ids) {
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
         }
-        if (product.getCategory() == null || product.getCategory().trim().isEmpty()) {
-            throw new IllegalArgumentException("Product category is required");
+        Map<Long, Product> found = productCache.getAll(idList, productRepository::findAllById, Product::getId);
+        List<Product> result = new ArrayList<>(found.size());
+        for (Long id : idList) {
+            Product product = found.get(id);
+            if (product != null) {
+                result.add(product);
+            }
         }
+        return result;
     }
-}
\ No newline at end of file
+}
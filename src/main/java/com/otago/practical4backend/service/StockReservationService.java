@@ -0,0 +1,165 @@
+package com.otago.practical4backend.service;
+
+import com.otago.practical4backend.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stock Reservation Service
+ * Front door for reserving and releasing stock under contention.
+ *
+ * Correctness comes from the conditional UPDATE in {@link ProductService#reserveStock},
+ * which also holds across several application instances. On top of that, requests for the
+ * same product are coalesced: each joins its stripe's queue, and whichever thread holds the
+ * stripe lock applies every queued request in one transaction. A burst on one hot SKU therefore
+ * takes the InnoDB row lock once and commits once, on one pooled connection, while the other
+ * callers wait here without a connection and pick up their own results.
+ */
+@Service
+public class StockReservationService {
+
+    /** Most requests applied in one transaction, so one caller is not kept busy indefinitely */
+    private static final int MAX_BATCH = 256;
+
+    private final ProductService productService;
+    private final TransactionTemplate batchTransaction;
+    private final Stripe[] stripes;
+
+    /**
+     * Constructor injection
+     * @param productService Service performing the transactional stock updates
+     * @param transactionManager Transaction manager for each batch of requests
+     * @param stripeCount Number of queues products are spread over (rounded up to a power of two)
+     */
+    @Autowired
+    public StockReservationService(ProductService productService,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.products.stock.lock-stripes:64}") int stripeCount) {
+        this.productService = productService;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Reserve stock for a product
+     * @param id Product ID
+     * @param quantity Units to reserve
+     * @return Product with its new stock level, or null if not found
+     * @throws InsufficientStockException if fewer than quantity units are left
+     */
+    public Product reserve(Long id, int quantity) {
+        return submit(new Request(id, quantity, true));
+    }
+
+    /**
+     * Release previously reserved stock
+     * @param id Product ID
+     * @param quantity Units to release
+     * @return Product with its new stock level, or null if not found
+     */
+    public Product release(Long id, int quantity) {
+        return submit(new Request(id, quantity, false));
+    }
+
+    private Product submit(Request request) {
+        ProductService.validateQuantity(request.quantity);
+        Stripe stripe = stripeFor(request.id);
+        stripe.queue.add(request);
+        stripe.lock.lock();
+        try {
+            // The previous lock holder may already have applied this request
+            while (!request.done) {
+                applyBatch(stripe);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (request.failure != null) {
+            throw request.failure;
+        }
+        return request.result;
+    }
+
+    /**
+     * Apply queued requests in one transaction; called with the stripe lock held
+     */
+    private void applyBatch(Stripe stripe) {
+        List<Request> batch = new ArrayList<>();
+        Request next;
+        while (batch.size() < MAX_BATCH && (next = stripe.queue.poll()) != null) {
+            batch.add(next);
+        }
+        // Rows are locked in ID order, so batches on different instances cannot deadlock
+        batch.sort(Comparator.comparing(request -> request.id));
+        try {
+            batchTransaction.executeWithoutResult(status -> {
+                for (Request request : batch) {
+                    request.result = null;
+                    request.failure = null;
+                    try {
+                        request.result = request.reserve
+                                ? productService.reserveStock(request.id, request.quantity)
+                                : productService.releaseStock(request.id, request.quantity);
+                    } catch (InsufficientStockException e) {
+                        // The refused UPDATE changed nothing, so the rest of the batch still commits
+                        request.failure = e;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            for (Request request : batch) {
+                request.result = null;
+                request.failure = e;
+            }
+        }
+        for (Request request : batch) {
+            request.done = true;
+        }
+    }
+
+    private Stripe stripeFor(Long id) {
+        // Spread sequential IDs across stripes
+        int hash = Long.hashCode(id) * 0x9E3779B9;
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * Requests waiting for a batch, and the lock held by the thread applying them
+     */
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Queue<Request> queue = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * One caller's reservation or release, and its outcome once a batch has applied it
+     */
+    private static final class Request {
+        private final Long id;
+        private final int quantity;
+        private final boolean reserve;
+        private Product result;
+        private RuntimeException failure;
+        private volatile boolean done;
+
+        private Request(Long id, int quantity, boolean reserve) {
+            this.id = id;
+            this.quantity = quantity;
+            this.reserve = reserve;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.otago.practical4backend.validation;
+
+import com.otago.practical4backend.model.Attendant;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Attendant Validator
+ * Checks every attendant rule in one pass and reports all failures together
+ */
+@Component
+public class AttendantValidator {
+
+    private static final int NAME = 1;
+    private static final int EMAIL = 1 << 1;
+    private static final int MOBILE = 1 << 2;
+
+    private final Violations violations = new Violations(
+            "Attendant name is required",
+            "Invalid email format",
+            "Invalid mobile number format");
+
+    /**
+     * Validate a complete attendant
+     * Email and mobile are optional, but must be well-formed when given
+     * @param attendant Attendant to validate
+     * @throws ValidationException listing every failed rule
+     */
+    public void validate(Attendant attendant) {
+        violations.throwIfAny(check(attendant, violations.all()));
+    }
+
+    /**
+     * Validate only the fields present in a partial update
+     * @param changes Attendant carrying the new values
+     * @param fields Names of the fields being updated
+     * @throws ValidationException listing every failed rule
+     */
+    public void validateFields(Attendant changes, Set<String> fields) {
+        int rules = 0;
+        if (fields.contains("name")) {
+            rules |= NAME;
+        }
+        if (fields.contains("email")) {
+            rules |= EMAIL;
+        }
+        if (fields.contains("mobile")) {
+            rules |= MOBILE;
+        }
+        violations.throwIfAny(check(changes, rules));
+    }
+
+    private int check(Attendant attendant, int rules) {
+        int failed = 0;
+        if ((rules & NAME) != 0 && Checks.isBlank(attendant.getName())) {
+            failed |= NAME;
+        }
+        String email = attendant.getEmail();
+        if ((rules & EMAIL) != 0 && email != null && !email.isEmpty() && !Checks.isEmail(email)) {
+            failed |= EMAIL;
+        }
+        String mobile = attendant.getMobile();
+        if ((rules & MOBILE) != 0 && mobile != null && !mobile.isEmpty() && !Checks.isMobile(mobile)) {
+            failed |= MOBILE;
+        }
+        return failed;
+    }
+}
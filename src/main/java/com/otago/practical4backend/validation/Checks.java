@@ -0,0 +1,100 @@
+package com.otago.practical4backend.validation;
+
+/**
+ * Checks
+ * Hand-written field checks used by the validators.
+ * Each one scans the string once and allocates nothing, unlike String.trim,
+ * String.matches and String.replaceAll, which copy the input or compile a regex per call.
+ */
+public final class Checks {
+
+    private Checks() {
+    }
+
+    /**
+     * Same result as value == null || value.trim().isEmpty()
+     * @param value Value to check
+     * @return true if the value is null or only whitespace/control characters
+     */
+    public static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same result as matching ^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\.[A-Za-z]{2,}$
+     * @param email Email address (not null)
+     * @return true if the address has a valid format
+     */
+    public static boolean isEmail(String email) {
+        int at = email.indexOf('@');
+        int lastDot = email.lastIndexOf('.');
+        int length = email.length();
+        if (at <= 0 || lastDot <= at + 1 || length - lastDot - 1 < 2) {
+            return false;
+        }
+        for (int i = 0; i < at; i++) {
+            char c = email.charAt(i);
+            if (!isAsciiLetterOrDigit(c) && c != '+' && c != '_' && c != '.' && c != '-') {
+                return false;
+            }
+        }
+        for (int i = at + 1; i < lastDot; i++) {
+            char c = email.charAt(i);
+            if (!isAsciiLetterOrDigit(c) && c != '.' && c != '-') {
+                return false;
+            }
+        }
+        for (int i = lastDot + 1; i < length; i++) {
+            if (!isAsciiLetter(email.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same result as stripping whitespace and hyphens, then matching ^[0-9+]{7,15}$
+     * @param mobile Mobile number (not null)
+     * @return true if the number has a valid format
+     */
+    public static boolean isMobile(String mobile) {
+        int count = 0;
+        for (int i = 0; i < mobile.length(); i++) {
+            char c = mobile.charAt(i);
+            if (isSpaceOrHyphen(c)) {
+                continue;
+            }
+            if ((c < '0' || c > '9') && c != '+') {
+                return false;
+            }
+            count++;
+        }
+        return count >= 7 && count <= 15;
+    }
+
+    /**
+     * Characters removed from mobile numbers before they are checked or compared
+     * Matches the regex class [\s-]
+     * @param c Character to test
+     * @return true for space, tab, newline, vertical tab, form feed, carriage return or hyphen
+     */
+    public static boolean isSpaceOrHyphen(char c) {
+        return c == ' ' || c == '-' || (c >= '\t' && c <= '\r');
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9');
+    }
+}
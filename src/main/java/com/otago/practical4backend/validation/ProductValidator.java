@@ -0,0 +1,84 @@
+package com.otago.practical4backend.validation;
+
+import com.otago.practical4backend.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Product Validator
+ * Checks every product rule in one pass and reports all failures together
+ */
+@Component
+public class ProductValidator {
+
+    private static final int NAME = 1;
+    private static final int PRICE = 1 << 1;
+    private static final int STOCK = 1 << 2;
+    private static final int CATEGORY = 1 << 3;
+
+    private final Violations violations = new Violations(
+            "Product name is required",
+            "Product price must be non-negative",
+            "Product stock must be non-negative",
+            "Product category is required");
+
+    /**
+     * Validate a complete product
+     * @param product Product to validate
+     * @throws ValidationException listing every failed rule
+     */
+    public void validate(Product product) {
+        violations.throwIfAny(check(product, violations.all()));
+    }
+
+    /**
+     * Validate only the fields present in a partial update
+     * @param changes Product carrying the new values
+     * @param fields Names of the fields being updated
+     * @throws ValidationException listing every failed rule
+     */
+    public void validateFields(Product changes, Set<String> fields) {
+        int rules = 0;
+        if (fields.contains("name")) {
+            rules |= NAME;
+        }
+        if (fields.contains("price")) {
+            rules |= PRICE;
+        }
+        if (fields.contains("stock")) {
+            rules |= STOCK;
+        }
+        if (fields.contains("category")) {
+            rules |= CATEGORY;
+        }
+        violations.throwIfAny(check(changes, rules));
+    }
+
+    /**
+     * Check a product without throwing, for bulk paths that report failures per row
+     * @param product Product to check
+     * @return null if valid, otherwise the violation messages joined with "; "
+     */
+    public String describeViolations(Product product) {
+        int failed = check(product, violations.all());
+        return failed == 0 ? null : violations.message(failed);
+    }
+
+    private int check(Product product, int rules) {
+        int failed = 0;
+        if ((rules & NAME) != 0 && Checks.isBlank(product.getName())) {
+            failed |= NAME;
+        }
+        if ((rules & PRICE) != 0 && (product.getPrice() == null || product.getPrice().signum() < 0)) {
+            failed |= PRICE;
+        }
+        if ((rules & STOCK) != 0 && (product.getStock() == null || product.getStock() < 0)) {
+            failed |= STOCK;
+        }
+        if ((rules & CATEGORY) != 0 && Checks.isBlank(product.getCategory())) {
+            failed |= CATEGORY;
+        }
+        return failed;
+    }
+}
@@ -0,0 +1,40 @@
+package com.otago.practical4backend.validation;
+
+import java.util.List;
+
+/**
+ * Validation Exception
+ * Reports every rule an entity broke, not just the first one.
+ *
+ * Instances carry no stack trace: validation failures are expected input errors,
+ * and capturing a trace would cost more than the validation itself. Because they hold
+ * no per-request state they are pre-built once and shared (see {@link Violations}).
+ * Extends IllegalArgumentException so existing callers keep handling it as before.
+ */
+public class ValidationException extends IllegalArgumentException {
+
+    private final List<String> violations;
+
+    /**
+     * Create an exception for a set of violations
+     * @param violations Violation messages, in rule order
+     */
+    public ValidationException(List<String> violations) {
+        super(String.join("; ", violations));
+        this.violations = List.copyOf(violations);
+    }
+
+    /**
+     * Get the individual violation messages
+     * @return Unmodifiable list of messages
+     */
+    public List<String> getViolations() {
+        return violations;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        // Stackless: instances are shared, and the trace of a rejected request is never useful
+        return this;
+    }
+}
@@ -0,0 +1,88 @@
+package com.otago.practical4backend.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Violations
+ * Message table for a fixed set of validation rules.
+ *
+ * Validators record failed rules as bits in an int, so checking an entity allocates nothing.
+ * Each distinct combination of failed rules maps to one shared, pre-built
+ * {@link ValidationException}, so rejecting input does not allocate either once warmed up.
+ */
+public final class Violations {
+
+    private final String[] messages;
+    private final AtomicReferenceArray<ValidationException> exceptions;
+
+    /**
+     * Create the table; rule i is reported with messages[i] and is bit (1 << i)
+     * @param messages Violation messages in rule order (at most 16)
+     */
+    public Violations(String... messages) {
+        if (messages.length > 16) {
+            throw new IllegalArgumentException("At most 16 rules are supported");
+        }
+        this.messages = messages.clone();
+        this.exceptions = new AtomicReferenceArray<>(1 << messages.length);
+        // Single failures are by far the most common, so build those up front
+        for (int i = 0; i < messages.length; i++) {
+            exceptions.set(1 << i, create(1 << i));
+        }
+    }
+
+    /**
+     * Get the bit mask covering every rule
+     * @return Mask with one bit per rule
+     */
+    public int all() {
+        return (1 << messages.length) - 1;
+    }
+
+    /**
+     * Describe a set of failed rules
+     * @param mask Failed rules
+     * @return Messages joined with "; "
+     */
+    public String message(int mask) {
+        return exception(mask).getMessage();
+    }
+
+    /**
+     * Get the shared exception for a set of failed rules
+     * @param mask Failed rules (must be non-zero)
+     * @return Pre-built exception
+     */
+    public ValidationException exception(int mask) {
+        ValidationException exception = exceptions.get(mask);
+        if (exception == null) {
+            // Benign race: two threads may build equal instances, either one is fine to keep
+            exception = create(mask);
+            exceptions.set(mask, exception);
+        }
+        return exception;
+    }
+
+    /**
+     * Throw if any rule failed
+     * @param mask Failed rules
+     * @throws ValidationException if the mask is non-zero
+     */
+    public void throwIfAny(int mask) {
+        if (mask != 0) {
+            throw exception(mask);
+        }
+    }
+
+    private ValidationException create(int mask) {
+        List<String> failed = new ArrayList<>(Integer.bitCount(mask));
+        for (int i = 0; i < messages.length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                failed.add(messages[i]);
+            }
+        }
+        return new ValidationException(failed);
+    }
+}
@@ -0,0 +1,87 @@
+package com.otago.practical4backend.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Cost classes of API requests, client keys, and in-flight caps derived from the connection pool
+ */
+class RequestCostTest {
+
+    @Test
+    void singleRowsPagesAndIndexReadsAreCheap() {
+        assertThat(cost(get("/api/products/7"))).isEqualTo(RequestCost.CHEAP);
+        assertThat(cost(get("/api/products/search", "keyword", "lamp"))).isEqualTo(RequestCost.CHEAP);
+        assertThat(cost(get("/api/products/category/Tools"))).isEqualTo(RequestCost.CHEAP);
+        assertThat(cost(get("/api/products/low-stock", "threshold", "5"))).isEqualTo(RequestCost.CHEAP);
+        assertThat(cost(get("/api/products"))).isEqualTo(RequestCost.CHEAP);
+        assertThat(cost(get("/api/attendants/changes", "since", "1200"))).isEqualTo(RequestCost.CHEAP);
+        assertThat(cost(new MockHttpServletRequest("DELETE", "/api/products/7"))).isEqualTo(RequestCost.CHEAP);
+    }
+
+    @Test
+    void manyRowRequestsAreExpensive() {
+        assertThat(cost(get("/api/products", "ids", "3,17,42"))).isEqualTo(RequestCost.EXPENSIVE);
+        assertThat(cost(get("/api/products/changes", "since", "0"))).isEqualTo(RequestCost.EXPENSIVE);
+        assertThat(cost(get("/api/attendants/changes"))).isEqualTo(RequestCost.EXPENSIVE);
+        assertThat(cost(get("/api/products/export"))).isEqualTo(RequestCost.EXPENSIVE);
+        assertThat(cost(get("/api/products", "unpaged", "true"))).isEqualTo(RequestCost.EXPENSIVE);
+
+        MockHttpServletRequest delete = new MockHttpServletRequest("DELETE", "/api/attendants/bulk");
+        delete.setContent("[3, 4, 17]".getBytes());
+        assertThat(cost(delete)).isEqualTo(RequestCost.EXPENSIVE);
+    }
+
+    @Test
+    void unsetCapsFollowThePoolSize() {
+        assertThat(AdmissionControlFilter.concurrencyFor(10)).isEqualTo(20);
+        assertThat(AdmissionControlFilter.expensiveConcurrencyFor(10)).isEqualTo(6);
+        assertThat(AdmissionControlFilter.expensiveConcurrencyFor(1)).isEqualTo(1);
+        filter(0, 0, 10);
+    }
+
+    @Test
+    void expensiveCapMustLeaveConnectionsForCheapRequests() {
+        assertThatThrownBy(() -> filter(100, 10, 10)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> filter(4, 6, 10)).isInstanceOf(IllegalStateException.class);
+        filter(100, 9, 10);
+    }
+
+    @Test
+    void onlyConfiguredApiKeysGetTheirOwnBuckets() {
+        AdmissionControlFilter filter = filter(0, 0, 10, "partner-key");
+        MockHttpServletRequest known = get("/api/products");
+        known.addHeader(AdmissionControlFilter.API_KEY_HEADER, "partner-key");
+        MockHttpServletRequest invented = get("/api/products");
+        invented.addHeader(AdmissionControlFilter.API_KEY_HEADER, "made-up");
+        invented.setRemoteAddr("203.0.113.9");
+
+        assertThat(filter.clientKey(known)).isEqualTo("key:partner-key");
+        assertThat(filter.clientKey(invented)).isEqualTo("ip:203.0.113.9");
+    }
+
+    private static RequestCost cost(MockHttpServletRequest request) {
+        return RequestCost.of(request, request.getRequestURI());
+    }
+
+    private static MockHttpServletRequest get(String path, String... parameters) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        for (int i = 0; i < parameters.length; i += 2) {
+            request.setParameter(parameters[i], parameters[i + 1]);
+        }
+        return request;
+    }
+
+    private static AdmissionControlFilter filter(int maxConcurrent, int maxConcurrentExpensive, int poolSize,
+                                                 String... apiKeys) {
+        return new AdmissionControlFilter(new SimpleMeterRegistry(), 50, 100, 1, 5, maxConcurrent,
+                maxConcurrentExpensive, poolSize, Duration.ofSeconds(1), 1000, Duration.ofMinutes(10), Set.of(apiKeys));
+    }
+}
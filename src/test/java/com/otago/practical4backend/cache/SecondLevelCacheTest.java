@@ -0,0 +1,99 @@
+package com.otago.practical4backend.cache;
+
+import com.otago.practical4backend.model.Attendant;
+import com.otago.practical4backend.model.Product;
+import com.otago.practical4backend.repository.AttendantRepository;
+import com.otago.practical4backend.repository.ProductRepository;
+import com.otago.practical4backend.service.AttendantService;
+import com.otago.practical4backend.service.ProductService;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Single-row PATCH and stock updates run through JDBC and evict only the row they wrote,
+ * where a JPQL or Criteria bulk update would empty the whole entity region
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private AttendantService attendantService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private AttendantRepository attendantRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Product written;
+    private Product untouched;
+    private Attendant attendant;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        written = productService.createProduct(new Product("Cache Desk", new BigDecimal("99.00"), "Cache", 20, null));
+        untouched = productService.createProduct(new Product("Cache Shelf", new BigDecimal("49.00"), "Cache", 20, null));
+        attendant = attendantService.createAttendant(new Attendant(
+                "Cache Attendant", "1 Cache Street", "021 555 " + (1000 + written.getId()),
+                "cache" + written.getId() + "@example.com", null));
+        cache = entityManagerFactory.getCache();
+        cache.evictAll();
+        // Loading by ID outside a transaction of our own fills the second-level cache
+        productRepository.findById(written.getId());
+        productRepository.findById(untouched.getId());
+        attendantRepository.findById(attendant.getId());
+    }
+
+    @Test
+    void patchEvictsOnlyTheUpdatedRow() {
+        assertThat(cache.contains(Product.class, written.getId())).isTrue();
+
+        Product patched = productService.patchProduct(written.getId(),
+                new Product(null, new BigDecimal("89.00"), null, null, null), Set.of("price"), null);
+
+        assertThat(patched.getPrice()).isEqualByComparingTo("89.00");
+        assertThat(patched.getVersion()).isEqualTo(written.getVersion() + 1);
+        assertThat(cache.contains(Product.class, untouched.getId())).isTrue();
+        assertThat(cache.contains(Attendant.class, attendant.getId())).isTrue();
+        assertThat(productRepository.findById(written.getId()).orElseThrow().getPrice()).isEqualByComparingTo("89.00");
+    }
+
+    @Test
+    void stockUpdatesEvictOnlyTheUpdatedRow() {
+        assertThat(productService.reserveStock(written.getId(), 5).getStock()).isEqualTo(15);
+        assertThat(cache.contains(Product.class, untouched.getId())).isTrue();
+
+        assertThat(productService.releaseStock(written.getId(), 2).getStock()).isEqualTo(17);
+        assertThat(cache.contains(Product.class, untouched.getId())).isTrue();
+        assertThat(cache.contains(Attendant.class, attendant.getId())).isTrue();
+        assertThat(productRepository.findById(written.getId()).orElseThrow().getStock()).isEqualTo(17);
+    }
+
+    @Test
+    void attendantPatchEvictsOnlyTheUpdatedRow() {
+        Attendant patched = attendantService.patchAttendant(attendant.getId(),
+                new Attendant(null, "2 Cache Street", null, null, null), Set.of("address"), null);
+
+        assertThat(patched.getAddress()).isEqualTo("2 Cache Street");
+        assertThat(cache.contains(Product.class, written.getId())).isTrue();
+        assertThat(cache.contains(Product.class, untouched.getId())).isTrue();
+    }
+}
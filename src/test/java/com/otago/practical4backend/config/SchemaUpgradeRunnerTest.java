@@ -0,0 +1,54 @@
+package com.otago.practical4backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * One-off backfill of the normalized attendant contact columns
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SchemaUpgradeRunnerTest {
+
+    @Autowired
+    private SchemaUpgradeRunner schemaUpgradeRunner;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void backfillRunsOnceAndGivesEachDuplicateToOneAttendant() {
+        // Rows as saved before the normalized columns existed
+        long first = insert(" Upgrade.Dup@Example.com ", "021 555-0101");
+        long second = insert("upgrade.dup@example.com", "0215550101");
+        long unique = insert("Upgrade.Solo@Example.com", "021-555-0199");
+        jdbcTemplate.update("DELETE FROM schema_upgrades WHERE name = 'attendant-contacts'");
+
+        schemaUpgradeRunner.backfillAttendantContacts();
+
+        assertThat(normalized(first)).containsExactly("upgrade.dup@example.com", "0215550101");
+        assertThat(normalized(second)).containsExactly(null, null);
+        assertThat(normalized(unique)).containsExactly("upgrade.solo@example.com", "0215550199");
+
+        // Later starts skip the backfill
+        long late = insert("Upgrade.Late@Example.com", null);
+        schemaUpgradeRunner.backfillAttendantContacts();
+        assertThat(normalized(late)).containsExactly(null, null);
+    }
+
+    private long insert(String email, String mobile) {
+        jdbcTemplate.update("INSERT INTO attendants (name, email, mobile, version) VALUES ('Upgrade', ?, ?, 0)",
+                email, mobile);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM attendants", Long.class);
+    }
+
+    private String[] normalized(long id) {
+        return jdbcTemplate.queryForObject("SELECT email_normalized, mobile_normalized FROM attendants WHERE id = ?",
+                (rs, row) -> new String[]{rs.getString(1), rs.getString(2)}, id);
+    }
+}
@@ -0,0 +1,85 @@
+package com.otago.practical4backend.controller;
+
+import com.otago.practical4backend.dto.CursorPage;
+import com.otago.practical4backend.model.Product;
+import com.otago.practical4backend.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conditional GETs of listing pages, tagged from the rows in the page
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ListingETagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void pageAnswersNotModifiedUntilOneOfItsRowsChanges() throws Exception {
+        Product product = productService.createProduct(new Product("ETag Lamp", new BigDecimal("12.00"), "ETag", 4, null));
+        String cursor = CursorPage.encodeCursor(product.getId() - 1);
+
+        String etag = mockMvc.perform(get("/api/products").param("cursor", cursor).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"p-");
+
+        mockMvc.perform(get("/api/products").param("cursor", cursor).param("limit", "1")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        productService.patchProduct(product.getId(), new Product(null, null, null, 3, null), Set.of("stock"), null);
+
+        mockMvc.perform(get("/api/products").param("cursor", cursor).param("limit", "1")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void sparsePagesAreTaggedFromTheSelectedColumns() throws Exception {
+        Product product = productService.createProduct(new Product("ETag Rug", new BigDecimal("30.00"), "ETag", 2, null));
+        String cursor = CursorPage.encodeCursor(product.getId() - 1);
+
+        String etag = mockMvc.perform(get("/api/products").param("cursor", cursor).param("limit", "1")
+                        .param("fields", "id,name"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        productService.patchProduct(product.getId(), new Product("ETag Runner", null, null, null, null),
+                Set.of("name"), null);
+
+        mockMvc.perform(get("/api/products").param("cursor", cursor).param("limit", "1")
+                        .param("fields", "id,name").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void unpagedListKeepsTheTableProbe() throws Exception {
+        productService.createProduct(new Product("ETag Stool", new BigDecimal("20.00"), "ETag", 7, null));
+
+        String etag = mockMvc.perform(get("/api/products").param("unpaged", "true"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/products").param("unpaged", "true").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+}
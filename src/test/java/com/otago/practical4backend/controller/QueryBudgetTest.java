@@ -0,0 +1,124 @@
+package com.otago.practical4backend.controller;
+
+import com.otago.practical4backend.cache.EntityCache;
+import com.otago.practical4backend.model.Attendant;
+import com.otago.practical4backend.model.Product;
+import com.otago.practical4backend.profiling.SqlProfilingFilter;
+import com.otago.practical4backend.service.AttendantService;
+import com.otago.practical4backend.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Every endpoint with a @QueryBudget stays within it, as reported in the X-SQL-Profile header.
+ * Each request runs with empty entity caches, and the attendant PATCH is set up to run both
+ * duplicate checks, so the worst case is measured
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetTest {
+
+    private static final Pattern SUMMARY = Pattern.compile("statements=(\\d+);.*budget=(\\d+)");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private AttendantService attendantService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityCache<Product> productCache;
+
+    @Autowired
+    private EntityCache<Attendant> attendantCache;
+
+    @Test
+    void productEndpointsStayWithinBudget() throws Exception {
+        List<Long> ids = createProducts(5);
+        String idList = ids.get(0) + "," + ids.get(2) + "," + ids.get(4) + "," + (ids.get(4) + 1000);
+
+        assertWithinBudget(get("/api/products").param("limit", "20"), 3);
+        assertWithinBudget(get("/api/products").param("limit", "20").param("includeTotal", "true"), 3);
+        assertWithinBudget(get("/api/products").param("limit", "2").param("fields", "id,name"), 3);
+        assertWithinBudget(get("/api/products").param("ids", idList), 10);
+        assertWithinBudget(get("/api/products/changes").param("since", "0"), 2);
+        assertWithinBudget(get("/api/products/{id}", ids.get(1)), 1);
+        assertWithinBudget(get("/api/products/stats"), 1);
+        assertWithinBudget(patch("/api/products/{id}", ids.get(3))
+                .contentType(MediaType.APPLICATION_JSON).content("{\"stock\": 7, \"price\": 4.50}"), 3);
+    }
+
+    @Test
+    void attendantEndpointsStayWithinBudget() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(attendantService.createAttendant(attendant("budget" + i + "@example.com", "02170000" + i + "0")).getId());
+        }
+
+        assertWithinBudget(get("/api/attendants").param("limit", "20").param("includeTotal", "true"), 3);
+        assertWithinBudget(get("/api/attendants").param("ids", ids.get(0) + "," + ids.get(2)), 10);
+        assertWithinBudget(get("/api/attendants/changes").param("since", "0"), 2);
+        assertWithinBudget(get("/api/attendants/{id}", ids.get(1)), 1);
+
+        // Move the first attendant's contacts away; the filter keeps their bits, so reusing them on
+        // another attendant makes both duplicate checks query, the most a PATCH can issue
+        attendantService.patchAttendant(ids.get(0), attendant("moved@example.com", "0217000099"),
+                Set.of("email", "mobile"), null);
+        assertWithinBudget(patch("/api/attendants/{id}", ids.get(2)).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\": \"budget0@example.com\", \"mobile\": \"0217000000\"}"), 5);
+    }
+
+    private void assertWithinBudget(MockHttpServletRequestBuilder request, int budget) throws Exception {
+        productCache.invalidateAll();
+        attendantCache.invalidateAll();
+        entityManagerFactory.getCache().evictAll();
+
+        String summary = mockMvc.perform(request.header(SqlProfilingFilter.HEADER, "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(SqlProfilingFilter.HEADER);
+        assertThat(summary).as("profile summary").isNotNull();
+        Matcher matcher = SUMMARY.matcher(summary);
+        assertThat(matcher.find()).as("budget in %s", summary).isTrue();
+        assertThat(Integer.parseInt(matcher.group(2))).as("declared budget").isEqualTo(budget);
+        assertThat(Integer.parseInt(matcher.group(1))).as(summary).isLessThanOrEqualTo(budget);
+    }
+
+    private List<Long> createProducts(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(productService.createProduct(
+                    new Product("Budget Item " + i, new BigDecimal("3.00"), "Budget", 10 + i, null)).getId());
+        }
+        return ids;
+    }
+
+    private static Attendant attendant(String email, String mobile) {
+        return new Attendant("Budget Attendant", "1 Budget Lane", mobile, email, null);
+    }
+}
@@ -0,0 +1,92 @@
+package com.otago.practical4backend.index;
+
+import com.otago.practical4backend.cache.EntityCache;
+import com.otago.practical4backend.event.ProductChangedEvent;
+import com.otago.practical4backend.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Change events for one product applied out of commit order: the newest version must win
+ */
+class OutOfOrderEventTest {
+
+    @Test
+    void indexesKeepTheNewestSnapshot() {
+        CategoryIndex categoryIndex = build(new CategoryIndex());
+        StockIndex stockIndex = build(new StockIndex());
+        CategoryStatsIndex statsIndex = build(new CategoryStatsIndex(10));
+        ProductNameIndex nameIndex = build(new ProductNameIndex());
+
+        // A PATCH (version 2, moved to Lighting) and a later reservation (version 3), published in reverse
+        ProductChangedEvent reserved = changed(product(3, "Desk Lamp", "Lighting", 4));
+        ProductChangedEvent patched = changed(product(2, "Desk Lamp", "Lighting", 20));
+        for (AbstractEntityIndex<Product, ?> index : List.of(categoryIndex, stockIndex, statsIndex, nameIndex)) {
+            index.apply(reserved);
+            index.apply(patched);
+        }
+
+        assertThat(categoryIndex.findByCategory("lighting")).singleElement()
+                .satisfies(product -> assertThat(product.getVersion()).isEqualTo(3L));
+        assertThat(categoryIndex.findByCategory("office")).isEmpty();
+        assertThat(stockIndex.stockOf(1L)).isEqualTo(4);
+        assertThat(stockIndex.idsBelow(10)).containsExactly(1L);
+        assertThat(statsIndex.stats()).singleElement()
+                .satisfies(stats -> assertThat(stats.getTotalUnits()).isEqualTo(4));
+        assertThat(stockIndex.isNewer(product(2, "Desk Lamp", "Lighting", 20))).isFalse();
+        assertThat(stockIndex.isNewer(product(4, "Desk Lamp", "Lighting", 3))).isTrue();
+    }
+
+    @Test
+    void lateSnapshotDoesNotBringBackADeletedProduct() {
+        CategoryIndex categoryIndex = build(new CategoryIndex());
+        ProductNameIndex nameIndex = build(new ProductNameIndex());
+
+        ProductChangedEvent deleted = new ProductChangedEvent(List.of(), List.of(1L));
+        ProductChangedEvent updated = changed(product(2, "Desk Lamp", "Office", 7));
+        for (AbstractEntityIndex<Product, ?> index : List.of(categoryIndex, nameIndex)) {
+            index.apply(deleted);
+            index.apply(updated);
+        }
+
+        assertThat(categoryIndex.findByCategory("office")).isEmpty();
+        assertThat(nameIndex.search("lamp")).isEmpty();
+    }
+
+    @Test
+    void cachePutKeepsTheNewerEntity() {
+        EntityCache<Product> cache = new EntityCache<>("products", 100, Duration.ZERO, Product::getVersion);
+        cache.put(1L, product(3, "Desk Lamp", "Office", 4));
+        cache.put(1L, product(2, "Desk Lamp", "Office", 20));
+        assertThat(cache.getAllPresent(List.of(1L)).get(1L).getStock()).isEqualTo(4);
+
+        cache.put(1L, product(4, "Desk Lamp", "Office", 3));
+        assertThat(cache.getAllPresent(List.of(1L)).get(1L).getStock()).isEqualTo(3);
+    }
+
+    /**
+     * Build an index holding product 1 at version 1, in category Office with 10 units
+     */
+    private static <I extends AbstractEntityIndex<Product, ?>> I build(I index) {
+        IndexRebuild<Product> rebuild = index.startRebuild();
+        rebuild.add(product(1, "Desk Lamp", "Office", 10));
+        rebuild.complete();
+        return index;
+    }
+
+    private static ProductChangedEvent changed(Product product) {
+        return new ProductChangedEvent(List.of(product), List.of());
+    }
+
+    private static Product product(long version, String name, String category, int stock) {
+        Product product = new Product(name, new BigDecimal("25.00"), category, stock, null);
+        product.setId(1L);
+        product.setVersion(version);
+        return product;
+    }
+}
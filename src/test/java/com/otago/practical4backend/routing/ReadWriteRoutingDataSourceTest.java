@@ -0,0 +1,127 @@
+package com.otago.practical4backend.routing;
+
+import jakarta.servlet.http.Cookie;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes transactions between two in-memory H2 databases standing in for the primary and the replica.
+ * Each database holds a one-row table naming itself, so a query shows where it was sent
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private ReadYourWrites readYourWrites;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        readYourWrites = new ReadYourWrites(Duration.ofSeconds(5));
+        DataSource routing = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, readYourWrites));
+
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        readYourWrites.end();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertThat(readOnlyServer()).isEqualTo("replica");
+    }
+
+    @Test
+    void writeTransactionsUseThePrimary() {
+        assertThat(readWriteServer()).isEqualTo("primary");
+    }
+
+    @Test
+    void workOutsideATransactionUsesThePrimary() {
+        assertThat(server()).isEqualTo("primary");
+    }
+
+    @Test
+    void primaryReadsHintOverridesReadOnly() {
+        assertThat(PrimaryReads.call(this::readOnlyServer)).isEqualTo("primary");
+        assertThat(PrimaryReads.isRequired()).isFalse();
+        assertThat(readOnlyServer()).isEqualTo("replica");
+    }
+
+    @Test
+    void readsStickToThePrimaryAfterACommittedWrite() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        readYourWrites.begin(new MockHttpServletRequest(), response);
+
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE server SET writes = writes + 1"));
+
+        assertThat(readOnlyServer()).isEqualTo("primary");
+        assertThat(response.getCookie(ReadYourWrites.COOKIE)).isNotNull();
+    }
+
+    @Test
+    void rolledBackWriteDoesNotMakeReadsSticky() {
+        readYourWrites.begin(new MockHttpServletRequest(), new MockHttpServletResponse());
+
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE server SET writes = writes + 1");
+            status.setRollbackOnly();
+        });
+
+        assertThat(readOnlyServer()).isEqualTo("replica");
+    }
+
+    @Test
+    void cookieFromARecentWriteSendsTheNextRequestToThePrimary() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(ReadYourWrites.COOKIE,
+                Long.toString(System.currentTimeMillis() + 5_000)));
+        readYourWrites.begin(request, new MockHttpServletResponse());
+
+        assertThat(readOnlyServer()).isEqualTo("primary");
+    }
+
+    private String readOnlyServer() {
+        return readOnly.execute(status -> server());
+    }
+
+    private String readWriteServer() {
+        return readWrite.execute(status -> server());
+    }
+
+    private String server() {
+        return jdbcTemplate.queryForObject("SELECT name FROM server", String.class);
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS server (name VARCHAR(20), writes INT)");
+        jdbc.update("DELETE FROM server");
+        jdbc.update("INSERT INTO server (name, writes) VALUES (?, 0)", name);
+        return dataSource;
+    }
+}
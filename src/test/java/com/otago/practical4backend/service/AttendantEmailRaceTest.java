@@ -0,0 +1,97 @@
+package com.otago.practical4backend.service;
+
+import com.otago.practical4backend.index.AttendantContactFilter;
+import com.otago.practical4backend.model.Attendant;
+import com.otago.practical4backend.repository.AttendantRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Concurrent creates that share an email, and lookups right after a create
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AttendantEmailRaceTest {
+
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AttendantService attendantService;
+
+    @Autowired
+    private AttendantRepository attendantRepository;
+
+    @Autowired
+    private AttendantContactFilter contactFilter;
+
+    @Test
+    void twoCreatesWithTheSameEmailLeaveExactlyOneRejected() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                String email = "race" + round + "@example.com";
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                    String body = attendantJson("Racer " + i, "021" + (5000000 + round * 10 + i), email);
+                    Callable<Integer> create = () -> {
+                        start.await();
+                        return mockMvc.perform(post("/api/attendants")
+                                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                                .andReturn().getResponse().getStatus();
+                    };
+                    results.add(executor.submit(create));
+                }
+                start.countDown();
+
+                List<Integer> statuses = new ArrayList<>();
+                for (Future<Integer> result : results) {
+                    statuses.add(result.get(30, TimeUnit.SECONDS));
+                }
+                assertThat(statuses).as("round %d", round).containsExactlyInAnyOrder(201, 400);
+                assertThat(attendantService.getAttendantByEmail(email)).isPresent();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void emailLookupFindsAnAttendantTheFilterHasNotSeen() throws Exception {
+        // Saved past the service, as another instance would: no change event reaches this instance's filter
+        String email = "unseen@example.com";
+        attendantRepository.save(new Attendant("Unseen", "1 Race Street", "0219999001", email, ""));
+        assertThat(contactFilter.mightContainEmail(email)).isFalse();
+
+        assertThat(attendantService.getAttendantByEmail(email)).isPresent();
+        assertThat(mockMvc.perform(get("/api/attendants/email/" + email))
+                .andReturn().getResponse().getStatus()).isEqualTo(200);
+    }
+
+    private static String attendantJson(String name, String mobile, String email) {
+        return "{\"name\":\"" + name + "\",\"address\":\"1 Race Street\",\"mobile\":\"" + mobile
+                + "\",\"email\":\"" + email + "\",\"comments\":\"\"}";
+    }
+}
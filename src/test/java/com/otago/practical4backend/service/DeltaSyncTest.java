@@ -0,0 +1,160 @@
+package com.otago.practical4backend.service;
+
+import com.otago.practical4backend.dto.ChangeFeed;
+import com.otago.practical4backend.event.ChangeLog;
+import com.otago.practical4backend.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Delta sync against the change log in H2: ordering, numbering after commit, compaction and purging
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DeltaSyncTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ChangeLog changeLog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long since;
+
+    @BeforeEach
+    void setUp() {
+        // Start after every earlier test's changes, including purged ones
+        changeLog.assignNumbers();
+        since = Math.max(changeLog.lastNumber(), changeLog.purgedThrough());
+    }
+
+    @Test
+    void returnsEachChangedRowOnceInItsLatestState() {
+        Product created = productService.createProduct(product("Sync Lamp", 5));
+        productService.patchProduct(created.getId(), product(null, 9), Set.of("stock"), null);
+        Product removed = productService.createProduct(product("Sync Chair", 3));
+        productService.deleteProduct(removed.getId(), null);
+
+        ChangeFeed<Product> feed = changes(since, null);
+
+        assertThat(feed.getChanged()).extracting(Product::getId).containsExactly(created.getId());
+        assertThat(feed.getChanged().get(0).getStock()).isEqualTo(9);
+        assertThat(feed.getChanged().get(0).getUpdatedAt()).isNotNull();
+        assertThat(feed.getDeleted()).extracting(ChangeFeed.Deletion::id).containsExactly(removed.getId());
+        assertThat(feed.isHasMore()).isFalse();
+        assertThat(changes(feed.getNextSince(), null).getChanged()).isEmpty();
+    }
+
+    @Test
+    void pagesContinueFromNextSince() {
+        for (int i = 0; i < 3; i++) {
+            productService.createProduct(product("Sync Page " + i, i));
+        }
+
+        ChangeFeed<Product> first = changes(since, 2);
+        ChangeFeed<Product> second = changes(first.getNextSince(), 2);
+
+        assertThat(first.getChanged()).hasSize(2);
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(second.getChanged()).hasSize(1);
+        assertThat(second.isHasMore()).isFalse();
+    }
+
+    @Test
+    void changesLoggedFirstButCommittedLastAreNotSkipped() {
+        Product slow = productService.createProduct(product("Sync Slow", 1));
+        changeLog.assignNumbers();
+        long start = changeLog.lastNumber();
+
+        TransactionTemplate outer = new TransactionTemplate(transactionManager);
+        TransactionTemplate separate = new TransactionTemplate(transactionManager);
+        separate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        ChangeFeed<Product> whileOpen = outer.execute(status -> {
+            // Stands in for a bulk write that logs its changes, then takes a while to commit
+            changeLog.record("products", List.of(slow.getId()), List.of());
+            Product fast = separate.execute(inner -> productService.createProduct(product("Sync Fast", 1)));
+            ChangeFeed<Product> feed = separate.execute(inner -> changes(start, null));
+            assertThat(feed.getChanged()).extracting(Product::getId).containsExactly(fast.getId());
+            return feed;
+        });
+
+        ChangeFeed<Product> afterCommit = changes(whileOpen.getNextSince(), null);
+        assertThat(afterCommit.getChanged()).extracting(Product::getId).containsExactly(slow.getId());
+        assertThat(afterCommit.getNextSince()).isGreaterThan(whileOpen.getNextSince());
+    }
+
+    @Test
+    void entriesTakeTheDatabaseTime() {
+        productService.createProduct(product("Sync Clock", 1));
+        changeLog.assignNumbers();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM change_log WHERE change_number > ? "
+                + "AND changed_at > TIMESTAMPADD(SECOND, -60, CURRENT_TIMESTAMP)", Integer.class,
+                since)).isPositive();
+    }
+
+    @Test
+    void compactionKeepsOnlyTheLatestEntryPerRow() {
+        Product created = productService.createProduct(product("Sync Compact", 1));
+        for (int stock = 2; stock <= 4; stock++) {
+            productService.patchProduct(created.getId(), product(null, stock), Set.of("stock"), null);
+        }
+        changeLog.assignNumbers();
+
+        changeLog.compact();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM change_log WHERE entity_id = ? "
+                + "AND table_name = 'products'", Integer.class, created.getId())).isEqualTo(1);
+        ChangeFeed<Product> feed = changes(since, null);
+        assertThat(feed.getChanged()).extracting(Product::getStock).containsExactly(4);
+    }
+
+    @Test
+    void clientsBehindPurgedDeletionsMustResync() {
+        Product removed = productService.createProduct(product("Sync Purge", 1));
+        productService.deleteProduct(removed.getId(), null);
+        changeLog.assignNumbers();
+        jdbcTemplate.update("UPDATE change_log SET changed_at = ? WHERE change_number > ?",
+                Timestamp.from(Instant.now().minus(Duration.ofDays(365))), since);
+
+        changeLog.compact();
+
+        assertThat(changeLog.purgedThrough()).isGreaterThan(since);
+        assertThat(changes(Math.max(since, 1), null).isResyncRequired()).isTrue();
+        assertThat(changes(0, null).isResyncRequired()).isFalse();
+    }
+
+    /**
+     * Number the entries committed so far, as the background numbering would, then read
+     */
+    private ChangeFeed<Product> changes(long from, Integer limit) {
+        changeLog.assignNumbers();
+        return productService.getProductChanges(from, limit);
+    }
+
+    private static Product product(String name, int stock) {
+        return new Product(name, new BigDecimal("10.00"), "Sync", stock, null);
+    }
+}
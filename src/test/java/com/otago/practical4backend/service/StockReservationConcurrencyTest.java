@@ -0,0 +1,143 @@
+package com.otago.practical4backend.service;
+
+import com.otago.practical4backend.model.Product;
+import com.otago.practical4backend.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Many threads reserving and releasing stock on one hot product at once
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StockReservationConcurrencyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReservationConcurrencyTest.class);
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 50;
+    private static final int STOCK = 300;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void hotProductIsNeverOversold() throws Exception {
+        Long id = productService.createProduct(new Product("Hot SKU", new BigDecimal("9.99"), "Race", STOCK, null)).getId();
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        long elapsed = race(() -> {
+            try {
+                stockReservationService.reserve(id, 1);
+                reserved.incrementAndGet();
+            } catch (InsufficientStockException e) {
+                refused.incrementAndGet();
+            }
+        });
+
+        int attempts = THREADS * ATTEMPTS_PER_THREAD;
+        report("reserve", attempts, elapsed);
+        assertThat(reserved.get()).isEqualTo(STOCK);
+        assertThat(refused.get()).isEqualTo(attempts - STOCK);
+        assertThat(productRepository.findById(id).orElseThrow().getStock()).isZero();
+    }
+
+    @Test
+    void reservationsAndReleasesBalance() throws Exception {
+        Long id = productService.createProduct(new Product("Hot SKU 2", new BigDecimal("9.99"), "Race", 5, null)).getId();
+        AtomicInteger refused = new AtomicInteger();
+
+        // Every successful reservation is released again, so stock ends where it started
+        long elapsed = race(() -> {
+            try {
+                stockReservationService.reserve(id, 1);
+                assertThat(stockReservationService.release(id, 1).getStock()).isBetween(1, 5);
+            } catch (InsufficientStockException e) {
+                refused.incrementAndGet();
+            }
+        });
+
+        report("reserve+release", THREADS * ATTEMPTS_PER_THREAD, elapsed);
+        assertThat(productRepository.findById(id).orElseThrow().getStock()).isEqualTo(5);
+    }
+
+    @Test
+    void refusalDoesNotLeaveLaterResultsInABatchStale() {
+        Long id = productService.createProduct(new Product("Hot SKU 3", new BigDecimal("9.99"), "Race", 1, null)).getId();
+        TransactionTemplate batch = new TransactionTemplate(transactionManager);
+
+        // What one coalesced batch does: a reservation, a refusal, then a release
+        int released = batch.execute(status -> {
+            productService.reserveStock(id, 1);
+            assertThatThrownBy(() -> productService.reserveStock(id, 1)).isInstanceOf(InsufficientStockException.class);
+            return productService.releaseStock(id, 1).getStock();
+        });
+
+        assertThat(released).isEqualTo(1);
+        assertThat(productRepository.findById(id).orElseThrow().getStock()).isEqualTo(1);
+    }
+
+    /**
+     * Run the action ATTEMPTS_PER_THREAD times on each of THREADS threads, all started together
+     * @return Elapsed nanoseconds
+     */
+    private static long race(Runnable action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        action.run();
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+            return System.nanoTime() - begin;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void report(String operation, int attempts, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        log.info("{} on one product: {} attempts from {} threads in {} ms ({} ops/s)",
+                operation, attempts, THREADS, Math.round(seconds * 1000), Math.round(attempts / seconds));
+    }
+}